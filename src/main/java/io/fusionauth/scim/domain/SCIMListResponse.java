@@ -30,6 +30,10 @@ public class SCIMListResponse implements SCIMResponse, Buildable<SCIMListRespons
 
   public int itemsPerPage;
 
+  public String nextCursor;
+
+  public String previousCursor;
+
   public String schema;
 
   public List<String> schemas = new ArrayList<>(Arrays.asList(SCIMSchemas.ListResponse));
@@ -51,13 +55,15 @@ public class SCIMListResponse implements SCIMResponse, Buildable<SCIMListRespons
            startIndex == that.startIndex &&
            totalResults == that.totalResults &&
            Objects.equals(Resources, that.Resources) &&
+           Objects.equals(nextCursor, that.nextCursor) &&
+           Objects.equals(previousCursor, that.previousCursor) &&
            Objects.equals(schema, that.schema) &&
            Objects.equals(schemas, that.schemas);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(Resources, itemsPerPage, schema, schemas, startIndex, totalResults);
+    return Objects.hash(Resources, itemsPerPage, nextCursor, previousCursor, schema, schemas, startIndex, totalResults);
   }
 
   @Override
@@ -39,6 +39,8 @@ public class SCIMServiceProviderConfig extends BaseSCIMResource<SCIMServiceProvi
 
   public Map<String, Object> filter;
 
+  public Map<String, Object> pagination;
+
   public Map<String, Object> patch;
 
   public Map<String, Object> sort;
@@ -61,13 +63,14 @@ public class SCIMServiceProviderConfig extends BaseSCIMResource<SCIMServiceProvi
            Objects.equals(documentationURI, that.documentationURI) &&
            Objects.equals(etag, that.etag) &&
            Objects.equals(filter, that.filter) &&
+           Objects.equals(pagination, that.pagination) &&
            Objects.equals(patch, that.patch) &&
            Objects.equals(sort, that.sort);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(super.hashCode(), authenticationSchemes, bulk, changePassword, documentationURI, etag, filter, patch, sort);
+    return Objects.hash(super.hashCode(), authenticationSchemes, bulk, changePassword, documentationURI, etag, filter, pagination, patch, sort);
   }
 
   @Override
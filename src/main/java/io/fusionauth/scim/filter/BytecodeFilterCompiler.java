@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.fusionauth.scim.parser.expression.Expression;
+
+/**
+ * Compiles filters into predicates that test a SCIM resource in its {@link JsonNode} form, promoting frequently evaluated filters to generated
+ * bytecode.
+ * <p>
+ * A compiled predicate starts out as the interpreted predicate from {@link JsonNodeFilterCompiler}. Once it has been evaluated
+ * {@code promotionThreshold} times, a hidden class is generated for the filter and used for every later evaluation. Each filter gets its own
+ * class, so the JIT can optimize it with the comparison values as constants. The filter is optimized before the class is generated, so a long
+ * chain of comparisons on one attribute becomes a single membership test. Filters that still have many comparisons, or whose generated code
+ * would be too large for the JIT to compile, stay interpreted because the generated class would be slower.
+ * <p>
+ * The evaluation count is shared by every thread that evaluates the filter, and the class is generated once, by the first evaluation that
+ * reaches the threshold. The generated class gives the same result as the interpreted predicate.
+ *
+ * @author Spencer Witt
+ */
+public class BytecodeFilterCompiler {
+  /**
+   * The default number of evaluations before a filter is promoted to generated bytecode
+   */
+  public static final int DefaultPromotionThreshold = 10_000;
+
+  private final JsonNodeFilterCompiler compiler = new JsonNodeFilterCompiler();
+
+  private final int promotionThreshold;
+
+  public BytecodeFilterCompiler() {
+    this(DefaultPromotionThreshold);
+  }
+
+  /**
+   * @param promotionThreshold The number of evaluations before a filter is promoted to generated bytecode. Use zero to generate the bytecode
+   *                           when the filter is compiled.
+   */
+  public BytecodeFilterCompiler(int promotionThreshold) {
+    if (promotionThreshold < 0) {
+      throw new IllegalArgumentException("The promotion threshold must not be negative");
+    }
+    this.promotionThreshold = promotionThreshold;
+  }
+
+  /**
+   * Compile an expression tree into a predicate
+   *
+   * @param expression The expression tree
+   * @return A predicate that returns true for resources matching the expression
+   */
+  public Predicate<JsonNode> compile(Expression expression) {
+    Predicate<JsonNode> interpreted = compiler.compile(expression);
+    if (promotionThreshold == 0) {
+      Predicate<JsonNode> generated = JsonNodeFilterGenerator.generate(compiler, expression);
+      return generated != null ? generated : interpreted;
+    }
+
+    return new PromotingPredicate(expression, interpreted);
+  }
+
+  private class PromotingPredicate implements Predicate<JsonNode> {
+    private final Expression expression;
+
+    private final Predicate<JsonNode> interpreted;
+
+    private volatile Predicate<JsonNode> delegate;
+
+    private final AtomicInteger evaluations = new AtomicInteger();
+
+    private volatile boolean promoted;
+
+    PromotingPredicate(Expression expression, Predicate<JsonNode> interpreted) {
+      this.expression = expression;
+      this.interpreted = interpreted;
+      this.delegate = this::interpret;
+    }
+
+    @Override
+    public boolean test(JsonNode resource) {
+      return delegate.test(resource);
+    }
+
+    private boolean interpret(JsonNode resource) {
+      if (!promoted && evaluations.incrementAndGet() >= promotionThreshold) {
+        promote();
+      }
+      return interpreted.test(resource);
+    }
+
+    private synchronized void promote() {
+      if (promoted) {
+        return;
+      }
+
+      promoted = true;
+      Predicate<JsonNode> generated = JsonNodeFilterGenerator.generate(compiler, expression);
+      // A filter that can not be generated stays interpreted without counting evaluations
+      delegate = generated != null ? generated : interpreted;
+    }
+  }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.filter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal writer for the class files generated by {@link JsonNodeFilterGenerator}. It supports only what the generator needs: a constant pool,
+ * static fields and methods with a code attribute.
+ * <p>
+ * Classes are written with class file version 49, which does not require stack map frames, so branch targets are only recorded as offsets.
+ *
+ * @author Spencer Witt
+ */
+final class ClassFileWriter {
+  static final int ACC_FINAL = 0x0010;
+
+  static final int ACC_PUBLIC = 0x0001;
+
+  static final int ACC_STATIC = 0x0008;
+
+  static final int ACC_SUPER = 0x0020;
+
+  private static final int Version = 49;
+
+  private final Map<String, Integer> constants = new HashMap<>();
+
+  private final List<byte[]> fields = new ArrayList<>();
+
+  private final List<Code> methods = new ArrayList<>();
+
+  private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+
+  private final DataOutputStream poolOut = new DataOutputStream(pool);
+
+  private int poolCount = 1;
+
+  int classRef(String internalName) {
+    int name = utf8(internalName);
+    return constant("C" + internalName, 7, out -> out.writeShort(name));
+  }
+
+  int fieldRef(String owner, String name, String descriptor) {
+    return memberRef(9, owner, name, descriptor);
+  }
+
+  int interfaceMethodRef(String owner, String name, String descriptor) {
+    return memberRef(11, owner, name, descriptor);
+  }
+
+  int longConstant(long value) {
+    int index = constant("J" + value, 5, out -> out.writeLong(value));
+    // Long constants take two entries in the constant pool
+    if (index == poolCount - 1) {
+      poolCount++;
+    }
+    return index;
+  }
+
+  int methodRef(String owner, String name, String descriptor) {
+    return memberRef(10, owner, name, descriptor);
+  }
+
+  int string(String value) {
+    int utf8 = utf8(value);
+    return constant("S" + value, 8, out -> out.writeShort(utf8));
+  }
+
+  void field(int access, String name, String descriptor) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    write(bytes, out -> {
+      out.writeShort(access);
+      out.writeShort(utf8(name));
+      out.writeShort(utf8(descriptor));
+      out.writeShort(0);
+    });
+    fields.add(bytes.toByteArray());
+  }
+
+  Code method(int access, String name, String descriptor, int maxLocals) {
+    Code code = new Code(access, utf8(name), utf8(descriptor), maxLocals);
+    methods.add(code);
+    return code;
+  }
+
+  byte[] toByteArray(int access, String name, String superName, String... interfaces) {
+    int thisClass = classRef(name);
+    int superClass = classRef(superName);
+    int[] interfaceRefs = new int[interfaces.length];
+    for (int i = 0; i < interfaces.length; i++) {
+      interfaceRefs[i] = classRef(interfaces[i]);
+    }
+    int codeName = utf8("Code");
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    write(bytes, out -> {
+      out.writeInt(0xCAFEBABE);
+      out.writeShort(0);
+      out.writeShort(Version);
+      out.writeShort(poolCount);
+      poolOut.flush();
+      pool.writeTo(out);
+      out.writeShort(access);
+      out.writeShort(thisClass);
+      out.writeShort(superClass);
+      out.writeShort(interfaceRefs.length);
+      for (int interfaceRef : interfaceRefs) {
+        out.writeShort(interfaceRef);
+      }
+      out.writeShort(fields.size());
+      for (byte[] field : fields) {
+        out.write(field);
+      }
+      out.writeShort(methods.size());
+      for (Code method : methods) {
+        method.write(out, codeName);
+      }
+      out.writeShort(0);
+    });
+    return bytes.toByteArray();
+  }
+
+  int utf8(String value) {
+    return constant("U" + value, 1, out -> out.writeUTF(value));
+  }
+
+  private int constant(String key, int tag, Writer writer) {
+    Integer index = constants.get(key);
+    if (index != null) {
+      return index;
+    }
+
+    write(pool, out -> {
+      out.writeByte(tag);
+      writer.write(out);
+    });
+    constants.put(key, poolCount);
+    return poolCount++;
+  }
+
+  private int memberRef(int tag, String owner, String name, String descriptor) {
+    int classRef = classRef(owner);
+    int nameRef = utf8(name);
+    int descriptorRef = utf8(descriptor);
+    int nameAndType = constant("N" + name + ";" + descriptor, 12, out -> {
+      out.writeShort(nameRef);
+      out.writeShort(descriptorRef);
+    });
+    return constant(tag + owner + "." + name + ";" + descriptor, tag, out -> {
+      out.writeShort(classRef);
+      out.writeShort(nameAndType);
+    });
+  }
+
+  private void write(ByteArrayOutputStream bytes, Writer writer) {
+    try {
+      DataOutputStream out = bytes == pool ? poolOut : new DataOutputStream(bytes);
+      writer.write(out);
+      out.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private interface Writer {
+    void write(DataOutputStream out) throws IOException;
+  }
+
+  /**
+   * The bytecode of a single method
+   */
+  static final class Code {
+    private final int access;
+
+    private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+
+    private final int descriptor;
+
+    private final Map<Integer, Label> jumps = new HashMap<>();
+
+    private final int maxLocals;
+
+    private final int name;
+
+    private Code(int access, int name, int descriptor, int maxLocals) {
+      this.access = access;
+      this.name = name;
+      this.descriptor = descriptor;
+      this.maxLocals = maxLocals;
+    }
+
+    void invokeInterface(int methodRef, int argumentSlots) {
+      op(0xB9, methodRef);
+      code.write(argumentSlots);
+      code.write(0);
+    }
+
+    /**
+     * Write a branch instruction to a label that may not be marked yet
+     *
+     * @param opcode The branch opcode
+     * @param label  The branch target
+     */
+    void jump(int opcode, Label label) {
+      jumps.put(code.size(), label);
+      op(opcode, 0);
+    }
+
+    int length() {
+      return code.size();
+    }
+
+    void mark(Label label) {
+      label.offset = code.size();
+    }
+
+    void op(int opcode) {
+      code.write(opcode);
+    }
+
+    void op(int opcode, int operand) {
+      code.write(opcode);
+      code.write(operand >> 8);
+      code.write(operand);
+    }
+
+    private void write(DataOutputStream out, int codeName) throws IOException {
+      byte[] bytes = code.toByteArray();
+      for (Map.Entry<Integer, Label> jump : jumps.entrySet()) {
+        int position = jump.getKey();
+        int offset = jump.getValue().offset - position;
+        bytes[position + 1] = (byte) (offset >> 8);
+        bytes[position + 2] = (byte) offset;
+      }
+
+      out.writeShort(access);
+      out.writeShort(name);
+      out.writeShort(descriptor);
+      out.writeShort(1);
+      out.writeShort(codeName);
+      out.writeInt(12 + bytes.length);
+      // The generated code never nests operands deeply, so a generous fixed stack size avoids tracking the depth of each instruction
+      out.writeShort(16);
+      out.writeShort(maxLocals);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+      out.writeShort(0);
+      out.writeShort(0);
+    }
+  }
+
+  /**
+   * A branch target in a method
+   */
+  static final class Label {
+    private int offset = -1;
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.filter;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import io.fusionauth.scim.parser.AttributePath;
+import io.fusionauth.scim.parser.InvalidFilterExpressionException;
+import io.fusionauth.scim.parser.LogicalOperator;
+import io.fusionauth.scim.parser.expression.AttributeExpression;
+import io.fusionauth.scim.parser.expression.AttributeFilterGroupingExpression;
+import io.fusionauth.scim.parser.expression.AttributeMembershipExpression;
+import io.fusionauth.scim.parser.expression.AttributeRangeExpression;
+import io.fusionauth.scim.parser.expression.Expression;
+import io.fusionauth.scim.parser.expression.LogicalChainExpression;
+import io.fusionauth.scim.parser.expression.LogicalLinkExpression;
+import io.fusionauth.scim.parser.expression.LogicalNegationExpression;
+import io.fusionauth.scim.transform.ExpressionFlattener;
+
+/**
+ * Compiles an {@link Expression} tree into a {@link Predicate} that tests a single resource. All dispatch on expression types, operators and value
+ * types happens once at compile time, so the resulting predicate is a tree of closures that can be evaluated any number of times.
+ * <p>
+ * This class compiles the logical structure of a filter. Sub-classes compile the attribute expressions for a particular representation of a
+ * resource. The tree is flattened with {@link ExpressionFlattener} first, so long chains of {@code and} and {@code or} are evaluated with a loop.
+ * <p>
+ * Compilers are stateless and may be shared between threads, as may the predicates they produce.
+ *
+ * @param <T> The resource representation that the compiled predicates test
+ * @author Spencer Witt
+ */
+public abstract class FilterCompiler<T> {
+  /**
+   * Compile an expression tree into a predicate
+   *
+   * @param expression The expression tree
+   * @return A predicate that returns true for resources matching the expression
+   * @throws InvalidFilterExpressionException If the expression can never be evaluated, e.g. an ordering comparison with a boolean value
+   */
+  public Predicate<T> compile(Expression expression) {
+    return visit(ExpressionFlattener.flatten(expression));
+  }
+
+  /**
+   * Compile an attribute comparison, present test or null test
+   *
+   * @param expression The attribute expression
+   * @return A predicate that evaluates the expression against a resource
+   */
+  protected abstract Predicate<T> compileAttribute(AttributeExpression<?> expression);
+
+  /**
+   * Compile a complex attribute filter, e.g. {@code emails[type eq "work"]}. The filter matches when any value of the parent attribute matches the
+   * sub-filter.
+   *
+   * @param parentAttributePath The complex attribute that the sub-filter is applied to
+   * @param filter              The compiled sub-filter. Its attribute paths are relative to a single value of the parent attribute.
+   * @return A predicate that evaluates the grouping against a resource
+   */
+  protected abstract Predicate<T> compileFilterGrouping(AttributePath parentAttributePath, Predicate<T> filter);
+
+  /**
+   * Compile a membership test
+   *
+   * @param expression The membership expression
+   * @return A predicate that evaluates the expression against a resource
+   */
+  protected abstract Predicate<T> compileMembership(AttributeMembershipExpression expression);
+
+  private Predicate<T> compileChain(LogicalOperator operator, List<Expression> operands) {
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Predicate<T>[] predicates = new Predicate[operands.size()];
+    for (int i = 0; i < predicates.length; i++) {
+      predicates[i] = visit(operands.get(i));
+    }
+
+    if (operator == LogicalOperator.and) {
+      return resource -> {
+        for (Predicate<T> predicate : predicates) {
+          if (!predicate.test(resource)) {
+            return false;
+          }
+        }
+        return true;
+      };
+    }
+
+    return resource -> {
+      for (Predicate<T> predicate : predicates) {
+        if (predicate.test(resource)) {
+          return true;
+        }
+      }
+      return false;
+    };
+  }
+
+  private Predicate<T> visit(Expression expression) {
+    return switch (expression.type()) {
+      case attribute -> compileAttribute((AttributeExpression<?>) expression);
+      case attributeMembership -> compileMembership((AttributeMembershipExpression) expression);
+      case attributeRange -> {
+        AttributeRangeExpression range = (AttributeRangeExpression) expression;
+        Predicate<T> lower = compileAttribute(range.lower);
+        Predicate<T> upper = compileAttribute(range.upper);
+        yield resource -> lower.test(resource) && upper.test(resource);
+      }
+      case attributeFilterGrouping -> {
+        AttributeFilterGroupingExpression grouping = (AttributeFilterGroupingExpression) expression;
+        yield compileFilterGrouping(AttributePath.of(grouping.parentAttributePath), visit(grouping.filterExpression));
+      }
+      case logicalChain -> {
+        LogicalChainExpression chain = (LogicalChainExpression) expression;
+        yield compileChain(chain.logicalOperator, chain.operands);
+      }
+      case logicalLink -> {
+        LogicalLinkExpression link = (LogicalLinkExpression) expression;
+        yield compileChain(link.logicalOperator, List.of(link.left, link.right));
+      }
+      case logicalNegation -> {
+        Predicate<T> subExpression = visit(((LogicalNegationExpression) expression).subExpression);
+        yield resource -> !subExpression.test(resource);
+      }
+      // GroupingExpressions do not appear in the final parsed SCIM output
+      case grouping -> throw new InvalidFilterExpressionException("A grouping expression cannot be evaluated");
+    };
+  }
+}
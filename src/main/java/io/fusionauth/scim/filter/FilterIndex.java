@@ -0,0 +1,420 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.filter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.fusionauth.scim.parser.AttributePath;
+import io.fusionauth.scim.parser.LogicalOperator;
+import io.fusionauth.scim.parser.ValueType;
+import io.fusionauth.scim.parser.expression.AttributeExpression;
+import io.fusionauth.scim.parser.expression.AttributeFilterGroupingExpression;
+import io.fusionauth.scim.parser.expression.AttributeMembershipExpression;
+import io.fusionauth.scim.parser.expression.AttributeTextComparisonExpression;
+import io.fusionauth.scim.parser.expression.Expression;
+import io.fusionauth.scim.parser.expression.LogicalChainExpression;
+import io.fusionauth.scim.parser.expression.LogicalLinkExpression;
+import io.fusionauth.scim.transform.ExpressionFlattener;
+
+/**
+ * An index of stored filters that finds the filters matching a single resource without evaluating every filter, sometimes called a percolator.
+ * <p>
+ * Each filter is decomposed into guards, attribute tests such that the filter can only match a resource if at least one of its guards matches:
+ * <ul>
+ *   <li>A text {@code eq} comparison or a membership test is a guard on the exact value, and is stored in a hash table for its attribute.</li>
+ *   <li>A text {@code sw} comparison is a guard on a prefix, and is stored in a prefix trie for its attribute.</li>
+ *   <li>A {@code pr} test is a guard on the attribute being present.</li>
+ *   <li>An {@code and} uses the guards of its most selective operand, and an {@code or} uses the guards of all of its operands. A complex attribute
+ *   filter uses the guards of its sub-filter, with the parent attribute prepended to each path.</li>
+ * </ul>
+ * Filters without guards, e.g. negations and ordering comparisons, are kept in a residual list and are candidates for every resource.
+ * <p>
+ * To match a resource, the values of each indexed attribute are read once and looked up in the hash tables and tries, so the cost of finding the
+ * candidates depends on the indexed attributes rather than the number of filters. Only the candidates are then evaluated.
+ * <p>
+ * Adding and removing filters is not thread-safe. Once built, an index may be used to match resources from several threads.
+ *
+ * @param <K> The type of the key that identifies each filter
+ * @author Spencer Witt
+ */
+public class FilterIndex<K> {
+  private final Function<Expression, Predicate<JsonNode>> compiler;
+
+  private final Map<K, Entry<K>> entries = new LinkedHashMap<>();
+
+  private final Map<List<String>, AttributeIndex<K>> attributes = new HashMap<>();
+
+  private final Set<Entry<K>> residual = new LinkedHashSet<>();
+
+  public FilterIndex() {
+    this(new JsonNodeFilterCompiler()::compile);
+  }
+
+  /**
+   * @param compiler Compiles each filter into the predicate used to verify candidates, e.g. {@code new BytecodeFilterCompiler()::compile}
+   */
+  public FilterIndex(Function<Expression, Predicate<JsonNode>> compiler) {
+    this.compiler = compiler;
+  }
+
+  private static <T> List<T> concat(List<T> first, List<T> second) {
+    List<T> result = new ArrayList<>(first.size() + second.size());
+    result.addAll(first);
+    result.addAll(second);
+    return result;
+  }
+
+  /**
+   * Decompose a flattened filter into guards
+   *
+   * @return The guards, or null if the filter can not be guarded
+   */
+  private static List<Guard> guards(Expression expression) {
+    return switch (expression.type()) {
+      case attribute -> {
+        AttributeExpression<?> attribute = (AttributeExpression<?>) expression;
+        if (attribute.valueType() == ValueType.none) {
+          yield List.of(new Guard(attribute.path.segments, GuardType.present, null));
+        }
+        if (attribute.valueType() != ValueType.text) {
+          yield null;
+        }
+
+        AttributeTextComparisonExpression text = (AttributeTextComparisonExpression) attribute;
+        yield switch (text.operator) {
+          case eq -> List.of(new Guard(text.path.segments, GuardType.equal, text.value()));
+          case sw -> List.of(new Guard(text.path.segments, GuardType.prefix, text.value()));
+          default -> null;
+        };
+      }
+      case attributeMembership -> {
+        AttributeMembershipExpression membership = (AttributeMembershipExpression) expression;
+        yield membership.values.stream().map(value -> new Guard(membership.path.segments, GuardType.equal, value)).toList();
+      }
+      case attributeFilterGrouping -> {
+        AttributeFilterGroupingExpression grouping = (AttributeFilterGroupingExpression) expression;
+        List<Guard> guards = guards(grouping.filterExpression);
+        if (guards == null) {
+          yield null;
+        }
+
+        // The sub-filter only matches values of the parent attribute, so its guards apply below the parent
+        List<String> parent = AttributePath.of(grouping.parentAttributePath).segments;
+        yield guards.stream().map(guard -> new Guard(concat(parent, guard.segments), guard.type, guard.value)).toList();
+      }
+      case logicalChain -> {
+        LogicalChainExpression chain = (LogicalChainExpression) expression;
+        yield guards(chain.logicalOperator, chain.operands);
+      }
+      case logicalLink -> {
+        LogicalLinkExpression link = (LogicalLinkExpression) expression;
+        yield guards(link.logicalOperator, List.of(link.left, link.right));
+      }
+      default -> null;
+    };
+  }
+
+  private static List<Guard> guards(LogicalOperator operator, List<Expression> operands) {
+    if (operator == LogicalOperator.or) {
+      // Every operand must be guarded, otherwise the operand without guards could match on its own
+      List<Guard> guards = new ArrayList<>();
+      for (Expression operand : operands) {
+        List<Guard> operandGuards = guards(operand);
+        if (operandGuards == null) {
+          return null;
+        }
+        guards.addAll(operandGuards);
+      }
+      return guards;
+    }
+
+    // Every operand must match, so the guards of any one operand are enough. Use the cheapest.
+    List<Guard> best = null;
+    int bestCost = Integer.MAX_VALUE;
+    for (Expression operand : operands) {
+      List<Guard> operandGuards = guards(operand);
+      if (operandGuards != null) {
+        int cost = operandGuards.stream().mapToInt(guard -> guard.type.cost).sum();
+        if (cost < bestCost) {
+          best = operandGuards;
+          bestCost = cost;
+        }
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Add a filter to the index, replacing any filter with the same key
+   *
+   * @param key    The key that identifies the filter
+   * @param filter The filter
+   */
+  public void add(K key, Expression filter) {
+    remove(key);
+
+    List<Guard> guards = guards(ExpressionFlattener.flatten(filter));
+    if (guards != null) {
+      // The same guard may come from several operands, e.g. title eq "x" or (title eq "x" and active eq true)
+      guards = List.copyOf(new LinkedHashSet<>(guards));
+    }
+    Entry<K> entry = new Entry<>(key, compiler.apply(filter), guards);
+    entries.put(key, entry);
+    if (guards == null) {
+      residual.add(entry);
+      return;
+    }
+
+    for (Guard guard : guards) {
+      attributes.computeIfAbsent(guard.segments, AttributeIndex::new).add(guard, entry);
+    }
+  }
+
+  /**
+   * Find the filters that could match a resource, without evaluating them
+   *
+   * @param resource The resource
+   * @return The keys of the candidate filters. Every filter that matches the resource is a candidate.
+   */
+  public Set<K> candidates(JsonNode resource) {
+    Set<K> keys = new LinkedHashSet<>();
+    for (Entry<K> entry : candidateEntries(resource)) {
+      keys.add(entry.key);
+    }
+    return keys;
+  }
+
+  /**
+   * Find the filters that match a resource
+   *
+   * @param resource The resource
+   * @return The keys of the matching filters
+   */
+  public Set<K> matches(JsonNode resource) {
+    Set<K> keys = new LinkedHashSet<>();
+    for (Entry<K> entry : candidateEntries(resource)) {
+      if (entry.predicate.test(resource)) {
+        keys.add(entry.key);
+      }
+    }
+    return keys;
+  }
+
+  /**
+   * Remove a filter from the index
+   *
+   * @param key The key that identifies the filter
+   * @return true if the index contained the filter
+   */
+  public boolean remove(K key) {
+    Entry<K> entry = entries.remove(key);
+    if (entry == null) {
+      return false;
+    }
+
+    if (entry.guards == null) {
+      residual.remove(entry);
+      return true;
+    }
+
+    for (Guard guard : entry.guards) {
+      AttributeIndex<K> index = attributes.get(guard.segments);
+      if (index == null) {
+        continue;
+      }
+
+      index.remove(guard, entry);
+      if (index.isEmpty()) {
+        attributes.remove(guard.segments);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return The number of filters in the index
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  private Set<Entry<K>> candidateEntries(JsonNode resource) {
+    Set<Entry<K>> candidates = new LinkedHashSet<>(residual);
+    for (AttributeIndex<K> index : attributes.values()) {
+      index.candidates(resource, candidates);
+    }
+    return candidates;
+  }
+
+  private enum GuardType {
+    equal(1),
+    prefix(2),
+    present(8);
+
+    /**
+     * The relative cost of a guard, used to choose which operand of an {@code and} to guard on
+     */
+    final int cost;
+
+    GuardType(int cost) {
+      this.cost = cost;
+    }
+  }
+
+  /**
+   * The guards on a single attribute path
+   */
+  private static final class AttributeIndex<K> {
+    final Map<String, Set<Entry<K>>> equal = new HashMap<>();
+
+    final PrefixTrie<K> prefixes = new PrefixTrie<>();
+
+    final Set<Entry<K>> present = new LinkedHashSet<>();
+
+    final String[] segments;
+
+    int prefixCount;
+
+    AttributeIndex(List<String> segments) {
+      this.segments = segments.toArray(String[]::new);
+    }
+
+    void add(Guard guard, Entry<K> entry) {
+      switch (guard.type) {
+        case equal -> equal.computeIfAbsent(guard.value, value -> new LinkedHashSet<>()).add(entry);
+        case prefix -> {
+          PrefixTrie<K> node = prefixes;
+          for (int i = 0; i < guard.value.length(); i++) {
+            node = node.children.computeIfAbsent(guard.value.charAt(i), c -> new PrefixTrie<>());
+          }
+          if (node.entries.add(entry)) {
+            prefixCount++;
+          }
+        }
+        case present -> present.add(entry);
+      }
+    }
+
+    void candidates(JsonNode resource, Set<Entry<K>> candidates) {
+      // Test every value at the path the same way the compiled filters do, with unassigned values as a missing node
+      JsonNodeFilterCompiler.anyValue(resource, segments, 0, attribute -> {
+        if (!present.isEmpty() && !attribute.isMissingNode()) {
+          candidates.addAll(present);
+        }
+
+        String text = attribute.asText();
+        Set<Entry<K>> matches = equal.get(text);
+        if (matches != null) {
+          candidates.addAll(matches);
+        }
+
+        PrefixTrie<K> node = prefixes;
+        for (int i = 0; node != null && prefixCount > 0; i++) {
+          candidates.addAll(node.entries);
+          node = i < text.length() ? node.children.get(text.charAt(i)) : null;
+        }
+        return false;
+      });
+    }
+
+    boolean isEmpty() {
+      return equal.isEmpty() && prefixCount == 0 && present.isEmpty();
+    }
+
+    void remove(Guard guard, Entry<K> entry) {
+      switch (guard.type) {
+        case equal -> {
+          Set<Entry<K>> matches = equal.get(guard.value);
+          if (matches != null && matches.remove(entry) && matches.isEmpty()) {
+            equal.remove(guard.value);
+          }
+        }
+        case prefix -> {
+          // Empty trie nodes are left in place, they are reused if the prefix is added again
+          PrefixTrie<K> node = prefixes;
+          for (int i = 0; node != null && i < guard.value.length(); i++) {
+            node = node.children.get(guard.value.charAt(i));
+          }
+          if (node != null && node.entries.remove(entry)) {
+            prefixCount--;
+          }
+        }
+        case present -> present.remove(entry);
+      }
+    }
+  }
+
+  private static final class Entry<K> {
+    final List<Guard> guards;
+
+    final K key;
+
+    final Predicate<JsonNode> predicate;
+
+    Entry(K key, Predicate<JsonNode> predicate, List<Guard> guards) {
+      this.key = key;
+      this.predicate = predicate;
+      this.guards = guards;
+    }
+  }
+
+  private static final class Guard {
+    final List<String> segments;
+
+    final GuardType type;
+
+    final String value;
+
+    Guard(List<String> segments, GuardType type, String value) {
+      this.segments = segments;
+      this.type = type;
+      this.value = value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Guard that = (Guard) o;
+      return segments.equals(that.segments) && type == that.type && Objects.equals(value, that.value);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(segments, type, value);
+    }
+  }
+
+  private static final class PrefixTrie<K> {
+    final Map<Character, PrefixTrie<K>> children = new HashMap<>();
+
+    final Set<Entry<K>> entries = new LinkedHashSet<>();
+  }
+}
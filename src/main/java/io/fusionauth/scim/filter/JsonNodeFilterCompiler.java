@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.filter;
+
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import io.fusionauth.scim.parser.AttributePath;
+import io.fusionauth.scim.parser.ComparisonOperator;
+import io.fusionauth.scim.parser.InvalidFilterExpressionException;
+import io.fusionauth.scim.parser.expression.AttributeBooleanComparisonExpression;
+import io.fusionauth.scim.parser.expression.AttributeDateComparisonExpression;
+import io.fusionauth.scim.parser.expression.AttributeExpression;
+import io.fusionauth.scim.parser.expression.AttributeMembershipExpression;
+import io.fusionauth.scim.parser.expression.AttributeNumberComparisonExpression;
+import io.fusionauth.scim.parser.expression.AttributeTextComparisonExpression;
+
+/**
+ * Compiles filters into predicates that test a SCIM resource in its {@link JsonNode} form.
+ * <p>
+ * Comparisons give the same results as {@link io.fusionauth.scim.utils.SCIMPatchFilterMatcher}, with these additions:
+ * <ul>
+ *   <li>Multi-valued attributes are supported. When a path steps into an array, the expression matches if any element of the array matches.</li>
+ *   <li>{@code pr}, {@code eq null} and {@code ne null} test the attribute at the path. An attribute with a JSON {@code null} value is treated the
+ *   same as a missing attribute.</li>
+ *   <li>An attribute value that is not a valid date-time never matches a date comparison, rather than throwing an exception.</li>
+ *   <li>A number or boolean comparison only matches an attribute of the same type, so a missing attribute never matches {@code eq}, {@code gt},
+ *   {@code ge}, {@code lt} or {@code le}. Numbers are compared by their full decimal value, so {@code 5} is equal to {@code 5.0} and less than
+ *   {@code 5.5}.</li>
+ *   <li>Text is ordered as RFC 7644 specifies, so {@code userName gt "a"} matches {@code "bob"}. The patch filter matcher compares text in the
+ *   reverse order.</li>
+ * </ul>
+ *
+ * @author Spencer Witt
+ */
+public class JsonNodeFilterCompiler extends FilterCompiler<JsonNode> {
+  /**
+   * Walk an attribute path from a node and test each value at the end of the path. Arrays along the way are expanded, so the path can step into
+   * multi-valued attributes.
+   *
+   * @param node     The node to start from
+   * @param segments The path segments to walk
+   * @param index    The index of the next segment in {@code segments}
+   * @param test     The test to apply to each value
+   * @return true if any value passes the test. An unassigned attribute is tested as a {@link MissingNode}.
+   */
+  static boolean anyValue(JsonNode node, String[] segments, int index, Predicate<JsonNode> test) {
+    while (true) {
+      if (node.isArray()) {
+        for (int i = 0; i < node.size(); i++) {
+          if (anyValue(node.get(i), segments, index, test)) {
+            return true;
+          }
+        }
+        return false;
+      }
+
+      if (index == segments.length) {
+        return test.test(node);
+      }
+
+      JsonNode child = node.get(segments[index++]);
+      if (child == null || child.isNull()) {
+        return test.test(MissingNode.getInstance());
+      }
+      node = child;
+    }
+  }
+
+  private static Predicate<JsonNode> anyValue(AttributePath path, Predicate<JsonNode> test) {
+    String[] segments = path.segments.toArray(String[]::new);
+    return resource -> anyValue(resource, segments, 0, test);
+  }
+
+  private static Predicate<JsonNode> booleanTest(AttributeBooleanComparisonExpression expression) {
+    boolean value = expression.value();
+    // Only a boolean attribute can be equal to a boolean value
+    Predicate<JsonNode> equal = attribute -> attribute.isBoolean() && attribute.booleanValue() == value;
+    return switch (expression.operator) {
+      case eq -> equal;
+      case ne -> equal.negate();
+      case co, sw, ew -> attribute -> false;
+      case pr -> attribute -> true;
+      case gt, ge -> throw new InvalidFilterExpressionException("The gt or ge operator cannot be used with a boolean type value.");
+      case lt, le -> throw new InvalidFilterExpressionException("The lt or le operator cannot be used with a boolean type value.");
+    };
+  }
+
+  private static Predicate<JsonNode> dateTest(AttributeDateComparisonExpression expression) {
+    Instant value = expression.value().toInstant();
+    Predicate<JsonNode> equal = attribute -> value.equals(instant(attribute));
+    return switch (expression.operator) {
+      case eq -> equal;
+      case ne -> equal.negate();
+      case co, sw, ew -> attribute -> false;
+      case pr -> attribute -> true;
+      case gt -> attribute -> {
+        Instant actual = instant(attribute);
+        return actual != null && actual.isAfter(value);
+      };
+      case ge -> attribute -> {
+        Instant actual = instant(attribute);
+        return actual != null && !actual.isBefore(value);
+      };
+      case lt -> attribute -> {
+        Instant actual = instant(attribute);
+        return actual != null && actual.isBefore(value);
+      };
+      case le -> attribute -> {
+        Instant actual = instant(attribute);
+        return actual != null && !actual.isAfter(value);
+      };
+    };
+  }
+
+  private static BigDecimal decimal(JsonNode attribute) {
+    if (!attribute.isNumber() || (attribute.isDouble() || attribute.isFloat()) && !Double.isFinite(attribute.doubleValue())) {
+      return null;
+    }
+    return attribute.decimalValue();
+  }
+
+  private static Instant instant(JsonNode attribute) {
+    if (!attribute.isTextual()) {
+      return null;
+    }
+
+    try {
+      return Instant.parse(attribute.textValue());
+    } catch (DateTimeException e) {
+      return null;
+    }
+  }
+
+  private static Predicate<JsonNode> numberTest(AttributeNumberComparisonExpression expression) {
+    BigDecimal value = expression.value();
+    return switch (expression.operator) {
+      case eq -> ordering(value, comparison -> comparison == 0);
+      case ne -> ordering(value, comparison -> comparison == 0).negate();
+      case co, sw, ew -> attribute -> false;
+      case pr -> attribute -> true;
+      case gt -> ordering(value, comparison -> comparison > 0);
+      case ge -> ordering(value, comparison -> comparison >= 0);
+      case lt -> ordering(value, comparison -> comparison < 0);
+      case le -> ordering(value, comparison -> comparison <= 0);
+    };
+  }
+
+  /**
+   * Compare a numeric attribute to a value by its full decimal value, so {@code 5} is equal to {@code 5.0} and less than {@code 5.5}. An
+   * attribute that is missing or not a number never matches.
+   */
+  private static Predicate<JsonNode> ordering(BigDecimal value, IntPredicate result) {
+    return attribute -> {
+      BigDecimal actual = decimal(attribute);
+      return actual != null && result.test(actual.compareTo(value));
+    };
+  }
+
+  private static Predicate<JsonNode> present(AttributePath path) {
+    return anyValue(path, attribute -> !attribute.isMissingNode());
+  }
+
+  private static Predicate<JsonNode> textTest(AttributeTextComparisonExpression expression) {
+    String value = expression.value();
+    return switch (expression.operator) {
+      case eq -> attribute -> value.equals(attribute.asText());
+      case ne -> attribute -> !value.equals(attribute.asText());
+      case co -> attribute -> attribute.asText().contains(value);
+      case sw -> attribute -> attribute.asText().startsWith(value);
+      case ew -> attribute -> attribute.asText().endsWith(value);
+      case pr -> attribute -> true;
+      case gt -> attribute -> attribute.asText().compareTo(value) > 0;
+      case ge -> attribute -> attribute.asText().compareTo(value) >= 0;
+      case lt -> attribute -> attribute.asText().compareTo(value) < 0;
+      case le -> attribute -> attribute.asText().compareTo(value) <= 0;
+    };
+  }
+
+  @Override
+  protected Predicate<JsonNode> compileAttribute(AttributeExpression<?> expression) {
+    return switch (expression.valueType()) {
+      case none -> present(expression.path);
+      case nul -> expression.operator == ComparisonOperator.eq ? present(expression.path).negate() : present(expression.path);
+      case text -> anyValue(expression.path, textTest((AttributeTextComparisonExpression) expression));
+      case number -> anyValue(expression.path, numberTest((AttributeNumberComparisonExpression) expression));
+      case bool -> anyValue(expression.path, booleanTest((AttributeBooleanComparisonExpression) expression));
+      case date -> anyValue(expression.path, dateTest((AttributeDateComparisonExpression) expression));
+    };
+  }
+
+  @Override
+  protected Predicate<JsonNode> compileFilterGrouping(AttributePath parentAttributePath, Predicate<JsonNode> filter) {
+    return anyValue(parentAttributePath, value -> !value.isMissingNode() && filter.test(value));
+  }
+
+  @Override
+  protected Predicate<JsonNode> compileMembership(AttributeMembershipExpression expression) {
+    Set<String> values = expression.values;
+    return anyValue(expression.path, attribute -> values.contains(attribute.asText()));
+  }
+}
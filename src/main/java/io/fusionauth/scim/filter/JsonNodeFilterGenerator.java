@@ -0,0 +1,384 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.filter;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import io.fusionauth.scim.filter.ClassFileWriter.Code;
+import io.fusionauth.scim.filter.ClassFileWriter.Label;
+import io.fusionauth.scim.parser.ComparisonOperator;
+import io.fusionauth.scim.parser.LogicalOperator;
+import io.fusionauth.scim.parser.expression.AttributeExpression;
+import io.fusionauth.scim.parser.expression.AttributeNumberComparisonExpression;
+import io.fusionauth.scim.parser.expression.AttributeRangeExpression;
+import io.fusionauth.scim.parser.expression.AttributeTextComparisonExpression;
+import io.fusionauth.scim.parser.expression.Expression;
+import io.fusionauth.scim.parser.expression.LogicalChainExpression;
+import io.fusionauth.scim.parser.expression.LogicalLinkExpression;
+import io.fusionauth.scim.parser.expression.LogicalNegationExpression;
+import io.fusionauth.scim.transform.ExpressionFlattener;
+import io.fusionauth.scim.transform.ExpressionOptimizer;
+
+/**
+ * Generates a hidden class that evaluates a single filter against a {@link JsonNode}.
+ * <p>
+ * The filter is optimized with {@link ExpressionOptimizer} first, so that chains of comparisons on one attribute become a single membership or
+ * range. The logical structure of the filter becomes straight-line code with short-circuit branches. Text comparisons and comparisons of integral
+ * numbers with an integer value are generated inline, with the comparison value as a constant, for attributes that are single-valued in the resource being tested. Every other
+ * case, including multi-valued attributes, calls the predicate compiled by {@link JsonNodeFilterCompiler} for that part of the filter, so the
+ * generated class always gives the same result as the interpreted predicate.
+ * <p>
+ * The compiled predicates and attribute paths are passed to the hidden class as class data and held in static final fields, which the JIT treats
+ * as constants.
+ *
+ * @author Spencer Witt
+ */
+final class JsonNodeFilterGenerator {
+  /**
+   * Generated methods larger than this are not compiled by the JIT, so larger filters are left to the interpreter
+   */
+  static final int MaximumCodeLength = 8000;
+
+  /**
+   * Filters with more comparisons than this, after optimization, are left to the interpreter. Longer generated chains of comparisons on different
+   * attributes measured slower than the interpreted predicate.
+   */
+  static final int MaximumComparisons = 16;
+
+  private static final String ClassName = JsonNodeFilterGenerator.class.getPackageName().replace('.', '/') + "/GeneratedFilter";
+
+  private static final Lookup DefiningLookup = MethodHandles.lookup();
+
+  private static final String GeneratorClassName = JsonNodeFilterGenerator.class.getName().replace('.', '/');
+
+  private static final String JsonNodeClassName = "com/fasterxml/jackson/databind/JsonNode";
+
+  // Text constants are written to the constant pool in modified UTF-8, which limits them to 65535 bytes
+  private static final int MaximumTextLength = 65535 / 3;
+
+  private static final String PredicateClassName = "java/util/function/Predicate";
+
+  private static final String StringClassName = "java/lang/String";
+
+  private final Code code;
+
+  private final JsonNodeFilterCompiler compiler;
+
+  private final List<Object> data = new ArrayList<>();
+
+  private final List<String> descriptors = new ArrayList<>();
+
+  private int comparisons;
+
+  private final ClassFileWriter writer = new ClassFileWriter();
+
+  private JsonNodeFilterGenerator(JsonNodeFilterCompiler compiler) {
+    this.compiler = compiler;
+    this.code = writer.method(ClassFileWriter.ACC_PUBLIC, "test", "(Ljava/lang/Object;)Z", 3);
+  }
+
+  /**
+   * Generate a predicate for an expression
+   *
+   * @param compiler   The compiler used for the parts of the filter that are not generated inline
+   * @param expression The expression
+   * @return The generated predicate, or {@code null} if the filter has too many comparisons or the generated code would be too large to benefit
+   *     from JIT compilation
+   */
+  static Predicate<JsonNode> generate(JsonNodeFilterCompiler compiler, Expression expression) {
+    Expression optimized = new ExpressionOptimizer().optimize(expression).expression;
+    return new JsonNodeFilterGenerator(compiler).generate(ExpressionFlattener.flatten(optimized));
+  }
+
+  /**
+   * Find the single value at the end of an attribute path. Called by generated code.
+   *
+   * @param node     The resource
+   * @param segments The path segments
+   * @return The value, a {@link MissingNode} if the attribute is unassigned, or {@code null} if the path steps into an array
+   */
+  static JsonNode singleValue(JsonNode node, String[] segments) {
+    for (String segment : segments) {
+      if (node.isArray()) {
+        return null;
+      }
+
+      JsonNode child = node.get(segment);
+      if (child == null || child.isNull()) {
+        return MissingNode.getInstance();
+      }
+      node = child;
+    }
+    return node.isArray() ? null : node;
+  }
+
+  private static int branch(ComparisonOperator operator) {
+    return switch (operator) {
+      case eq -> 0x99; // ifeq
+      case ne -> 0x9A; // ifne
+      case lt -> 0x9B; // iflt
+      case ge -> 0x9C; // ifge
+      case gt -> 0x9D; // ifgt
+      case le -> 0x9E; // ifle
+      default -> throw new IllegalArgumentException("[" + operator + "] is not an ordering operator");
+    };
+  }
+
+  private static boolean isLong(BigDecimal value) {
+    // A value with a fractional part is not rounded, so it is left to the interpreter
+    BigDecimal stripped = value.stripTrailingZeros();
+    return stripped.scale() <= 0 && stripped.toBigInteger().bitLength() < 64;
+  }
+
+  private static boolean isOrdering(ComparisonOperator operator) {
+    return switch (operator) {
+      case eq, ne, gt, ge, lt, le -> true;
+      default -> false;
+    };
+  }
+
+  /**
+   * Add a value to the class data along with a static final field to hold it
+   *
+   * @return The constant pool index of the field
+   */
+  private int constant(Object value, String descriptor) {
+    data.add(value);
+    descriptors.add(descriptor);
+    return writer.fieldRef(ClassName, "c" + (data.size() - 1), descriptor);
+  }
+
+  private void emit(Expression expression) {
+    switch (expression.type()) {
+      case attribute -> emitAttribute((AttributeExpression<?>) expression);
+      case attributeRange -> {
+        AttributeRangeExpression range = (AttributeRangeExpression) expression;
+        emitChain(LogicalOperator.and, List.of(range.lower, range.upper));
+      }
+      case logicalChain -> {
+        LogicalChainExpression chain = (LogicalChainExpression) expression;
+        emitChain(chain.logicalOperator, chain.operands);
+      }
+      case logicalLink -> {
+        LogicalLinkExpression link = (LogicalLinkExpression) expression;
+        emitChain(link.logicalOperator, List.of(link.left, link.right));
+      }
+      case logicalNegation -> {
+        emit(((LogicalNegationExpression) expression).subExpression);
+        code.op(0x04); // iconst_1
+        code.op(0x82); // ixor
+      }
+      default -> {
+        comparisons++;
+        emitInterpreted(expression);
+      }
+    }
+  }
+
+  private void emitAttribute(AttributeExpression<?> expression) {
+    comparisons++;
+    if (expression instanceof AttributeTextComparisonExpression text && text.operator != ComparisonOperator.pr
+        && text.value().length() <= MaximumTextLength) {
+      emitSingleValue(expression, () -> emitText(text));
+    } else if (expression instanceof AttributeNumberComparisonExpression number && isOrdering(number.operator) && isLong(number.value())) {
+      emitSingleValue(expression, () -> emitNumber(number));
+    } else {
+      emitInterpreted(expression);
+    }
+  }
+
+  /**
+   * Short-circuit a chain of operands, leaving 1 on the stack if the chain matches and 0 if it does not
+   */
+  private void emitChain(LogicalOperator operator, List<? extends Expression> operands) {
+    Label shortCircuit = new Label();
+    Label end = new Label();
+    for (int i = 0; i < operands.size() - 1; i++) {
+      emit(operands.get(i));
+      code.jump(operator == LogicalOperator.and ? 0x99 : 0x9A, shortCircuit); // ifeq or ifne
+    }
+    emit(operands.get(operands.size() - 1));
+    code.jump(0xA7, end); // goto
+    code.mark(shortCircuit);
+    code.op(operator == LogicalOperator.and ? 0x03 : 0x04); // iconst_0 or iconst_1
+    code.mark(end);
+  }
+
+  /**
+   * Convert the result of an int comparison into 1 or 0 on the stack
+   */
+  private void emitCondition(int branchOpcode) {
+    Label matched = new Label();
+    Label end = new Label();
+    code.jump(branchOpcode, matched);
+    code.op(0x03); // iconst_0
+    code.jump(0xA7, end); // goto
+    code.mark(matched);
+    code.op(0x04); // iconst_1
+    code.mark(end);
+  }
+
+  /**
+   * Call the interpreted predicate for an expression
+   */
+  private void emitInterpreted(Expression expression) {
+    code.op(0xB2, constant(compiler.compile(expression), "L" + PredicateClassName + ";")); // getstatic
+    code.op(0x2B); // aload_1
+    code.invokeInterface(writer.interfaceMethodRef(PredicateClassName, "test", "(Ljava/lang/Object;)Z"), 2);
+  }
+
+  /**
+   * Compare a single integral value with {@code long} arithmetic. The value is in local 2, and the comparison value is an integer.
+   */
+  private void emitNumber(AttributeNumberComparisonExpression expression) {
+    // Decimal values fall back to the interpreter
+    Label integral = new Label();
+    Label interpreted = new Label();
+    Label end = new Label();
+    code.op(0x2C); // aload_2
+    code.op(0xB6, writer.methodRef(JsonNodeClassName, "isInt", "()Z")); // invokevirtual
+    code.jump(0x9A, integral); // ifne
+    code.op(0x2C); // aload_2
+    code.op(0xB6, writer.methodRef(JsonNodeClassName, "isLong", "()Z")); // invokevirtual
+    code.jump(0x99, interpreted); // ifeq
+    code.mark(integral);
+    code.op(0x2C); // aload_2
+    code.op(0xB6, writer.methodRef(JsonNodeClassName, "longValue", "()J")); // invokevirtual
+    code.op(0x14, writer.longConstant(expression.value().longValueExact())); // ldc2_w
+    code.op(0x94); // lcmp
+    emitCondition(branch(expression.operator));
+    code.jump(0xA7, end); // goto
+    code.mark(interpreted);
+    emitInterpreted(expression);
+    code.mark(end);
+  }
+
+  /**
+   * Resolve the attribute into local 2 and run the inline comparison if it has a single value, otherwise call the interpreted predicate
+   */
+  private void emitSingleValue(AttributeExpression<?> expression, Runnable inline) {
+    Label interpreted = new Label();
+    Label end = new Label();
+    code.op(0x2B); // aload_1
+    code.op(0xB2, constant(expression.path.segments.toArray(String[]::new), "[L" + StringClassName + ";")); // getstatic
+    String descriptor = "(L" + JsonNodeClassName + ";[L" + StringClassName + ";)L" + JsonNodeClassName + ";";
+    code.op(0xB8, writer.methodRef(GeneratorClassName, "singleValue", descriptor)); // invokestatic
+    code.op(0x59); // dup
+    code.op(0x4D); // astore_2
+    code.jump(0xC6, interpreted); // ifnull
+    inline.run();
+    code.jump(0xA7, end); // goto
+    code.mark(interpreted);
+    emitInterpreted(expression);
+    code.mark(end);
+  }
+
+  /**
+   * Compare the text of the value in local 2 with an inline constant
+   */
+  private void emitText(AttributeTextComparisonExpression expression) {
+    int value = writer.string(expression.value());
+    int asText = writer.methodRef(JsonNodeClassName, "asText", "()L" + StringClassName + ";");
+    switch (expression.operator) {
+      case eq, ne, gt, ge, lt, le -> {
+        // The attribute text is the receiver, the same as the interpreter
+        code.op(0x2C); // aload_2
+        code.op(0xB6, asText); // invokevirtual
+        code.op(0x13, value); // ldc_w
+        if (expression.operator == ComparisonOperator.eq || expression.operator == ComparisonOperator.ne) {
+          code.op(0xB6, writer.methodRef(StringClassName, "equals", "(Ljava/lang/Object;)Z")); // invokevirtual
+          if (expression.operator == ComparisonOperator.ne) {
+            code.op(0x04); // iconst_1
+            code.op(0x82); // ixor
+          }
+        } else {
+          code.op(0xB6, writer.methodRef(StringClassName, "compareTo", "(L" + StringClassName + ";)I")); // invokevirtual
+          emitCondition(branch(expression.operator));
+        }
+      }
+      case co, sw, ew -> {
+        code.op(0x2C); // aload_2
+        code.op(0xB6, asText); // invokevirtual
+        code.op(0x13, value); // ldc_w
+        String method = switch (expression.operator) {
+          case co -> "contains";
+          case sw -> "startsWith";
+          default -> "endsWith";
+        };
+        String parameter = expression.operator == ComparisonOperator.co ? "Ljava/lang/CharSequence;" : "L" + StringClassName + ";";
+        code.op(0xB6, writer.methodRef(StringClassName, method, "(" + parameter + ")Z")); // invokevirtual
+      }
+      default -> throw new IllegalArgumentException("[" + expression.operator + "] is not a text comparison operator");
+    }
+  }
+
+  private Predicate<JsonNode> generate(Expression expression) {
+    code.op(0x2B); // aload_1
+    code.op(0xC0, writer.classRef(JsonNodeClassName)); // checkcast
+    code.op(0x4C); // astore_1
+    emit(expression);
+    code.op(0xAC); // ireturn
+    if (comparisons > MaximumComparisons || code.length() > MaximumCodeLength) {
+      return null;
+    }
+
+    Code constructor = writer.method(ClassFileWriter.ACC_PUBLIC, "<init>", "()V", 1);
+    constructor.op(0x2A); // aload_0
+    constructor.op(0xB7, writer.methodRef("java/lang/Object", "<init>", "()V")); // invokespecial
+    constructor.op(0xB1); // return
+
+    // Copy the class data into static final fields
+    Code initializer = writer.method(ClassFileWriter.ACC_STATIC, "<clinit>", "()V", 1);
+    initializer.op(0xB8, writer.methodRef("java/lang/invoke/MethodHandles", "lookup", "()Ljava/lang/invoke/MethodHandles$Lookup;")); // invokestatic
+    initializer.op(0x13, writer.string("_")); // ldc_w
+    initializer.op(0x13, writer.classRef("[Ljava/lang/Object;")); // ldc_w
+    initializer.op(0xB8, writer.methodRef("java/lang/invoke/MethodHandles", "classData",
+        "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/Object;")); // invokestatic
+    initializer.op(0xC0, writer.classRef("[Ljava/lang/Object;")); // checkcast
+    initializer.op(0x4B); // astore_0
+    for (int i = 0; i < data.size(); i++) {
+      String descriptor = descriptors.get(i);
+      writer.field(ClassFileWriter.ACC_STATIC | ClassFileWriter.ACC_FINAL, "c" + i, descriptor);
+      initializer.op(0x2A); // aload_0
+      initializer.op(0x11, i); // sipush
+      initializer.op(0x32); // aaload
+      // Array descriptors are their own internal names, object descriptors are not
+      initializer.op(0xC0, writer.classRef(descriptor.startsWith("[") ? descriptor : descriptor.substring(1, descriptor.length() - 1))); // checkcast
+      initializer.op(0xB3, writer.fieldRef(ClassName, "c" + i, descriptor)); // putstatic
+    }
+    initializer.op(0xB1); // return
+
+    byte[] bytes = writer.toByteArray(ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_FINAL | ClassFileWriter.ACC_SUPER, ClassName,
+        "java/lang/Object", PredicateClassName);
+    try {
+      Lookup generated = DefiningLookup.defineHiddenClassWithClassData(bytes, data.toArray(), true);
+      @SuppressWarnings("unchecked")
+      Predicate<JsonNode> predicate = (Predicate<JsonNode>) generated.findConstructor(generated.lookupClass(), MethodType.methodType(void.class))
+                                                                     .invoke();
+      return predicate;
+    } catch (Throwable t) {
+      throw new IllegalStateException("Unable to generate a filter class", t);
+    }
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.filter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import io.fusionauth.scim.utils.ToString;
+
+/**
+ * A position in a sorted list of resources, used for the {@code nextCursor} and {@code previousCursor} of cursor-based pagination.
+ * <p>
+ * The position is the sort value and the id of the resource at the edge of a page, so the next page starts directly after it no matter how deep
+ * into the list it is, and resources that are added or removed before the position do not shift the pages after it. The sort attribute and order
+ * are part of the cursor, so a cursor can not be used with a different sort. Encoded cursors are opaque, URL-safe strings.
+ *
+ * @author Spencer Witt
+ */
+public final class KeysetCursor {
+  private static final ObjectMapper Mapper = new ObjectMapper();
+
+  /**
+   * Whether the cursor selects the resources before the position, rather than the resources after it
+   */
+  public final boolean before;
+
+  public final String id;
+
+  public final String sortBy;
+
+  public final SortOrder sortOrder;
+
+  /**
+   * The sort value at the position, which is null, a {@link Boolean}, a {@link BigDecimal} or a {@link String}
+   */
+  public final Object value;
+
+  public KeysetCursor(String sortBy, SortOrder sortOrder, Object value, String id, boolean before) {
+    this.sortBy = Objects.requireNonNull(sortBy);
+    this.sortOrder = sortOrder != null ? sortOrder : SortOrder.ascending;
+    this.value = value;
+    this.id = id;
+    this.before = before;
+  }
+
+  /**
+   * Decode a cursor returned by {@link #encode()}
+   *
+   * @param cursor The encoded cursor
+   * @return The cursor
+   * @throws IllegalArgumentException If the cursor is not valid. A SCIM service should respond with a 400 status and the {@code invalidCursor}
+   *                                  error type.
+   */
+  public static KeysetCursor decode(String cursor) {
+    JsonNode node;
+    SortOrder sortOrder;
+    try {
+      node = Mapper.readTree(Base64.getUrlDecoder().decode(cursor));
+      if (node == null || !node.isArray() || node.size() != 5 || !node.get(0).isTextual() || !node.get(1).isTextual()) {
+        throw new IllegalArgumentException("Invalid cursor [" + cursor + "]");
+      }
+      sortOrder = SortOrder.valueOf(node.get(2).asText());
+    } catch (IOException | IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid cursor [" + cursor + "]", e);
+    }
+
+    JsonNode value = node.get(3);
+    Object sortValue;
+    if (value.isTextual()) {
+      sortValue = value.textValue();
+    } else if (value.isNumber()) {
+      sortValue = value.decimalValue();
+    } else if (value.isBoolean()) {
+      sortValue = value.booleanValue();
+    } else if (value.isNull()) {
+      sortValue = null;
+    } else {
+      throw new IllegalArgumentException("Invalid cursor [" + cursor + "]");
+    }
+    return new KeysetCursor(node.get(1).textValue(), sortOrder, sortValue, node.get(4).textValue(), node.get(0).textValue().equals("before"));
+  }
+
+  /**
+   * @return The cursor as an opaque, URL-safe string
+   */
+  public String encode() {
+    ArrayNode node = Mapper.createArrayNode()
+                           .add(before ? "before" : "after")
+                           .add(sortBy)
+                           .add(sortOrder.name());
+    if (value instanceof Boolean bool) {
+      node.add(bool);
+    } else if (value instanceof BigDecimal decimal) {
+      node.add(decimal);
+    } else {
+      node.add((String) value);
+    }
+    node.add(id);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(node.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    KeysetCursor that = (KeysetCursor) o;
+    return before == that.before &&
+           Objects.equals(id, that.id) &&
+           Objects.equals(sortBy, that.sortBy) &&
+           sortOrder == that.sortOrder &&
+           Objects.equals(value, that.value);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(before, id, sortBy, sortOrder, value);
+  }
+
+  @Override
+  public String toString() {
+    return ToString.toString(this);
+  }
+}
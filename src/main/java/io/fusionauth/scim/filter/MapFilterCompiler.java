@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.filter;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles filters into predicates that test schemaless resources made of nested {@link Map}s and {@link List}s, e.g.
+ * {@link io.fusionauth.scim.domain.GenericSCIMResource} or the extension map of {@link io.fusionauth.scim.domain.BaseSCIMUser}, without converting
+ * them to JSON first.
+ * <p>
+ * Attribute paths are walked segment by segment with {@link Map#get(Object)}, the same way {@link JsonNodeFilterCompiler} walks the fields of a
+ * JSON object. {@link Collection}s are multi-valued attributes: an expression matches if any element matches. Values are compared the same way
+ * {@link JsonNodeFilterCompiler} compares the JSON that the map serializes to. A value that is not a map ends the path, so an attribute below it
+ * is unassigned.
+ *
+ * @author Spencer Witt
+ */
+public class MapFilterCompiler extends ObjectFilterCompiler {
+  @Override
+  protected Accessor accessor(String name) {
+    return value -> value instanceof Map<?, ?> map ? map.get(name) : null;
+  }
+}
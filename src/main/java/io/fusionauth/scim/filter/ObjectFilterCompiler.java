@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.filter;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+import io.fusionauth.scim.parser.AttributePath;
+import io.fusionauth.scim.parser.ComparisonOperator;
+import io.fusionauth.scim.parser.InvalidFilterExpressionException;
+import io.fusionauth.scim.parser.expression.AttributeBooleanComparisonExpression;
+import io.fusionauth.scim.parser.expression.AttributeDateComparisonExpression;
+import io.fusionauth.scim.parser.expression.AttributeExpression;
+import io.fusionauth.scim.parser.expression.AttributeMembershipExpression;
+import io.fusionauth.scim.parser.expression.AttributeNumberComparisonExpression;
+import io.fusionauth.scim.parser.expression.AttributeTextComparisonExpression;
+import io.fusionauth.scim.utils.SCIMDateTools;
+
+/**
+ * Compiles filters into predicates that test plain Java values, e.g. {@link String}, {@link Number}, {@link Boolean} and {@link ZonedDateTime}.
+ * Values are compared the same way {@link JsonNodeFilterCompiler} compares the JSON that they serialize to, so an unassigned attribute, or one of
+ * another type, never matches a number or boolean comparison other than {@code ne}. Sub-classes decide how each segment of an attribute path is
+ * read.
+ *
+ * @author Spencer Witt
+ */
+abstract class ObjectFilterCompiler extends FilterCompiler<Object> {
+  private static boolean anyValue(Object value, Accessor[] accessors, int index, Predicate<Object> test) {
+    while (true) {
+      if (value instanceof List<?> list) {
+        for (int i = 0; i < list.size(); i++) {
+          if (anyValue(list.get(i), accessors, index, test)) {
+            return true;
+          }
+        }
+        return false;
+      }
+
+      if (value instanceof Collection<?> collection) {
+        for (Object element : collection) {
+          if (anyValue(element, accessors, index, test)) {
+            return true;
+          }
+        }
+        return false;
+      }
+
+      if (value == null || index == accessors.length) {
+        return test.test(value);
+      }
+      value = accessors[index++].get(value);
+    }
+  }
+
+  /**
+   * Return the decimal value of a number, or {@code null} if the value is not a finite number
+   */
+  static BigDecimal asDecimal(Object value) {
+    if (value instanceof BigDecimal decimal) {
+      return decimal;
+    } else if (value instanceof BigInteger integer) {
+      return new BigDecimal(integer);
+    } else if (value instanceof Double || value instanceof Float) {
+      double number = ((Number) value).doubleValue();
+      return Double.isFinite(number) ? BigDecimal.valueOf(number) : null;
+    } else if (value instanceof Number number) {
+      return BigDecimal.valueOf(number.longValue());
+    }
+    return null;
+  }
+
+  private static Instant asInstant(Object value) {
+    if (value instanceof ZonedDateTime dateTime) {
+      return dateTime.toInstant();
+    } else if (value instanceof String string) {
+      try {
+        return Instant.parse(string);
+      } catch (DateTimeException e) {
+        return null;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Return the text of a value, the same as the text of the JSON node it serializes to
+   */
+  static String asText(Object value) {
+    if (value instanceof String string) {
+      return string;
+    } else if (value instanceof ZonedDateTime dateTime) {
+      return SCIMDateTools.format(dateTime);
+    } else if (value instanceof Number || value instanceof Boolean || value instanceof UUID || value instanceof URI || value instanceof ZoneId
+        || value instanceof Enum<?>) {
+      return value.toString();
+    }
+    return "";
+  }
+
+  private static Predicate<Object> booleanTest(AttributeBooleanComparisonExpression expression) {
+    boolean value = expression.value();
+    // Only a boolean attribute can be equal to a boolean value
+    Predicate<Object> equal = attribute -> attribute instanceof Boolean bool && bool == value;
+    return switch (expression.operator) {
+      case eq -> equal;
+      case ne -> equal.negate();
+      case co, sw, ew -> attribute -> false;
+      case pr -> attribute -> true;
+      case gt, ge -> throw new InvalidFilterExpressionException("The gt or ge operator cannot be used with a boolean type value.");
+      case lt, le -> throw new InvalidFilterExpressionException("The lt or le operator cannot be used with a boolean type value.");
+    };
+  }
+
+  private static Predicate<Object> dateTest(AttributeDateComparisonExpression expression) {
+    Instant value = expression.value().toInstant();
+    Predicate<Object> equal = attribute -> value.equals(asInstant(attribute));
+    return switch (expression.operator) {
+      case eq -> equal;
+      case ne -> equal.negate();
+      case co, sw, ew -> attribute -> false;
+      case pr -> attribute -> true;
+      case gt -> attribute -> {
+        Instant actual = asInstant(attribute);
+        return actual != null && actual.isAfter(value);
+      };
+      case ge -> attribute -> {
+        Instant actual = asInstant(attribute);
+        return actual != null && !actual.isBefore(value);
+      };
+      case lt -> attribute -> {
+        Instant actual = asInstant(attribute);
+        return actual != null && actual.isBefore(value);
+      };
+      case le -> attribute -> {
+        Instant actual = asInstant(attribute);
+        return actual != null && !actual.isAfter(value);
+      };
+    };
+  }
+
+  private static Predicate<Object> numberTest(AttributeNumberComparisonExpression expression) {
+    BigDecimal value = expression.value();
+    return switch (expression.operator) {
+      case eq -> ordering(value, comparison -> comparison == 0);
+      case ne -> ordering(value, comparison -> comparison == 0).negate();
+      case co, sw, ew -> attribute -> false;
+      case pr -> attribute -> true;
+      case gt -> ordering(value, comparison -> comparison > 0);
+      case ge -> ordering(value, comparison -> comparison >= 0);
+      case lt -> ordering(value, comparison -> comparison < 0);
+      case le -> ordering(value, comparison -> comparison <= 0);
+    };
+  }
+
+  /**
+   * Compare a numeric attribute to a value by its full decimal value. An attribute that is unassigned or not a number never matches.
+   */
+  private static Predicate<Object> ordering(BigDecimal value, IntPredicate result) {
+    return attribute -> {
+      BigDecimal actual = asDecimal(attribute);
+      return actual != null && result.test(actual.compareTo(value));
+    };
+  }
+
+  private static Predicate<Object> textTest(AttributeTextComparisonExpression expression) {
+    String value = expression.value();
+    return switch (expression.operator) {
+      case eq -> attribute -> value.equals(asText(attribute));
+      case ne -> attribute -> !value.equals(asText(attribute));
+      case co -> attribute -> asText(attribute).contains(value);
+      case sw -> attribute -> asText(attribute).startsWith(value);
+      case ew -> attribute -> asText(attribute).endsWith(value);
+      case pr -> attribute -> true;
+      case gt -> attribute -> asText(attribute).compareTo(value) > 0;
+      case ge -> attribute -> asText(attribute).compareTo(value) >= 0;
+      case lt -> attribute -> asText(attribute).compareTo(value) < 0;
+      case le -> attribute -> asText(attribute).compareTo(value) <= 0;
+    };
+  }
+
+  /**
+   * Create the accessor for one segment of an attribute path
+   *
+   * @param name The segment of the path
+   * @return An accessor that reads the attribute from the value of the previous segment
+   */
+  protected abstract Accessor accessor(String name);
+
+  /**
+   * Walk an attribute path from a resource and test each value at the end of the path. {@link List}s and other {@link Collection}s along the
+   * way are multi-valued attributes and are expanded, and a {@code null} value ends the path.
+   *
+   * @param path The attribute path
+   * @param test The test to apply to each value. An unassigned attribute is tested as {@code null}.
+   * @return A predicate that returns true if any value at the end of the path passes the test
+   */
+  protected Predicate<Object> anyValue(AttributePath path, Predicate<Object> test) {
+    Accessor[] accessors = path.segments.stream().map(this::accessor).toArray(Accessor[]::new);
+    return resource -> anyValue(resource, accessors, 0, test);
+  }
+
+  @Override
+  protected Predicate<Object> compileAttribute(AttributeExpression<?> expression) {
+    return switch (expression.valueType()) {
+      case none -> present(expression.path);
+      case nul -> expression.operator == ComparisonOperator.eq ? present(expression.path).negate() : present(expression.path);
+      case text -> anyValue(expression.path, textTest((AttributeTextComparisonExpression) expression));
+      case number -> anyValue(expression.path, numberTest((AttributeNumberComparisonExpression) expression));
+      case bool -> anyValue(expression.path, booleanTest((AttributeBooleanComparisonExpression) expression));
+      case date -> anyValue(expression.path, dateTest((AttributeDateComparisonExpression) expression));
+    };
+  }
+
+  @Override
+  protected Predicate<Object> compileFilterGrouping(AttributePath parentAttributePath, Predicate<Object> filter) {
+    return anyValue(parentAttributePath, value -> value != null && filter.test(value));
+  }
+
+  @Override
+  protected Predicate<Object> compileMembership(AttributeMembershipExpression expression) {
+    Set<String> values = expression.values;
+    return anyValue(expression.path, attribute -> values.contains(asText(attribute)));
+  }
+
+  private Predicate<Object> present(AttributePath path) {
+    return anyValue(path, attribute -> attribute != null);
+  }
+
+  /**
+   * Reads one segment of an attribute path from a value that is not {@code null} or a {@link Collection}
+   */
+  interface Accessor {
+    /**
+     * @param value The value of the previous segment
+     * @return The attribute, or {@code null} if it is unassigned
+     */
+    Object get(Object value);
+  }
+}
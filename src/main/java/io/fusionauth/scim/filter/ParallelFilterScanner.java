@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.filter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import io.fusionauth.scim.domain.SCIMListResponse;
+import io.fusionauth.scim.domain.SCIMResource;
+
+/**
+ * Evaluates a compiled filter over a large collection of resources in parallel and returns one page of the matches as a {@link SCIMListResponse}.
+ * <p>
+ * The resources are split into ordered chunks with {@link Spliterator#trySplit()}, and each chunk is tested on a {@link ForkJoinPool}. Chunks
+ * are split and submitted a few at a time as earlier chunks complete, so a large or unsized source is never buffered in full. Chunk results are
+ * combined in order, so the page holds the same resources, in the same order, as a sequential scan. The filter may be any compiled
+ * predicate, e.g. from {@link JsonNodeFilterCompiler}, {@link PojoFilterCompiler} or {@link MapFilterCompiler}, and must be safe to call from
+ * several threads.
+ * <p>
+ * When the total number of matches is not needed, the scan stops once the requested page is complete, no more chunks are split, and chunks that
+ * are still running stop. The {@code totalResults} of the response is then the number of matches up to the end of the page rather than the total.
+ *
+ * @author Spencer Witt
+ */
+public class ParallelFilterScanner {
+  /**
+   * The smallest number of resources tested by a single task
+   */
+  public static final int MinimumChunkSize = 1_024;
+
+  private final ForkJoinPool pool;
+
+  public ParallelFilterScanner() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * @param pool The pool that runs the chunk tasks
+   */
+  public ParallelFilterScanner(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  private static <T> List<T> matches(Spliterator<T> chunk, Predicate<? super T> filter, AtomicBoolean stopped) {
+    List<T> matches = new ArrayList<>();
+    // Check between resources, so that a chunk that is already running stops once it is no longer needed
+    boolean more = true;
+    while (more && !stopped.get()) {
+      more = chunk.tryAdvance(resource -> {
+        if (filter.test(resource)) {
+          matches.add(resource);
+        }
+      });
+    }
+    return matches;
+  }
+
+  private static <T> Spliterator<T> nextChunk(Deque<Spliterator<T>> remainders, long chunkSize) {
+    // The remainders are in order, so splitting the first one until it is small enough gives the next chunk
+    Spliterator<T> chunk = remainders.poll();
+    Spliterator<T> prefix;
+    while (chunk != null && chunk.estimateSize() > chunkSize && (prefix = chunk.trySplit()) != null) {
+      remainders.push(chunk);
+      chunk = prefix;
+    }
+    return chunk;
+  }
+
+  /**
+   * Scan a list of resources and count every match
+   *
+   * @param resources  The resources to scan
+   * @param filter     The compiled filter
+   * @param startIndex The 1-based index of the first match to return. Values less than 1 are treated as 1.
+   * @param count      The maximum number of matches to return
+   * @return A list response with the page of matches and the total number of matches
+   */
+  public <T extends SCIMResource> SCIMListResponse scan(List<T> resources, Predicate<? super T> filter, int startIndex, int count) {
+    return scan(resources.spliterator(), filter, Function.identity(), startIndex, count, true);
+  }
+
+  /**
+   * Scan resources from a spliterator. The spliterator should split well, e.g. the spliterator of an {@link java.util.ArrayList}, for the
+   * resources to be tested in parallel.
+   *
+   * @param resources  The resources to scan
+   * @param filter     The compiled filter
+   * @param converter  Converts each match on the page to a resource for the response, e.g. a {@link com.fasterxml.jackson.databind.JsonNode} to
+   *                   a {@link io.fusionauth.scim.domain.GenericSCIMResource}. Matches that are not on the page are never converted.
+   * @param startIndex The 1-based index of the first match to return. Values less than 1 are treated as 1.
+   * @param count      The maximum number of matches to return. Negative values are treated as 0.
+   * @param countTotal Whether to test every resource to count the total number of matches. If false, the scan stops once the page is complete.
+   * @return A list response with the page of matches
+   */
+  public <T> SCIMListResponse scan(Spliterator<T> resources, Predicate<? super T> filter, Function<? super T, ? extends SCIMResource> converter,
+                                   int startIndex, int count, boolean countTotal) {
+    int start = Math.max(startIndex, 1);
+    int size = Math.max(count, 0);
+    // A spliterator of unknown size splits into batches as it is read, so use the smallest chunks rather than an estimate of Long.MAX_VALUE
+    long chunkSize = resources.hasCharacteristics(Spliterator.SIZED)
+        ? Math.max(MinimumChunkSize, resources.estimateSize() / (pool.getParallelism() * 8L))
+        : MinimumChunkSize;
+    Deque<Spliterator<T>> remainders = new ArrayDeque<>();
+    remainders.push(resources);
+
+    // Chunks are split and submitted as earlier chunks are joined, so only a few are buffered or running at a time
+    int window = pool.getParallelism() * 2;
+    Deque<ForkJoinTask<List<T>>> tasks = new ArrayDeque<>(window);
+    AtomicBoolean stopped = new AtomicBoolean();
+
+    // The number of matches before the page, and the number that ends the page
+    long skip = start - 1;
+    long end = skip + size;
+    long total = 0;
+    SCIMListResponse response = new SCIMListResponse();
+    try {
+      while (true) {
+        while (tasks.size() < window) {
+          Spliterator<T> chunk = nextChunk(remainders, chunkSize);
+          if (chunk == null) {
+            break;
+          }
+          tasks.add(pool.submit(() -> matches(chunk, filter, stopped)));
+        }
+
+        ForkJoinTask<List<T>> task = tasks.poll();
+        if (task == null) {
+          break;
+        }
+
+        List<T> matches = task.join();
+        for (long index = Math.max(skip - total, 0); index < matches.size() && total + index < end; index++) {
+          response.Resources.add(converter.apply(matches.get((int) index)));
+        }
+
+        total += matches.size();
+        if (!countTotal && total >= end) {
+          total = end;
+          break;
+        }
+      }
+    } finally {
+      // Stop any chunks that are no longer needed, or that can not be used because another chunk failed
+      stopped.set(true);
+      tasks.forEach(task -> task.cancel(false));
+    }
+
+    response.itemsPerPage = response.Resources.size();
+    response.startIndex = start;
+    response.totalResults = (int) Math.min(total, Integer.MAX_VALUE);
+    return response;
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.filter;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Compiles filters into predicates that test the domain objects, e.g. {@link io.fusionauth.scim.domain.SCIMUser},
+ * {@link io.fusionauth.scim.domain.SCIMEnterpriseUser} and {@link io.fusionauth.scim.domain.SCIMGroup}, without converting them to JSON first.
+ * <p>
+ * Each attribute name is resolved to the public field with the same JSON property name, so {@code profileUrl} and the enterprise extension URN
+ * resolve to the fields annotated with {@link JsonProperty}. Names without a field are looked up in the map returned by the
+ * {@link JsonAnyGetter} method, if the class has one. Field accessors are {@link MethodHandle}s created once per class. Each step of a compiled
+ * path caches the accessor for the last class it saw, so evaluating a filter against objects of the same class does no lookups.
+ * <p>
+ * Nested {@link Map}s, such as extension data, are walked by key. {@link Collection}s are multi-valued attributes: an expression matches if any
+ * element matches. Values are compared the same way {@link JsonNodeFilterCompiler} compares the JSON that the object serializes to.
+ *
+ * @author Spencer Witt
+ */
+public class PojoFilterCompiler extends ObjectFilterCompiler {
+  private static final MethodType AccessorType = MethodType.methodType(Object.class, Object.class);
+
+  private static final ClassValue<ClassAccessors> Accessors = new ClassValue<>() {
+    @Override
+    protected ClassAccessors computeValue(Class<?> type) {
+      return new ClassAccessors(type);
+    }
+  };
+
+  private static final MethodHandle Unassigned = MethodHandles.dropArguments(MethodHandles.constant(Object.class, null), 0, Object.class);
+
+  @Override
+  protected Accessor accessor(String name) {
+    return new Step(name);
+  }
+
+  /**
+   * A single step of an attribute path, with the accessor for the last class it was used with
+   */
+  static final class Step implements Accessor {
+    private final String name;
+
+    private ResolvedAccessor resolved;
+
+    Step(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public Object get(Object target) {
+      if (target instanceof Map<?, ?> map) {
+        return map.get(name);
+      }
+
+      // The accessor and its class are published together, so a racing thread sees a consistent pair
+      ResolvedAccessor resolved = this.resolved;
+      if (resolved == null || resolved.type != target.getClass()) {
+        resolved = new ResolvedAccessor(target.getClass(), name);
+        this.resolved = resolved;
+      }
+
+      try {
+        Object value = (Object) resolved.accessor.invokeExact(target);
+        if (resolved.anyGetter) {
+          return value != null ? ((Map<?, ?>) value).get(name) : null;
+        }
+        return value;
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new IllegalStateException(t);
+      }
+    }
+  }
+
+  /**
+   * The accessors for the public fields of a class, by JSON property name, and for its {@link JsonAnyGetter} method
+   */
+  private static final class ClassAccessors {
+    final MethodHandle anyGetter;
+
+    final Map<String, MethodHandle> fields = new HashMap<>();
+
+    ClassAccessors(Class<?> type) {
+      MethodHandle anyGetter = null;
+      if (Modifier.isPublic(type.getModifiers())) {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        for (Field field : type.getFields()) {
+          if (Modifier.isStatic(field.getModifiers())) {
+            continue;
+          }
+
+          JsonProperty property = field.getAnnotation(JsonProperty.class);
+          String name = property != null && !property.value().isEmpty() ? property.value() : field.getName();
+          try {
+            fields.put(name, lookup.unreflectGetter(field).asType(AccessorType));
+          } catch (IllegalAccessException ignore) {
+            // Not accessible, treat the attribute as unassigned
+          }
+        }
+
+        for (Method method : type.getMethods()) {
+          if (method.isAnnotationPresent(JsonAnyGetter.class) && method.getParameterCount() == 0
+              && Map.class.isAssignableFrom(method.getReturnType())) {
+            try {
+              anyGetter = lookup.unreflect(method).asType(AccessorType);
+            } catch (IllegalAccessException ignore) {
+              // Not accessible, only the fields can be used
+            }
+            break;
+          }
+        }
+      }
+      this.anyGetter = anyGetter;
+    }
+  }
+
+  private static final class ResolvedAccessor {
+    final MethodHandle accessor;
+
+    final boolean anyGetter;
+
+    final Class<?> type;
+
+    ResolvedAccessor(Class<?> type, String name) {
+      ClassAccessors accessors = Accessors.get(type);
+      MethodHandle field = accessors.fields.get(name);
+      MethodHandle anyGetter = accessors.anyGetter;
+      this.type = type;
+      this.anyGetter = field == null && anyGetter != null;
+      this.accessor = field != null ? field : anyGetter != null ? anyGetter : Unassigned;
+    }
+  }
+}
@@ -0,0 +1,388 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.filter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.fusionauth.scim.parser.AttributePath;
+
+/**
+ * Sorts resources by an attribute, as requested with the {@code sortBy} and {@code sortOrder} parameters in RFC 7644, section 3.4.2.3.
+ * <p>
+ * <ul>
+ *   <li>Strings are compared without regard to case. Numbers are compared by value, and booleans sort before numbers, which sort before
+ *   strings.</li>
+ *   <li>Resources without a value for the attribute are sorted last when ascending and first when descending.</li>
+ *   <li>A multi-valued attribute is sorted by its primary value, or by its first value if none is primary. A complex value is sorted by its
+ *   {@code value} sub-attribute, so {@code emails} sorts by the primary email address.</li>
+ *   <li>Resources with equal values are ordered by {@code id}, and then keep their original order.</li>
+ * </ul>
+ * The sort value of each resource is read once. {@link #page(Iterable, int, int)} keeps only the resources up to the end of the page in a bounded
+ * heap, so a page of {@code k} resources from {@code n} costs {@code O(n log k)} rather than sorting every resource.
+ * <p>
+ * {@link #page(Iterable, String, int)} pages with {@link KeysetCursor}s instead of a start index. Resources on the other side of the cursor are
+ * skipped with a single comparison and only the page itself is kept in the heap, so every page costs the same no matter how deep it is. Cursor
+ * pages are stable only when each resource has a unique {@code id}.
+ *
+ * @param <T> The resource representation
+ * @author Spencer Witt
+ */
+public class ResourceSorter<T> {
+  private static final Comparator<Object> ValueOrder = (a, b) -> {
+    int rank = Integer.compare(rank(a), rank(b));
+    if (rank != 0) {
+      return rank;
+    }
+    if (a instanceof String string) {
+      return String.CASE_INSENSITIVE_ORDER.compare(string, (String) b);
+    }
+    if (a instanceof BigDecimal decimal) {
+      return decimal.compareTo((BigDecimal) b);
+    }
+    return Boolean.compare((Boolean) a, (Boolean) b);
+  };
+
+  private final Function<? super T, String> id;
+
+  /**
+   * The order of the cursor positions, by sort value and id
+   */
+  private final Comparator<Entry<T>> keyOrder;
+
+  private final Comparator<Entry<T>> order;
+
+  private final String sortBy;
+
+  private final SortOrder sortOrder;
+
+  private final Function<? super T, Object> sortValue;
+
+  private ResourceSorter(String sortBy, SortOrder sortOrder, Function<? super T, Object> sortValue, Function<? super T, String> id) {
+    this.sortBy = sortBy;
+    this.sortOrder = sortOrder != null ? sortOrder : SortOrder.ascending;
+    this.sortValue = sortValue;
+    this.id = id;
+    Comparator<Object> values = sortOrder == SortOrder.descending ? ValueOrder.reversed() : ValueOrder;
+    // Unassigned values are greater than any value, so they are last when ascending and first when descending
+    Comparator<Object> unassigned = sortOrder == SortOrder.descending ? Comparator.nullsFirst(values) : Comparator.nullsLast(values);
+    this.keyOrder = Comparator.<Entry<T>, Object>comparing(entry -> entry.value, unassigned)
+                              .thenComparing(entry -> entry.id, Comparator.nullsLast(Comparator.naturalOrder()));
+    this.order = keyOrder.thenComparingLong(entry -> entry.index);
+  }
+
+  /**
+   * Create a sorter for resources in their {@link JsonNode} form
+   *
+   * @param sortBy    The attribute path to sort by
+   * @param sortOrder The sort order, or null for ascending
+   * @return The sorter
+   */
+  public static ResourceSorter<JsonNode> json(String sortBy, SortOrder sortOrder) {
+    String[] segments = AttributePath.of(sortBy).segments.toArray(String[]::new);
+    return new ResourceSorter<>(sortBy, sortOrder, resource -> {
+      JsonNode node = resource;
+      for (String segment : segments) {
+        node = primary(node).get(segment);
+        if (node == null) {
+          return null;
+        }
+      }
+
+      node = primary(node);
+      if (node.isObject()) {
+        node = node.path("value");
+      }
+      if (node.isTextual()) {
+        return node.textValue();
+      } else if (node.isNumber()) {
+        return node.decimalValue();
+      } else if (node.isBoolean()) {
+        return node.booleanValue();
+      }
+      return null;
+    }, resource -> resource.path("id").textValue());
+  }
+
+  /**
+   * Create a sorter for domain objects, such as {@link io.fusionauth.scim.domain.SCIMUser}, and for resources made of nested {@link java.util.Map}s
+   * and {@link List}s. Attributes are resolved the same way as {@link PojoFilterCompiler} resolves them.
+   *
+   * @param sortBy    The attribute path to sort by
+   * @param sortOrder The sort order, or null for ascending
+   * @return The sorter
+   */
+  public static ResourceSorter<Object> objects(String sortBy, SortOrder sortOrder) {
+    PojoFilterCompiler.Step[] steps = AttributePath.of(sortBy).segments.stream().map(PojoFilterCompiler.Step::new).toArray(PojoFilterCompiler.Step[]::new);
+    PojoFilterCompiler.Step primary = new PojoFilterCompiler.Step("primary");
+    PojoFilterCompiler.Step value = new PojoFilterCompiler.Step("value");
+    PojoFilterCompiler.Step id = new PojoFilterCompiler.Step("id");
+    return new ResourceSorter<>(sortBy, sortOrder, resource -> {
+      Object current = resource;
+      for (PojoFilterCompiler.Step step : steps) {
+        current = primary(current, primary);
+        if (current == null || isScalar(current)) {
+          return null;
+        }
+        current = step.get(current);
+      }
+
+      current = primary(current, primary);
+      if (current != null && !isScalar(current)) {
+        current = value.get(current);
+      }
+      if (current == null || current instanceof Boolean) {
+        return current;
+      } else if (current instanceof Number) {
+        return ObjectFilterCompiler.asDecimal(current);
+      } else if (isScalar(current)) {
+        return ObjectFilterCompiler.asText(current);
+      }
+      return null;
+    }, resource -> {
+      Object identifier = id.get(resource);
+      return identifier != null ? ObjectFilterCompiler.asText(identifier) : null;
+    });
+  }
+
+  private static boolean isScalar(Object value) {
+    // Scalar values serialize to JSON text, complex values have no text
+    return value instanceof String || !ObjectFilterCompiler.asText(value).isEmpty();
+  }
+
+  private static JsonNode primary(JsonNode node) {
+    if (!node.isArray()) {
+      return node;
+    }
+
+    for (JsonNode element : node) {
+      if (element.path("primary").booleanValue()) {
+        return element;
+      }
+    }
+    return node.path(0);
+  }
+
+  private static Object primary(Object value, PojoFilterCompiler.Step primary) {
+    if (!(value instanceof Collection<?> collection)) {
+      return value;
+    }
+
+    Object first = null;
+    for (Object element : collection) {
+      if (element != null && !isScalar(element) && Boolean.TRUE.equals(primary.get(element))) {
+        return element;
+      }
+      if (first == null) {
+        first = element;
+      }
+    }
+    return first;
+  }
+
+  private static int rank(Object value) {
+    return value instanceof Boolean ? 0 : value instanceof BigDecimal ? 1 : 2;
+  }
+
+  /**
+   * Return the cursor for the resources after the given resource, which is the {@code nextCursor} of a page that ends with the resource
+   *
+   * @param resource The resource
+   * @return The cursor
+   */
+  public KeysetCursor after(T resource) {
+    Entry<T> entry = entry(resource, 0);
+    return new KeysetCursor(sortBy, sortOrder, entry.value, entry.id, false);
+  }
+
+  /**
+   * Return the cursor for the resources before the given resource, which is the {@code previousCursor} of a page that starts with the resource
+   *
+   * @param resource The resource
+   * @return The cursor
+   */
+  public KeysetCursor before(T resource) {
+    Entry<T> entry = entry(resource, 0);
+    return new KeysetCursor(sortBy, sortOrder, entry.value, entry.id, true);
+  }
+
+  /**
+   * Return one page of the sorted resources, positioned by a cursor
+   *
+   * @param resources The resources to sort
+   * @param cursor    The {@code nextCursor} or {@code previousCursor} of an earlier page, or null for the first page
+   * @param count     The maximum number of resources to return
+   * @return The page
+   * @throws IllegalArgumentException If the cursor is not valid, or if it was created for a different sort
+   */
+  public CursorPage<T> page(Iterable<? extends T> resources, String cursor, int count) {
+    KeysetCursor position = cursor != null ? KeysetCursor.decode(cursor) : null;
+    if (position != null && (!position.sortBy.equals(sortBy) || position.sortOrder != sortOrder)) {
+      throw new IllegalArgumentException("The cursor [" + cursor + "] is for a different sort");
+    }
+
+    boolean backward = position != null && position.before;
+    Entry<T> key = position != null ? new Entry<>(null, position.value, position.id, 0) : null;
+    // One more than the page, to find out whether there is another page beyond it
+    int limit = (int) Math.min((long) Math.max(count, 0) + 1, Integer.MAX_VALUE - 8);
+
+    // Going forward keep the first resources after the cursor, going backward keep the last resources before it. The head of the heap is the
+    // resource that is dropped first.
+    PriorityQueue<Entry<T>> heap = new PriorityQueue<>(Math.min(limit, 1_024), backward ? order : order.reversed());
+    boolean skipped = false;
+    long index = 0;
+    for (T resource : resources) {
+      Entry<T> entry = entry(resource, index++);
+      if (key != null) {
+        int side = keyOrder.compare(entry, key);
+        if (backward ? side >= 0 : side <= 0) {
+          skipped = true;
+          continue;
+        }
+      }
+
+      heap.add(entry);
+      if (heap.size() > limit) {
+        heap.poll();
+      }
+    }
+
+    List<Entry<T>> entries = new ArrayList<>(heap);
+    entries.sort(order);
+    boolean more = entries.size() > count;
+    if (more) {
+      entries = backward ? entries.subList(1, entries.size()) : entries.subList(0, entries.size() - 1);
+    }
+
+    List<T> page = new ArrayList<>(entries.size());
+    entries.forEach(entry -> page.add(entry.resource));
+    // An empty page has no resource to position the cursors on either side of it
+    boolean hasNext = !page.isEmpty() && (backward ? skipped : more);
+    boolean hasPrevious = !page.isEmpty() && (backward ? more : skipped);
+    String nextCursor = hasNext ? after(page.get(page.size() - 1)).encode() : null;
+    String previousCursor = hasPrevious ? before(page.get(0)).encode() : null;
+    return new CursorPage<>(page, nextCursor, previousCursor);
+  }
+
+  /**
+   * Return one page of the sorted resources
+   *
+   * @param resources  The resources to sort
+   * @param startIndex The 1-based index of the first resource to return. Values less than 1 are treated as 1.
+   * @param count      The maximum number of resources to return
+   * @return The resources on the page, in order
+   */
+  public List<T> page(Iterable<? extends T> resources, int startIndex, int count) {
+    int skip = Math.max(startIndex, 1) - 1;
+    // The number of resources to keep, capped below the largest array size
+    int limit = (int) Math.min((long) skip + Math.max(count, 0), Integer.MAX_VALUE - 8);
+    if (limit <= skip) {
+      return new ArrayList<>();
+    }
+
+    // A max-heap of the first resources in sort order. The head is the last of them, and is replaced by any resource that sorts before it.
+    PriorityQueue<Entry<T>> heap = new PriorityQueue<>(Math.min(limit, 1_024), order.reversed());
+    long index = 0;
+    for (T resource : resources) {
+      Entry<T> entry = entry(resource, index++);
+      if (heap.size() < limit) {
+        heap.add(entry);
+      } else if (order.compare(entry, heap.peek()) < 0) {
+        heap.poll();
+        heap.add(entry);
+      }
+    }
+
+    List<Entry<T>> entries = new ArrayList<>(heap);
+    entries.sort(order);
+    List<T> page = new ArrayList<>(Math.max(entries.size() - skip, 0));
+    for (int i = skip; i < entries.size(); i++) {
+      page.add(entries.get(i).resource);
+    }
+    return page;
+  }
+
+  /**
+   * Sort all of the resources
+   *
+   * @param resources The resources to sort
+   * @return The sorted resources
+   */
+  public List<T> sort(Iterable<? extends T> resources) {
+    List<Entry<T>> entries = new ArrayList<>();
+    long index = 0;
+    for (T resource : resources) {
+      entries.add(entry(resource, index++));
+    }
+
+    entries.sort(order);
+    List<T> sorted = new ArrayList<>(entries.size());
+    entries.forEach(entry -> sorted.add(entry.resource));
+    return sorted;
+  }
+
+  private Entry<T> entry(T resource, long index) {
+    return new Entry<>(resource, sortValue.apply(resource), id.apply(resource), index);
+  }
+
+  /**
+   * One page of resources from {@link #page(Iterable, String, int)}, with the cursors for the pages on either side of it
+   *
+   * @param <T> The resource representation
+   */
+  public static final class CursorPage<T> {
+    /**
+     * The cursor for the page after this one, or null if this is the last page
+     */
+    public final String nextCursor;
+
+    /**
+     * The cursor for the page before this one, or null if this is the first page
+     */
+    public final String previousCursor;
+
+    public final List<T> resources;
+
+    CursorPage(List<T> resources, String nextCursor, String previousCursor) {
+      this.resources = resources;
+      this.nextCursor = nextCursor;
+      this.previousCursor = previousCursor;
+    }
+  }
+
+  private static final class Entry<T> {
+    final String id;
+
+    final long index;
+
+    final T resource;
+
+    final Object value;
+
+    Entry(T resource, Object value, String id, long index) {
+      this.resource = resource;
+      this.value = value;
+      this.id = id;
+      this.index = index;
+    }
+  }
+}
@@ -0,0 +1,337 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.filter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.fusionauth.scim.parser.AttributePath;
+import io.fusionauth.scim.parser.LogicalOperator;
+import io.fusionauth.scim.parser.expression.AttributeExpression;
+import io.fusionauth.scim.parser.expression.AttributeFilterGroupingExpression;
+import io.fusionauth.scim.parser.expression.AttributeMembershipExpression;
+import io.fusionauth.scim.parser.expression.AttributeRangeExpression;
+import io.fusionauth.scim.parser.expression.Expression;
+import io.fusionauth.scim.parser.expression.LogicalChainExpression;
+import io.fusionauth.scim.parser.expression.LogicalLinkExpression;
+import io.fusionauth.scim.parser.expression.LogicalNegationExpression;
+import io.fusionauth.scim.transform.ExpressionFlattener;
+
+/**
+ * Matches a filter against a SCIM resource read from a {@link JsonParser} token stream, without building a tree for the whole resource.
+ * <p>
+ * Only the attributes that the filter references are read into a sparse {@link JsonNode}. Every other field is skipped with
+ * {@link JsonParser#skipChildren()}, and inside referenced complex attributes only the referenced sub-attributes are kept. After each referenced
+ * top-level attribute is read, the filter is evaluated with three-valued logic, where an expression on an attribute that has not been read yet is
+ * unknown. As soon as the result is known, the rest of the resource is skipped without building any more of the tree.
+ * <p>
+ * Each part of the filter is evaluated with {@link JsonNodeFilterCompiler}, so the result is the same as evaluating the filter against the
+ * complete resource. A matcher is immutable and may be shared between threads.
+ *
+ * @author Spencer Witt
+ */
+public class StreamingFilterMatcher {
+  private static final ObjectMapper Mapper = new ObjectMapper();
+
+  private static final int Unknown = -1;
+
+  private final int leafCount;
+
+  private final Node root;
+
+  private final Map<String, Integer> rootAttributes = new HashMap<>();
+
+  private final PathTrie trie = new PathTrie();
+
+  /**
+   * @param expression The filter to match
+   */
+  public StreamingFilterMatcher(Expression expression) {
+    JsonNodeFilterCompiler compiler = new JsonNodeFilterCompiler();
+    List<Leaf> leaves = new ArrayList<>();
+    this.root = build(ExpressionFlattener.flatten(expression), compiler, leaves);
+    this.leafCount = leaves.size();
+  }
+
+  /**
+   * Match the resource that starts at the current token of the parser, or the next token if the parser does not have a current token. When this
+   * method returns, the parser is positioned on the {@link JsonToken#END_OBJECT} token of the resource, so a stream of resources can be matched by
+   * calling this method once per resource.
+   *
+   * @param parser The parser
+   * @return true if the resource matches the filter
+   * @throws IOException If the JSON can not be read, or if the value is not a JSON object
+   */
+  public boolean matches(JsonParser parser) throws IOException {
+    JsonToken token = parser.hasCurrentToken() ? parser.currentToken() : parser.nextToken();
+    if (token != JsonToken.START_OBJECT) {
+      throw new IOException("Expected a JSON object but found [" + token + "]");
+    }
+
+    State state = new State(leafCount, rootAttributes.size());
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.currentName();
+      parser.nextToken();
+      Integer attribute = rootAttributes.get(name);
+      if (attribute == null || state.read[attribute]) {
+        parser.skipChildren();
+        continue;
+      }
+
+      state.document.set(name, read(parser, trie.children.get(name)));
+      state.read[attribute] = true;
+      int result = root.evaluate(state);
+      if (result != Unknown) {
+        // The result is known, skip the rest of the resource
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          parser.nextToken();
+          parser.skipChildren();
+        }
+        return result == 1;
+      }
+    }
+
+    // Every attribute that was not read is unassigned
+    state.complete = true;
+    return root.evaluate(state) == 1;
+  }
+
+  private void addPath(PathTrie node, List<String> segments, boolean whole) {
+    for (String segment : segments) {
+      node = node.children.computeIfAbsent(segment, key -> new PathTrie());
+    }
+    node.whole |= whole;
+  }
+
+  private Node build(Expression expression, JsonNodeFilterCompiler compiler, List<Leaf> leaves) {
+    return switch (expression.type()) {
+      case logicalChain -> {
+        LogicalChainExpression chain = (LogicalChainExpression) expression;
+        yield new Chain(chain.logicalOperator, chain.operands.stream().map(operand -> build(operand, compiler, leaves)).toArray(Node[]::new));
+      }
+      case logicalLink -> {
+        LogicalLinkExpression link = (LogicalLinkExpression) expression;
+        yield new Chain(link.logicalOperator, new Node[]{build(link.left, compiler, leaves), build(link.right, compiler, leaves)});
+      }
+      case logicalNegation -> new Not(build(((LogicalNegationExpression) expression).subExpression, compiler, leaves));
+      default -> {
+        AttributePath path = leafPath(expression);
+        int attribute = rootAttributes.computeIfAbsent(path.segments.get(0), key -> rootAttributes.size());
+        Leaf leaf = new Leaf(leaves.size(), attribute, compiler.compile(expression));
+        leaves.add(leaf);
+        yield leaf;
+      }
+    };
+  }
+
+  /**
+   * Add the paths that a leaf of the filter reads to the trie, and return the path that decides when the leaf can be evaluated
+   */
+  private AttributePath leafPath(Expression expression) {
+    return switch (expression.type()) {
+      case attribute -> {
+        AttributePath path = ((AttributeExpression<?>) expression).path;
+        addPath(trie, path.segments, true);
+        yield path;
+      }
+      case attributeMembership -> {
+        AttributePath path = ((AttributeMembershipExpression) expression).path;
+        addPath(trie, path.segments, true);
+        yield path;
+      }
+      case attributeRange -> {
+        AttributePath path = ((AttributeRangeExpression) expression).lower.path;
+        addPath(trie, path.segments, true);
+        yield path;
+      }
+      case attributeFilterGrouping -> {
+        AttributeFilterGroupingExpression grouping = (AttributeFilterGroupingExpression) expression;
+        AttributePath path = AttributePath.of(grouping.parentAttributePath);
+        addPath(trie, path.segments, false);
+        PathTrie parent = trie;
+        for (String segment : path.segments) {
+          parent = parent.children.get(segment);
+        }
+        // The paths in the sub-filter are relative to each value of the parent attribute
+        addRelativePaths(parent, grouping.filterExpression);
+        yield path;
+      }
+      default -> throw new IllegalArgumentException("Unexpected expression type [" + expression.type() + "]");
+    };
+  }
+
+  private void addRelativePaths(PathTrie parent, Expression expression) {
+    switch (expression.type()) {
+      case attribute -> addPath(parent, ((AttributeExpression<?>) expression).path.segments, true);
+      case attributeMembership -> addPath(parent, ((AttributeMembershipExpression) expression).path.segments, true);
+      case attributeRange -> addPath(parent, ((AttributeRangeExpression) expression).lower.path.segments, true);
+      case logicalChain -> ((LogicalChainExpression) expression).operands.forEach(operand -> addRelativePaths(parent, operand));
+      case logicalLink -> {
+        addRelativePaths(parent, ((LogicalLinkExpression) expression).left);
+        addRelativePaths(parent, ((LogicalLinkExpression) expression).right);
+      }
+      case logicalNegation -> addRelativePaths(parent, ((LogicalNegationExpression) expression).subExpression);
+      // Nested complex attribute filters are not part of the grammar, so read the whole value
+      default -> parent.whole = true;
+    }
+  }
+
+  /**
+   * Read the current value, keeping only the parts of it that are in the trie
+   */
+  private JsonNode read(JsonParser parser, PathTrie node) throws IOException {
+    JsonToken token = parser.currentToken();
+    if (node.whole || (token != JsonToken.START_OBJECT && token != JsonToken.START_ARRAY)) {
+      return Mapper.readTree(parser);
+    }
+
+    if (token == JsonToken.START_ARRAY) {
+      // Multi-valued attributes apply the same paths to each element
+      ArrayNode array = JsonNodeFactory.instance.arrayNode();
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        array.add(read(parser, node));
+      }
+      return array;
+    }
+
+    ObjectNode object = JsonNodeFactory.instance.objectNode();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.currentName();
+      parser.nextToken();
+      PathTrie child = node.children.get(name);
+      if (child == null) {
+        parser.skipChildren();
+      } else {
+        object.set(name, read(parser, child));
+      }
+    }
+    return object;
+  }
+
+  private abstract static class Node {
+    /**
+     * @return 1 if the expression matches, 0 if it does not, or {@link #Unknown}
+     */
+    abstract int evaluate(State state);
+  }
+
+  private static final class Chain extends Node {
+    private final boolean and;
+
+    private final Node[] operands;
+
+    private Chain(LogicalOperator operator, Node[] operands) {
+      this.and = operator == LogicalOperator.and;
+      this.operands = operands;
+    }
+
+    @Override
+    int evaluate(State state) {
+      // An and chain is false as soon as one operand is false, an or chain is true as soon as one operand is true
+      int shortCircuit = and ? 0 : 1;
+      boolean unknown = false;
+      for (Node operand : operands) {
+        int result = operand.evaluate(state);
+        if (result == shortCircuit) {
+          return shortCircuit;
+        }
+        unknown |= result == Unknown;
+      }
+      return unknown ? Unknown : 1 - shortCircuit;
+    }
+  }
+
+  private static final class Leaf extends Node {
+    private final int attribute;
+
+    private final int index;
+
+    private final Predicate<JsonNode> predicate;
+
+    private Leaf(int index, int attribute, Predicate<JsonNode> predicate) {
+      this.index = index;
+      this.attribute = attribute;
+      this.predicate = predicate;
+    }
+
+    @Override
+    int evaluate(State state) {
+      int result = state.results[index];
+      if (result == Unknown && (state.complete || state.read[attribute])) {
+        result = predicate.test(state.document) ? 1 : 0;
+        state.results[index] = result;
+      }
+      return result;
+    }
+  }
+
+  private static final class Not extends Node {
+    private final Node operand;
+
+    private Not(Node operand) {
+      this.operand = operand;
+    }
+
+    @Override
+    int evaluate(State state) {
+      int result = operand.evaluate(state);
+      return result == Unknown ? Unknown : 1 - result;
+    }
+  }
+
+  /**
+   * The attribute paths referenced by a filter, by segment
+   */
+  private static final class PathTrie {
+    final Map<String, PathTrie> children = new HashMap<>();
+
+    /**
+     * Whether the whole value at this path is needed, rather than only the children
+     */
+    boolean whole;
+  }
+
+  /**
+   * The state of matching a single resource
+   */
+  private static final class State {
+    final ObjectNode document = JsonNodeFactory.instance.objectNode();
+
+    final boolean[] read;
+
+    final int[] results;
+
+    boolean complete;
+
+    State(int leafCount, int attributeCount) {
+      this.read = new boolean[attributeCount];
+      this.results = new int[leafCount];
+      Arrays.fill(results, Unknown);
+    }
+  }
+}
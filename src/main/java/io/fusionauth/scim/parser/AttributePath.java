@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import io.fusionauth.scim.utils.ToString;
+
+/**
+ * A SCIM attribute path split into its parts, {@code [schema ":"] attribute ["." subAttribute]}, with a precompiled {@link JsonPointer} to the
+ * attribute in a SCIM resource.
+ * <p>
+ * Attribute paths come from a small, fixed set of schemas, so parsed paths are interned in a bounded table and shared by every filter that uses
+ * the same path. When the table is full, paths that have not been used recently are evicted, so paths from untrusted input can not fill the table
+ * for good.
+ * <p>
+ * Splitting a path does not validate it, so a path from any source can be used to look up an attribute.
+ *
+ * @author Spencer Witt
+ * @see <a href="https://www.rfc-editor.org/rfc/rfc7644#section-3.10">Attribute Notation</a>
+ */
+public final class AttributePath {
+  /**
+   * The maximum number of interned attribute paths
+   */
+  public static final int MaximumInterned = 10_000;
+
+  private static final String CoreSchemaPrefix = "urn:ietf:params:scim:schemas:core:";
+
+  private static final ClockCache<String, AttributePath> Interned = new ClockCache<>(MaximumInterned, Long.MAX_VALUE, path -> 0);
+
+  /**
+   * The attribute name, without the schema or sub-attribute
+   */
+  public final String attribute;
+
+  /**
+   * The full attribute path as it appears in a filter
+   */
+  public final String path;
+
+  /**
+   * A JSON pointer to the attribute. Each part of the path is one segment of the pointer, the schema first if there is one. Core schema attributes
+   * are at the top level of a resource, so a core schema URN is not part of the pointer.
+   */
+  public final JsonPointer pointer;
+
+  /**
+   * The schema URN that qualifies the attribute, or {@code null} if the path does not have one
+   */
+  public final String schema;
+
+  /**
+   * The unescaped segments of {@link #pointer}, in order. Evaluators that step into multi-valued attributes walk these rather than the pointer.
+   */
+  public final List<String> segments;
+
+  /**
+   * The sub-attribute name, or {@code null} if the path does not have one
+   */
+  public final String subAttribute;
+
+  private AttributePath(String path) {
+    this.path = path;
+    // The schema URN may contain periods (e.g. 2.0), so the attribute starts after the last colon
+    int lastColon = path.lastIndexOf(':');
+    this.schema = lastColon != -1 ? path.substring(0, lastColon) : null;
+    String attributeAndSubAttribute = lastColon != -1 ? path.substring(lastColon + 1) : path;
+    int period = attributeAndSubAttribute.indexOf('.');
+    this.attribute = period != -1 ? attributeAndSubAttribute.substring(0, period) : attributeAndSubAttribute;
+    this.subAttribute = period != -1 ? attributeAndSubAttribute.substring(period + 1) : null;
+
+    List<String> segments = new ArrayList<>(3);
+    if (schema != null && !schema.startsWith(CoreSchemaPrefix)) {
+      segments.add(schema);
+    }
+    segments.add(attribute);
+    if (subAttribute != null) {
+      // A valid path has a single sub-attribute. Any further periods are treated as more levels of nesting.
+      Collections.addAll(segments, subAttribute.split("\\.", -1));
+    }
+    this.segments = Collections.unmodifiableList(segments);
+
+    StringBuilder pointer = new StringBuilder();
+    for (String segment : segments) {
+      appendSegment(pointer, segment);
+    }
+    this.pointer = JsonPointer.compile(pointer.toString());
+  }
+
+  /**
+   * Return the parsed form of an attribute path
+   *
+   * @param path The attribute path
+   * @return The parsed attribute path
+   */
+  public static AttributePath of(String path) {
+    AttributePath attributePath = Interned.get(path);
+    if (attributePath != null) {
+      return attributePath;
+    }
+
+    return Interned.putIfAbsent(path, new AttributePath(path));
+  }
+
+  private static void appendSegment(StringBuilder pointer, String segment) {
+    pointer.append('/');
+    for (int i = 0; i < segment.length(); i++) {
+      char c = segment.charAt(i);
+      if (c == '~') {
+        pointer.append("~0");
+      } else if (c == '/') {
+        pointer.append("~1");
+      } else {
+        pointer.append(c);
+      }
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    AttributePath that = (AttributePath) o;
+    return path.equals(that.path);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(path);
+  }
+
+  @Override
+  public String toString() {
+    return ToString.toString(this);
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.parser;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import io.fusionauth.scim.parser.expression.Expression;
+
+/**
+ * A {@link SCIMFilterParser} that keeps a bounded, thread-safe cache of parsed filters so that each distinct filter string is only parsed once.
+ * <p>
+ * The cache is bounded both by the number of entries and by a total weight, where the weight of an entry is the length of the filter string.
+ * When either bound is exceeded, entries are evicted using a second-chance (CLOCK) policy: entries that were read since they were last considered
+ * for eviction are given another pass, all others are removed.
+ * <p>
+ * The same {@link Expression} instance is returned to every caller of the same filter. Expressions are immutable, so the shared tree is safe to
+ * use from any thread.
+ * <p>
+ * Filters that fail to parse are not cached, so the parser exception is thrown on every call. Only {@link #parse(String)} uses the cache, the other
+ * entry points always parse the filter.
+ *
+ * @author Spencer Witt
+ */
+public class CachingSCIMFilterParser extends SCIMFilterParser {
+  /**
+   * The default maximum number of cached filters
+   */
+  public static final int DefaultMaximumEntries = 1_000;
+
+  /**
+   * The default maximum combined length of all cached filter strings
+   */
+  public static final long DefaultMaximumWeight = 1_000_000;
+
+  private final ClockCache<String, Expression> cache;
+
+  private final LongAdder hits = new LongAdder();
+
+  private final LongAdder misses = new LongAdder();
+
+  public CachingSCIMFilterParser() {
+    this(DefaultMaximumEntries, DefaultMaximumWeight);
+  }
+
+  /**
+   * @param maximumEntries The maximum number of parsed filters to keep in the cache
+   * @param maximumWeight  The maximum combined length of all filter strings in the cache
+   */
+  public CachingSCIMFilterParser(int maximumEntries, long maximumWeight) {
+    this(ParserEngine.postfix, maximumEntries, maximumWeight);
+  }
+
+  /**
+   * @param engine         The strategy used to assemble the expression tree
+   * @param maximumEntries The maximum number of parsed filters to keep in the cache
+   * @param maximumWeight  The maximum combined length of all filter strings in the cache
+   */
+  public CachingSCIMFilterParser(ParserEngine engine, int maximumEntries, long maximumWeight) {
+    this(engine, SCIMFilterParserLimits.Unlimited, maximumEntries, maximumWeight);
+  }
+
+  /**
+   * @param engine         The strategy used to assemble the expression tree
+   * @param limits         The resource limits to enforce on each filter that is parsed
+   * @param maximumEntries The maximum number of parsed filters to keep in the cache
+   * @param maximumWeight  The maximum combined length of all filter strings in the cache
+   */
+  public CachingSCIMFilterParser(ParserEngine engine, SCIMFilterParserLimits limits, int maximumEntries, long maximumWeight) {
+    super(engine, limits);
+    if (maximumEntries < 1) {
+      throw new IllegalArgumentException("The maximum number of entries must be greater than zero");
+    }
+    if (maximumWeight < 1) {
+      throw new IllegalArgumentException("The maximum weight must be greater than zero");
+    }
+    this.cache = new ClockCache<>(maximumEntries, maximumWeight, String::length);
+  }
+
+  /**
+   * Remove all entries from the cache. The hit, miss and eviction counters are not reset.
+   */
+  public void clear() {
+    cache.clear();
+  }
+
+  /**
+   * @return The number of entries that have been evicted from the cache because it exceeded its bounds
+   */
+  public long evictionCount() {
+    return cache.evictionCount();
+  }
+
+  /**
+   * @return The number of calls to {@link #parse(String)} that were answered from the cache
+   */
+  public long hitCount() {
+    return hits.sum();
+  }
+
+  /**
+   * @return The number of calls to {@link #parse(String)} that required the filter to be parsed
+   */
+  public long missCount() {
+    return misses.sum();
+  }
+
+  /**
+   * Parse SCIM filter string into an {@link Expression} tree, returning a cached tree if this filter has been parsed before.
+   *
+   * @param filter The SCIM filter string
+   * @return A single {@link Expression} representing the parsed filter string. This instance is shared with other callers.
+   */
+  @Override
+  public Expression parse(String filter) {
+    Expression expression = cache.get(filter);
+    if (expression != null) {
+      hits.increment();
+      return expression;
+    }
+
+    misses.increment();
+    // If another thread parsed the same filter first, return the cached instance so that all callers share one tree
+    return cache.putIfAbsent(filter, super.parse(filter));
+  }
+
+  /**
+   * @return The number of parsed filters currently in the cache
+   */
+  public int size() {
+    return cache.size();
+  }
+
+  /**
+   * @return The combined length of all filter strings currently in the cache
+   */
+  public long weight() {
+    return cache.weight();
+  }
+}
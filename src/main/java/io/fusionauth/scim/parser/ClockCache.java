@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.parser;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToLongFunction;
+
+/**
+ * A bounded, thread-safe cache that evicts with a second-chance (CLOCK) policy.
+ * <p>
+ * The cache is bounded both by the number of entries and by a total weight. When either bound is exceeded, entries that were read since they were
+ * last considered for eviction are given another pass, all others are removed. Reads and inserts run concurrently. {@link #clear()} excludes
+ * inserts and evictions, so the weight always matches the entries in the cache.
+ *
+ * @param <K> The key type
+ * @param <V> The value type
+ * @author Spencer Witt
+ */
+public final class ClockCache<K, V> {
+  private final ConcurrentHashMap<K, Entry<V>> cache = new ConcurrentHashMap<>();
+
+  private final LongAdder evictions = new LongAdder();
+
+  private final Queue<K> evictionQueue = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Inserts and evictions hold the read lock, {@link #clear()} holds the write lock
+   */
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final int maximumEntries;
+
+  private final long maximumWeight;
+
+  private final AtomicLong weight = new AtomicLong();
+
+  private final ToLongFunction<K> weigher;
+
+  /**
+   * @param maximumEntries The maximum number of entries
+   * @param maximumWeight  The maximum combined weight of all keys
+   * @param weigher        The weight of a key
+   */
+  public ClockCache(int maximumEntries, long maximumWeight, ToLongFunction<K> weigher) {
+    this.maximumEntries = maximumEntries;
+    this.maximumWeight = maximumWeight;
+    this.weigher = weigher;
+  }
+
+  /**
+   * Remove all entries. The eviction counter is not reset.
+   */
+  public void clear() {
+    lock.writeLock().lock();
+    try {
+      cache.clear();
+      evictionQueue.clear();
+      weight.set(0);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @return The number of entries that have been evicted because the cache exceeded its bounds
+   */
+  public long evictionCount() {
+    return evictions.sum();
+  }
+
+  /**
+   * Return the cached value of a key, and mark it as referenced
+   *
+   * @param key The key
+   * @return The value, or null if the key is not cached
+   */
+  public V get(K key) {
+    Entry<V> entry = cache.get(key);
+    if (entry == null) {
+      return null;
+    }
+    entry.referenced = true;
+    return entry.value;
+  }
+
+  /**
+   * Cache a value unless the key is already cached. A key that is heavier than the maximum weight is never cached.
+   *
+   * @param key   The key
+   * @param value The value
+   * @return The value that is already cached for the key, or the given value
+   */
+  public V putIfAbsent(K key, V value) {
+    long keyWeight = weigher.applyAsLong(key);
+    if (keyWeight > maximumWeight) {
+      // This key would evict everything else and still not fit
+      return value;
+    }
+
+    lock.readLock().lock();
+    try {
+      Entry<V> existing = cache.putIfAbsent(key, new Entry<>(value));
+      if (existing != null) {
+        return existing.value;
+      }
+
+      evictionQueue.offer(key);
+      weight.addAndGet(keyWeight);
+      evict();
+      return value;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @return The number of cached entries
+   */
+  public int size() {
+    return cache.size();
+  }
+
+  /**
+   * @return The combined weight of all cached keys
+   */
+  public long weight() {
+    return weight.get();
+  }
+
+  private void evict() {
+    // Bound the number of second chances so that a fully referenced cache cannot spin forever
+    int secondChances = cache.size();
+    while (cache.size() > maximumEntries || weight.get() > maximumWeight) {
+      K candidate = evictionQueue.poll();
+      if (candidate == null) {
+        return;
+      }
+
+      Entry<V> entry = cache.get(candidate);
+      if (entry == null) {
+        // Already removed by another thread, which also removed its weight
+        continue;
+      }
+
+      if (entry.referenced && secondChances-- > 0) {
+        entry.referenced = false;
+        evictionQueue.offer(candidate);
+        continue;
+      }
+
+      if (cache.remove(candidate, entry)) {
+        weight.addAndGet(-weigher.applyAsLong(candidate));
+        evictions.increment();
+      }
+    }
+  }
+
+  private static class Entry<V> {
+    final V value;
+
+    volatile boolean referenced;
+
+    Entry(V value) {
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.parser;
+
+import java.util.Deque;
+
+import io.fusionauth.scim.parser.expression.AttributeFilterGroupingExpression;
+import io.fusionauth.scim.parser.expression.Expression;
+import io.fusionauth.scim.parser.expression.LogicalLinkExpression;
+import io.fusionauth.scim.parser.expression.LogicalNegationExpression;
+
+/**
+ * A placeholder used on the parser's operator stack for an expression whose operands have not been parsed yet. Once the operands are available,
+ * {@link #build(Deque)} creates the immutable expression.
+ *
+ * @author Spencer Witt
+ */
+final class ExpressionBuilder extends Expression {
+  /**
+   * The logical operator for {@link ExpressionType#logicalLink} and {@link ExpressionType#logicalNegation} builders
+   */
+  final LogicalOperator logicalOperator;
+
+  /**
+   * The parent attribute path for {@link ExpressionType#attributeFilterGrouping} builders
+   */
+  final String parentAttributePath;
+
+  private final ExpressionType type;
+
+  private ExpressionBuilder(ExpressionType type, LogicalOperator logicalOperator, String parentAttributePath) {
+    this.type = type;
+    this.logicalOperator = logicalOperator;
+    this.parentAttributePath = parentAttributePath;
+  }
+
+  static ExpressionBuilder attributeFilterGrouping(String parentAttributePath) {
+    return new ExpressionBuilder(ExpressionType.attributeFilterGrouping, null, parentAttributePath);
+  }
+
+  static ExpressionBuilder logicalLink(LogicalOperator logicalOperator) {
+    return new ExpressionBuilder(ExpressionType.logicalLink, logicalOperator, null);
+  }
+
+  static ExpressionBuilder logicalNegation() {
+    return new ExpressionBuilder(ExpressionType.logicalNegation, LogicalOperator.not, null);
+  }
+
+  /**
+   * Build the expression by taking its operands from the top of the operand stack
+   *
+   * @param operands The stack of completed operands
+   * @return The immutable expression
+   */
+  Expression build(Deque<Expression> operands) {
+    return switch (type) {
+      case logicalLink -> {
+        Expression right = operands.pop();
+        Expression left = operands.pop();
+        yield new LogicalLinkExpression(left, logicalOperator, right);
+      }
+      case logicalNegation -> new LogicalNegationExpression(operands.pop());
+      case attributeFilterGrouping -> new AttributeFilterGroupingExpression(parentAttributePath, operands.pop());
+      default -> throw new IllegalStateException("Unexpected expression type [" + type + "]");
+    };
+  }
+
+  @Override
+  public ExpressionType type() {
+    return type;
+  }
+}
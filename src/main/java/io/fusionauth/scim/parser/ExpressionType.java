@@ -41,5 +41,17 @@ public enum ExpressionType {
   /**
    * A complex attribute filter grouping expression that evaluates sub-attributes
    */
-  attributeFilterGrouping
+  attributeFilterGrouping,
+  /**
+   * A logical linking expression applying {@link LogicalOperator#and} or {@link LogicalOperator#or} to any number of sub-expressions
+   */
+  logicalChain,
+  /**
+   * An expression checking that an attribute value is between a lower and an upper bound
+   */
+  attributeRange,
+  /**
+   * An expression checking that an attribute value is equal to one of a set of text values
+   */
+  attributeMembership
 }
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.parser;
+
+import java.nio.ByteBuffer;
+
+import io.fusionauth.scim.parser.exception.FilterEncodingException;
+
+/**
+ * Decodes a SCIM filter from UTF-8 bytes into characters in a single pass, optionally decoding a percent-encoded query string value at the same
+ * time.
+ *
+ * @author Spencer Witt
+ */
+final class FilterDecoder {
+  private FilterDecoder() {
+  }
+
+  /**
+   * Decode the bytes between {@code start} and {@code end}. Each byte produces at most one character, so the destination must be at least
+   * {@code end - start} long.
+   *
+   * @param source      The encoded filter. Bytes are read by index, so the position and limit of the buffer are not changed.
+   * @param start       The index of the first byte, inclusive
+   * @param end         The index of the last byte, exclusive
+   * @param urlEncoded  Whether {@code %XX} sequences and {@code +} should be decoded as in an {@code application/x-www-form-urlencoded} value
+   * @param destination The array that receives the decoded characters
+   * @return The number of characters written to the destination
+   */
+  static int decode(ByteBuffer source, int start, int end, boolean urlEncoded, char[] destination) {
+    int length = 0;
+    // The code point of the multibyte sequence being decoded, the number of continuation bytes it still needs and the smallest code point that
+    // may use that many bytes
+    int codePoint = 0;
+    int remaining = 0;
+    int minimum = 0;
+    for (int i = start; i < end; i++) {
+      int offset = i;
+      int b = source.get(i);
+      if (urlEncoded) {
+        if (b == '+') {
+          b = ' ';
+        } else if (b == '%') {
+          int high = i + 2 < end ? hexValue(source.get(i + 1)) : -1;
+          int low = high != -1 ? hexValue(source.get(i + 2)) : -1;
+          if (low == -1) {
+            throw new FilterEncodingException("Invalid percent-encoded sequence at byte [" + (offset - start) + "]");
+          }
+          b = (byte) (high << 4 | low);
+          i += 2;
+        }
+      }
+
+      if (remaining == 0) {
+        if (b >= 0) {
+          destination[length++] = (char) b;
+          continue;
+        } else if ((b & 0xE0) == 0xC0) {
+          codePoint = b & 0x1F;
+          remaining = 1;
+          minimum = 0x80;
+        } else if ((b & 0xF0) == 0xE0) {
+          codePoint = b & 0x0F;
+          remaining = 2;
+          minimum = 0x800;
+        } else if ((b & 0xF8) == 0xF0) {
+          codePoint = b & 0x07;
+          remaining = 3;
+          minimum = 0x10000;
+        } else {
+          throw new FilterEncodingException("Invalid UTF-8 sequence at byte [" + (offset - start) + "]");
+        }
+      } else {
+        if ((b & 0xC0) != 0x80) {
+          throw new FilterEncodingException("Invalid UTF-8 sequence at byte [" + (offset - start) + "]");
+        }
+        codePoint = codePoint << 6 | b & 0x3F;
+        if (--remaining == 0) {
+          // Reject overlong encodings, surrogates and values past the last code point
+          if (codePoint < minimum || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE) || codePoint > Character.MAX_CODE_POINT) {
+            throw new FilterEncodingException("Invalid UTF-8 sequence at byte [" + (offset - start) + "]");
+          }
+          length += Character.toChars(codePoint, destination, length);
+        }
+      }
+    }
+
+    if (remaining != 0) {
+      throw new FilterEncodingException("Incomplete UTF-8 sequence at the end of the filter");
+    }
+    return length;
+  }
+
+  private static int hexValue(byte b) {
+    if (b >= '0' && b <= '9') {
+      return b - '0';
+    } else if (b >= 'A' && b <= 'F') {
+      return b - 'A' + 10;
+    } else if (b >= 'a' && b <= 'f') {
+      return b - 'a' + 10;
+    }
+    return -1;
+  }
+}
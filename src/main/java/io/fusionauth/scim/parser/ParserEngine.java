@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.parser;
+
+/**
+ * The strategy {@link SCIMFilterParser} uses to assemble the {@link io.fusionauth.scim.parser.expression.Expression} tree. Every engine produces
+ * the same tree and throws the same exceptions for a given filter.
+ *
+ * @author Spencer Witt
+ */
+public enum ParserEngine {
+  /**
+   * Operators and operands are collected into a postfix queue while the filter is scanned, and the tree is built by replaying that queue once the
+   * scan is complete
+   */
+  postfix,
+  /**
+   * Operators are applied to the operand stack as soon as their precedence allows it, so the tree is complete when the scan is complete
+   */
+  singlePass
+}
@@ -16,7 +16,10 @@
 package io.fusionauth.scim.parser;
 
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.time.DateTimeException;
+import java.time.ZonedDateTime;
 import java.util.ArrayDeque;
 import java.util.Deque;
 
@@ -24,21 +27,19 @@ import io.fusionauth.scim.parser.exception.AttributeFilterGroupingException;
 import io.fusionauth.scim.parser.exception.AttributePathException;
 import io.fusionauth.scim.parser.exception.ComparisonOperatorException;
 import io.fusionauth.scim.parser.exception.ComparisonValueException;
+import io.fusionauth.scim.parser.exception.FilterEncodingException;
+import io.fusionauth.scim.parser.exception.FilterLimitException;
 import io.fusionauth.scim.parser.exception.GroupingException;
 import io.fusionauth.scim.parser.exception.InvalidStateException;
 import io.fusionauth.scim.parser.exception.LogicalOperatorException;
 import io.fusionauth.scim.parser.expression.AttributeBooleanComparisonExpression;
 import io.fusionauth.scim.parser.expression.AttributeDateComparisonExpression;
-import io.fusionauth.scim.parser.expression.AttributeFilterGroupingExpression;
 import io.fusionauth.scim.parser.expression.AttributeNullTestExpression;
 import io.fusionauth.scim.parser.expression.AttributeNumberComparisonExpression;
 import io.fusionauth.scim.parser.expression.AttributePresentTestExpression;
 import io.fusionauth.scim.parser.expression.AttributeTextComparisonExpression;
 import io.fusionauth.scim.parser.expression.Expression;
 import io.fusionauth.scim.parser.expression.GroupingExpression;
-import io.fusionauth.scim.parser.expression.LogicalExpression;
-import io.fusionauth.scim.parser.expression.LogicalLinkExpression;
-import io.fusionauth.scim.parser.expression.LogicalNegationExpression;
 import io.fusionauth.scim.utils.SCIMDateTools;
 
 /**
@@ -49,102 +50,178 @@ import io.fusionauth.scim.utils.SCIMDateTools;
  * @see <a href="https://www.rfc-editor.org/rfc/rfc7644#section-3.4.2.2">SCIM Filtering</a>
  */
 public class SCIMFilterParser {
+  // Grouping markers carry no state, so one instance is shared by every parse
+  private static final GroupingExpression Grouping = new GroupingExpression();
+
+  private static final ThreadLocal<ParserScratch> Scratch = ThreadLocal.withInitial(ParserScratch::new);
+
+  // A percent-encoded character can use at most nine bytes, three encoded bytes of a UTF-8 sequence
+  private static final int MaximumBytesPerCharacter = 9;
+
+  private final ParserEngine engine;
+
+  private final SCIMFilterParserLimits limits;
+
+  public SCIMFilterParser() {
+    this(ParserEngine.postfix);
+  }
+
+  /**
+   * @param engine The strategy used to assemble the expression tree
+   */
+  public SCIMFilterParser(ParserEngine engine) {
+    this(engine, SCIMFilterParserLimits.Unlimited);
+  }
+
+  /**
+   * @param engine The strategy used to assemble the expression tree
+   * @param limits The resource limits to enforce on each filter
+   */
+  public SCIMFilterParser(ParserEngine engine, SCIMFilterParserLimits limits) {
+    this.engine = engine;
+    this.limits = limits;
+  }
+
   /**
    * Parse SCIM filter string into an {@link Expression} tree that can be used for matching or transformation
    *
    * @param filter The SCIM filter string
    * @return A single {@link Expression} representing the parsed filter string
    */
+  public Expression parse(String filter) {
+    return parse((CharSequence) filter);
+  }
+
+  /**
+   * Parse a UTF-8 encoded SCIM filter into an {@link Expression} tree that can be used for matching or transformation.
+   * <p>
+   * This allows a filter to be parsed straight from a request without first creating a string for it. When {@code urlEncoded} is true, the bytes
+   * are treated as a query string parameter value and {@code %XX} sequences and {@code +} are decoded at the same time as the UTF-8.
+   *
+   * @param filter     The encoded SCIM filter
+   * @param offset     The index of the first byte of the filter
+   * @param length     The number of bytes in the filter
+   * @param urlEncoded Whether the filter is percent-encoded
+   * @return A single {@link Expression} representing the parsed filter
+   * @throws FilterEncodingException If the bytes are not valid UTF-8 or contain an invalid percent-encoded sequence
+   */
+  public Expression parse(byte[] filter, int offset, int length, boolean urlEncoded) {
+    return parse(ByteBuffer.wrap(filter, offset, length), urlEncoded);
+  }
+
+  /**
+   * Parse a UTF-8 encoded SCIM filter into an {@link Expression} tree that can be used for matching or transformation.
+   * <p>
+   * The filter is read from the bytes between the position and the limit of the buffer. The position of the buffer is not changed.
+   *
+   * @param filter     The encoded SCIM filter
+   * @param urlEncoded Whether the filter is percent-encoded
+   * @return A single {@link Expression} representing the parsed filter
+   * @throws FilterEncodingException If the bytes are not valid UTF-8 or contain an invalid percent-encoded sequence
+   * @see #parse(byte[], int, int, boolean)
+   */
+  public Expression parse(ByteBuffer filter, boolean urlEncoded) {
+    // Reject input that cannot decode to an acceptable length before allocating a buffer for it. The decoded length is checked again later.
+    if ((long) filter.remaining() > (long) limits.maximumLength * MaximumBytesPerCharacter) {
+      throw new FilterLimitException("The filter length of [" + filter.remaining() + "] bytes exceeds the maximum of [" + limits.maximumLength + "] characters");
+    }
+    char[] decoded = Scratch.get().decoded(filter.remaining());
+    int length = FilterDecoder.decode(filter, filter.position(), filter.limit(), urlEncoded, decoded);
+    return parse(CharBuffer.wrap(decoded, 0, length));
+  }
+
+  /**
+   * Parse SCIM filter into an {@link Expression} tree that can be used for matching or transformation.
+   * <p>
+   * The filter is scanned in place by offset. Attribute paths and comparison values are only copied out of the filter when the expression using
+   * them is created.
+   *
+   * @param filter The SCIM filter
+   * @return A single {@link Expression} representing the parsed filter
+   */
   // The duplicated branches and code fragments were intentionally left in place to make parsing logic
   // and state transitions more clear
   @SuppressWarnings({"DuplicateBranchesInSwitch", "DuplicatedCode"})
-  public Expression parse(String filter) {
-    // Add a trailing space to ensure all tokens are parsed
-    char[] source = new char[filter.length() + 1];
-    filter.getChars(0, filter.length(), source, 0);
-    source[source.length - 1] = ' ';
+  public Expression parse(CharSequence filter) {
+    checkLimits(filter);
+    ParserScratch scratch = Scratch.get();
+    scratch.reset(engine, limits.maximumNodes);
+    Deque<Expression> operators = scratch.operators;
+    StringBuilder sb = scratch.text;
+    int length = filter.length();
     SCIMParserState state = SCIMParserState.filterStart;
     String attributePath = null;
     ComparisonOperator comparisonOperator = null;
-    Deque<Expression> postfix = new ArrayDeque<>();
-    Deque<Expression> operators = new ArrayDeque<>();
-    StringBuilder sb = new StringBuilder();
+    // The offset where the token currently being scanned started
+    int start = 0;
+    // Set once a text value contains an escape sequence. The decoded value is then accumulated in the scratch buffer.
+    boolean escaped = false;
 
-    for (int i = 0; i < source.length; i++) {
-      char c = source[i];
+    // Scan one position past the end. That position is treated as a trailing space to ensure all tokens are parsed
+    for (int i = 0; i <= length; i++) {
+      char c = i < length ? filter.charAt(i) : ' ';
       //noinspection EnhancedSwitchMigration
       switch (state) {
         case filterStart:
-          state = state.next(c);
+          state = SCIMParserTransitions.next(state, c);
           if (state == SCIMParserState.attributePath) {
-            sb.append(c);
+            start = i;
           } else if (state == SCIMParserState.openParen) {
-            operators.push(new GroupingExpression());
+            operators.push(Grouping);
           }
           break;
         case attributePath:
-          state = state.next(c);
-          if (state == SCIMParserState.attributePath) {
-            sb.append(c);
-          } else if (state == SCIMParserState.openBracket) {
-            attributePath = sb.toString();
-            if (attributePath.equals("not")) {
+          state = SCIMParserTransitions.next(state, c);
+          if (state == SCIMParserState.openBracket) {
+            if (regionEquals(filter, start, i, "not")) {
               // This was actually a logical negation which is not allowed immediately before [ ]
               throw new AttributeFilterGroupingException("Attribute filter grouping with [ ] must be preceded by an attribute path, found logical negation operator");
-            } else {
-              validateAttributePath(attributePath);
             }
-            operators.push(new AttributeFilterGroupingExpression(attributePath));
+            attributePath = slice(filter, start, i);
+            validateAttributePath(attributePath);
+            operators.push(ExpressionBuilder.attributeFilterGrouping(attributePath));
             attributePath = null;
-            sb.setLength(0);
           } else if (state == SCIMParserState.beforeOperator) {
-            attributePath = sb.toString();
-            if (attributePath.equals("not")) {
+            if (regionEquals(filter, start, i, "not")) {
               // This was actually a logical negation. Cannot know until the token is parsed
-              attributePath = null;
-              operators.push(new LogicalNegationExpression());
+              operators.push(ExpressionBuilder.logicalNegation());
               state = SCIMParserState.negationOperator;
             } else {
+              attributePath = slice(filter, start, i);
               validateAttributePath(attributePath);
             }
-            sb.setLength(0);
           }
           break;
         case beforeOperator:
-          state = state.next(c);
+          state = SCIMParserTransitions.next(state, c);
           if (state == SCIMParserState.unaryOperator ||
               state == SCIMParserState.comparisonOperator
           ) {
-            sb.append(c);
+            start = i;
           } else if (state == SCIMParserState.openBracket) {
             // The held attributePath value is actually parent attribute path for AttributeFilterGroupingExpression
-            operators.push(new AttributeFilterGroupingExpression(attributePath));
+            operators.push(ExpressionBuilder.attributeFilterGrouping(attributePath));
             attributePath = null;
           }
           break;
         case unaryOperator:
-          state = state.next(c);
+          state = SCIMParserTransitions.next(state, c);
           if (state == SCIMParserState.afterAttributeExpression) {
-            sb.append(c);
-            postfix.push(new AttributePresentTestExpression(attributePath));
+            scratch.emit(new AttributePresentTestExpression(attributePath));
             attributePath = null;
-            sb.setLength(0);
           }
           break;
         case comparisonOperator:
-          state = state.next(c);
+          state = SCIMParserTransitions.next(state, c);
           if (state == SCIMParserState.beforeComparisonValue) {
-            sb.append(c);
-            try {
-              comparisonOperator = ComparisonOperator.valueOf(sb.toString());
-              sb.setLength(0);
-            } catch (IllegalArgumentException e) {
-              throw new ComparisonOperatorException("No comparison operator for [" + sb + "]");
+            comparisonOperator = comparisonOperator(filter.charAt(start), c);
+            if (comparisonOperator == null) {
+              throw new ComparisonOperatorException("No comparison operator for [" + slice(filter, start, i + 1) + "]");
             }
           }
           break;
         case beforeComparisonValue:
-          state = state.next(c);
+          state = SCIMParserTransitions.next(state, c);
           if (state == SCIMParserState.booleanValue ||
               state == SCIMParserState.nullValue ||
               state == SCIMParserState.leadingZero ||
@@ -152,148 +229,105 @@ public class SCIMFilterParser {
               state == SCIMParserState.decimalValue ||
               state == SCIMParserState.numberValue
           ) {
-            sb.append(c);
+            start = i;
+          } else if (state == SCIMParserState.textValue) {
+            // Skip the leading "
+            start = i + 1;
+            escaped = false;
           }
-          // Skip appending for beginning of textValue. We don't need the leading "
           break;
         case booleanValue:
-          state = state.next(c);
-          if (state == SCIMParserState.booleanValue) {
-            sb.append(c);
-          } else if (state == SCIMParserState.afterAttributeExpression || state == SCIMParserState.closeParen || state == SCIMParserState.closeBracket) {
-            if (sb.toString().equals("true")) {
-              postfix.push(new AttributeBooleanComparisonExpression(attributePath, comparisonOperator, true));
-            } else if (sb.toString().equals("false")) {
-              postfix.push(new AttributeBooleanComparisonExpression(attributePath, comparisonOperator, false));
+          state = SCIMParserTransitions.next(state, c);
+          if (state == SCIMParserState.afterAttributeExpression || state == SCIMParserState.closeParen || state == SCIMParserState.closeBracket) {
+            if (regionEquals(filter, start, i, "true")) {
+              scratch.emit(new AttributeBooleanComparisonExpression(attributePath, comparisonOperator, true));
+            } else if (regionEquals(filter, start, i, "false")) {
+              scratch.emit(new AttributeBooleanComparisonExpression(attributePath, comparisonOperator, false));
             } else {
-              throw new ComparisonValueException("[" + sb + "] is not a valid comparison value");
+              throw new ComparisonValueException("[" + slice(filter, start, i) + "] is not a valid comparison value");
             }
-            sb.setLength(0);
             if (comparisonOperator != ComparisonOperator.eq && comparisonOperator != ComparisonOperator.ne) {
               throw new ComparisonOperatorException("[" + comparisonOperator + "] is not a valid operator for a boolean comparison");
             }
-            handleOptionalGroupClose(filter, i, state, operators, postfix);
+            handleOptionalGroupClose(filter, i, state, operators, scratch);
           }
           break;
         case nullValue:
-          state = state.next(c);
-          if (state == SCIMParserState.nullValue) {
-            sb.append(c);
-          } else if (state == SCIMParserState.afterAttributeExpression || state == SCIMParserState.closeParen || state == SCIMParserState.closeBracket) {
-            if (sb.toString().equals("null")) {
-              postfix.push(new AttributeNullTestExpression(attributePath, comparisonOperator));
-              sb.setLength(0);
+          state = SCIMParserTransitions.next(state, c);
+          if (state == SCIMParserState.afterAttributeExpression || state == SCIMParserState.closeParen || state == SCIMParserState.closeBracket) {
+            if (regionEquals(filter, start, i, "null")) {
+              scratch.emit(new AttributeNullTestExpression(attributePath, comparisonOperator));
             } else {
-              throw new ComparisonValueException("[" + sb + "] is not a valid comparison value");
+              throw new ComparisonValueException("[" + slice(filter, start, i) + "] is not a valid comparison value");
             }
-            handleOptionalGroupClose(filter, i, state, operators, postfix);
+            handleOptionalGroupClose(filter, i, state, operators, scratch);
           }
           if (comparisonOperator != ComparisonOperator.eq && comparisonOperator != ComparisonOperator.ne) {
             throw new ComparisonOperatorException("[" + comparisonOperator + "] is not a valid operator for a null comparison");
           }
           break;
         case minus:
-          state = state.next(c);
-          if (state == SCIMParserState.leadingZero ||
-              state == SCIMParserState.decimalValue ||
-              state == SCIMParserState.numberValue) {
-            sb.append(c);
-          }
+          state = SCIMParserTransitions.next(state, c);
           break;
         case leadingZero:
-          state = state.next(c);
-          if (state == SCIMParserState.decimalValue || state == SCIMParserState.exponentSign) {
-            sb.append(c);
-          } else if (state == SCIMParserState.afterAttributeExpression || state == SCIMParserState.closeParen || state == SCIMParserState.closeBracket) {
-            try {
-              postfix.push(new AttributeNumberComparisonExpression(attributePath, comparisonOperator, new BigDecimal(sb.toString())));
-              sb.setLength(0);
-              if (comparisonOperator == ComparisonOperator.co || comparisonOperator == ComparisonOperator.sw || comparisonOperator == ComparisonOperator.ew) {
-                throw new ComparisonOperatorException("[" + comparisonOperator + "] is not a valid operator for a number comparison");
-              }
-            } catch (NumberFormatException e) {
-              throw new ComparisonValueException("[" + sb + "] is not a valid comparison value");
-            }
-            handleOptionalGroupClose(filter, i, state, operators, postfix);
+          state = SCIMParserTransitions.next(state, c);
+          if (state == SCIMParserState.afterAttributeExpression || state == SCIMParserState.closeParen || state == SCIMParserState.closeBracket) {
+            scratch.emit(numberComparison(filter, start, i, attributePath, comparisonOperator, scratch));
+            handleOptionalGroupClose(filter, i, state, operators, scratch);
           }
           break;
         case numberValue:
-          state = state.next(c);
-          if (state == SCIMParserState.numberValue || state == SCIMParserState.decimalValue || state == SCIMParserState.exponentSign) {
-            sb.append(c);
-          } else if (state == SCIMParserState.afterAttributeExpression || state == SCIMParserState.closeParen || state == SCIMParserState.closeBracket) {
-            try {
-              postfix.push(new AttributeNumberComparisonExpression(attributePath, comparisonOperator, new BigDecimal(sb.toString())));
-              sb.setLength(0);
-              if (comparisonOperator == ComparisonOperator.co || comparisonOperator == ComparisonOperator.sw || comparisonOperator == ComparisonOperator.ew) {
-                throw new ComparisonOperatorException("[" + comparisonOperator + "] is not a valid operator for a number comparison");
-              }
-            } catch (NumberFormatException e) {
-              throw new ComparisonValueException("[" + sb + "] is not a valid comparison value");
-            }
-            handleOptionalGroupClose(filter, i, state, operators, postfix);
+          state = SCIMParserTransitions.next(state, c);
+          if (state == SCIMParserState.afterAttributeExpression || state == SCIMParserState.closeParen || state == SCIMParserState.closeBracket) {
+            scratch.emit(numberComparison(filter, start, i, attributePath, comparisonOperator, scratch));
+            handleOptionalGroupClose(filter, i, state, operators, scratch);
           }
           break;
         case decimalValue:
-          state = state.next(c);
-          if (state == SCIMParserState.decimalValue || state == SCIMParserState.exponentSign) {
-            sb.append(c);
-          } else if (state == SCIMParserState.afterAttributeExpression || state == SCIMParserState.closeParen || state == SCIMParserState.closeBracket) {
-            try {
-              postfix.push(new AttributeNumberComparisonExpression(attributePath, comparisonOperator, new BigDecimal(sb.toString())));
-              sb.setLength(0);
-              if (comparisonOperator == ComparisonOperator.co || comparisonOperator == ComparisonOperator.sw || comparisonOperator == ComparisonOperator.ew) {
-                throw new ComparisonOperatorException("[" + comparisonOperator + "] is not a valid operator for a number comparison");
-              }
-            } catch (NumberFormatException e) {
-              throw new ComparisonValueException("[" + sb + "] is not a valid comparison value");
-            }
-            handleOptionalGroupClose(filter, i, state, operators, postfix);
+          state = SCIMParserTransitions.next(state, c);
+          if (state == SCIMParserState.afterAttributeExpression || state == SCIMParserState.closeParen || state == SCIMParserState.closeBracket) {
+            scratch.emit(numberComparison(filter, start, i, attributePath, comparisonOperator, scratch));
+            handleOptionalGroupClose(filter, i, state, operators, scratch);
           }
           break;
         case exponentSign:
-          state = state.next(c);
-          if (state == SCIMParserState.exponentValue) {
-            sb.append(c);
-          }
+          state = SCIMParserTransitions.next(state, c);
           break;
         case exponentValue:
-          state = state.next(c);
-          if (state == SCIMParserState.exponentValue) {
-            sb.append(c);
-          } else if (state == SCIMParserState.afterAttributeExpression || state == SCIMParserState.closeParen || state == SCIMParserState.closeBracket) {
-            try {
-              postfix.push(new AttributeNumberComparisonExpression(attributePath, comparisonOperator, new BigDecimal(sb.toString())));
-              sb.setLength(0);
-              if (comparisonOperator == ComparisonOperator.co || comparisonOperator == ComparisonOperator.sw || comparisonOperator == ComparisonOperator.ew) {
-                throw new ComparisonOperatorException("[" + comparisonOperator + "] is not a valid operator for a number comparison");
-              }
-            } catch (NumberFormatException e) {
-              throw new ComparisonValueException("[" + sb + "] is not a valid comparison value");
-            }
-            handleOptionalGroupClose(filter, i, state, operators, postfix);
+          state = SCIMParserTransitions.next(state, c);
+          if (state == SCIMParserState.afterAttributeExpression || state == SCIMParserState.closeParen || state == SCIMParserState.closeBracket) {
+            scratch.emit(numberComparison(filter, start, i, attributePath, comparisonOperator, scratch));
+            handleOptionalGroupClose(filter, i, state, operators, scratch);
           }
           break;
         case textValue:
-          state = state.next(c);
+          state = SCIMParserTransitions.next(state, c);
           if (state == SCIMParserState.textValue) {
-            sb.append(c);
+            if (escaped) {
+              sb.append(c);
+            }
+          } else if (state == SCIMParserState.escapedText) {
+            if (!escaped) {
+              // First escape sequence in this value. Switch to accumulating the decoded value
+              sb.setLength(0);
+              sb.append(filter, start, i);
+              escaped = true;
+            }
           } else if (state == SCIMParserState.afterAttributeExpression) {
-            try {
-              // Try to parse as Date...
-              postfix.push(new AttributeDateComparisonExpression(attributePath, comparisonOperator, SCIMDateTools.parse(sb.toString())));
+            String value = escaped ? sb.toString() : slice(filter, start, i);
+            ZonedDateTime date = dateValue(value);
+            if (date != null) {
+              scratch.emit(new AttributeDateComparisonExpression(attributePath, comparisonOperator, date));
               if (comparisonOperator == ComparisonOperator.co || comparisonOperator == ComparisonOperator.sw || comparisonOperator == ComparisonOperator.ew) {
                 throw new ComparisonOperatorException("[" + comparisonOperator + "] is not a valid operator for a date comparison");
               }
-            } catch (DateTimeException e) {
-              // ...otherwise treat as text
-              postfix.push(new AttributeTextComparisonExpression(attributePath, comparisonOperator, sb.toString()));
+            } else {
+              scratch.emit(new AttributeTextComparisonExpression(attributePath, comparisonOperator, value));
             }
-            sb.setLength(0);
           }
           break;
         case escapedText:
-          state = state.next(c);
+          state = SCIMParserTransitions.next(state, c);
           if (state == SCIMParserState.textValue) {
             if (c == 't') {
               sb.append('\t');
@@ -315,72 +349,69 @@ public class SCIMFilterParser {
           }
           break;
         case afterAttributeExpression:
-          state = state.next(c);
+          state = SCIMParserTransitions.next(state, c);
           if (state == SCIMParserState.logicalOperator) {
-            sb.append(c);
+            start = i;
           } else {
-            handleOptionalGroupClose(filter, i, state, operators, postfix);
+            handleOptionalGroupClose(filter, i, state, operators, scratch);
           }
           break;
         case logicalOperator:
-          state = state.next(c);
-          if (state == SCIMParserState.logicalOperator) {
-            sb.append(c);
-          } else if (state == SCIMParserState.filterStart) {
-            try {
-              LogicalLinkExpression newLogicalExpression = new LogicalLinkExpression(LogicalOperator.valueOf(sb.toString()));
-              // hold.peek() cannot return null here because of the hold.isEmpty() check
+          state = SCIMParserTransitions.next(state, c);
+          if (state == SCIMParserState.filterStart) {
+            LogicalOperator logicalOperator = logicalOperator(filter, start, i);
+            if (logicalOperator == null) {
+              throw new LogicalOperatorException("No logical operator for [" + slice(filter, start, i) + "]");
+            }
+            ExpressionBuilder newLogicalExpression = ExpressionBuilder.logicalLink(logicalOperator);
+            // hold.peek() cannot return null here because of the hold.isEmpty() check
+            //noinspection ConstantConditions
+            if (operators.isEmpty() ||
+                operators.peek().type() == ExpressionType.grouping ||
+                operators.peek().type() == ExpressionType.attributeFilterGrouping ||
+                precedence(newLogicalExpression.logicalOperator) >= precedence(((ExpressionBuilder) operators.peek()).logicalOperator)
+            ) {
+              operators.push(newLogicalExpression);
+            } else {
+              // hold.peek() cannot return null here because of !hold.isEmpty() check
               //noinspection ConstantConditions
-              if (operators.isEmpty() ||
-                  operators.peek().type() == ExpressionType.grouping ||
-                  operators.peek().type() == ExpressionType.attributeFilterGrouping ||
-                  precedence(newLogicalExpression.logicalOperator) >= precedence(((LogicalExpression) operators.peek()).logicalOperator)
+              while (!operators.isEmpty() &&
+                     operators.peek().type() != ExpressionType.grouping &&
+                     operators.peek().type() != ExpressionType.attributeFilterGrouping &&
+                     precedence(((ExpressionBuilder) operators.peek()).logicalOperator) >= precedence(newLogicalExpression.logicalOperator)
               ) {
-                operators.push(newLogicalExpression);
-              } else {
-                // hold.peek() cannot return null here because of !hold.isEmpty() check
-                //noinspection ConstantConditions
-                while (!operators.isEmpty() &&
-                       operators.peek().type() != ExpressionType.grouping &&
-                       operators.peek().type() != ExpressionType.attributeFilterGrouping &&
-                       precedence(((LogicalExpression) operators.peek()).logicalOperator) >= precedence(newLogicalExpression.logicalOperator)
-                ) {
-                  postfix.push(operators.pop());
-                }
-                operators.push(newLogicalExpression);
+                scratch.emit(operators.pop());
               }
-              sb.setLength(0);
-            } catch (IllegalArgumentException e) {
-              throw new LogicalOperatorException("No logical operator for [" + sb + "]");
+              operators.push(newLogicalExpression);
             }
           }
           break;
         case negationOperator:
-          state = state.next(c);
+          state = SCIMParserTransitions.next(state, c);
           if (state == SCIMParserState.openParen) {
-            operators.push(new GroupingExpression());
+            operators.push(Grouping);
           }
           break;
         case openParen:
-          state = state.next(c);
+          state = SCIMParserTransitions.next(state, c);
           if (state == SCIMParserState.openParen) {
-            operators.push(new GroupingExpression());
+            operators.push(Grouping);
           } else if (state == SCIMParserState.attributePath) {
-            sb.append(c);
+            start = i;
           }
           break;
         case openBracket:
-          state = state.next(c);
+          state = SCIMParserTransitions.next(state, c);
           if (state == SCIMParserState.attributePath) {
-            sb.append(c);
+            start = i;
           } else if (state == SCIMParserState.openParen) {
-            operators.push(new GroupingExpression());
+            operators.push(Grouping);
           }
           break;
         case closeParen:
         case closeBracket:
-          state = state.next(c);
-          handleOptionalGroupClose(filter, i, state, operators, postfix);
+          state = SCIMParserTransitions.next(state, c);
+          handleOptionalGroupClose(filter, i, state, operators, scratch);
           break;
       }
 
@@ -389,49 +420,101 @@ public class SCIMFilterParser {
       }
     }
 
-    while (!operators.isEmpty()) {
-      Expression exp = operators.pop();
+    for (Expression exp : operators) {
+      // Check every remaining operator before any of them is applied, so an unclosed group is reported before an incomplete expression
       if (exp.type() == ExpressionType.grouping) {
         throw new GroupingException("Unclosed parenthesis in filter [" + filter + "]");
       } else if (exp.type() == ExpressionType.attributeFilterGrouping) {
         throw new GroupingException("Unclosed bracket in filter [" + filter + "]");
       }
-      postfix.push(exp);
+    }
+    while (!operators.isEmpty()) {
+      scratch.emit(operators.pop());
     }
 
-    Deque<Expression> result = new ArrayDeque<>();
+    Deque<Expression> postfix = scratch.postfix;
     while (!postfix.isEmpty()) {
       // Now we work through postfix expressions as a queue
       // removeLast() will take from the bottom of the stack
-      Expression exp = postfix.removeLast();
-      if (exp.type() == ExpressionType.logicalLink) {
-        // Logical link operators are processed immediately by grabbing the top two operands from the stack
-        LogicalLinkExpression linkExpression = (LogicalLinkExpression) exp;
-        linkExpression.right = result.pop();
-        linkExpression.left = result.pop();
-        // After it has its left and right populated, the LogicalLinkExpression is just another operand
-        result.push(linkExpression);
-      } else if (exp.type() == ExpressionType.logicalNegation) {
-        // Logical negation operators are processed immediately by grabbing the top operand from the stack
-        LogicalNegationExpression negationExpression = (LogicalNegationExpression) exp;
-        negationExpression.subExpression = result.pop();
-        // After its sub-expression is populated, add it to the operand stack
-        result.push(negationExpression);
-      } else if (exp.type() == ExpressionType.attributeFilterGrouping) {
-        // Complex attribute filter grouping is processed by grabbing the top operand from the stack
-        AttributeFilterGroupingExpression groupingExpression = (AttributeFilterGroupingExpression) exp;
-        groupingExpression.filterExpression = result.pop();
-        result.push(groupingExpression);
-      } else {
-        // Operands are pushed to a stack
-        result.push(exp);
-      }
+      scratch.reduce(postfix.removeLast());
     }
+
+    Deque<Expression> result = scratch.result;
     assert result.size() == 1;
 
     return result.pop();
   }
 
+  /**
+   * Pre-scan the filter for the limits that can be checked without parsing it, so an oversized filter is rejected before any expression is
+   * created. Quoted values are skipped when counting group depth, since they may contain any character.
+   *
+   * @param filter The SCIM filter
+   */
+  private void checkLimits(CharSequence filter) {
+    int length = filter.length();
+    if (length > limits.maximumLength) {
+      throw new FilterLimitException("The filter length of [" + length + "] characters exceeds the maximum of [" + limits.maximumLength + "]");
+    }
+    if (limits.maximumDepth == Integer.MAX_VALUE && limits.maximumLiteralLength == Integer.MAX_VALUE) {
+      return;
+    }
+
+    int depth = 0;
+    for (int i = 0; i < length; i++) {
+      char c = filter.charAt(i);
+      if (c == '(' || c == '[') {
+        if (++depth > limits.maximumDepth) {
+          throw new FilterLimitException("The filter nesting exceeds the maximum depth of [" + limits.maximumDepth + "] at [" + filterAtParsedLocation(filter, i) + "]");
+        }
+      } else if (c == ')' || c == ']') {
+        // Unbalanced groups are reported by the parser
+        depth = Math.max(0, depth - 1);
+      } else if (c == '"') {
+        int start = i + 1;
+        // Find the closing quote, skipping escaped characters
+        for (i = start; i < length && filter.charAt(i) != '"'; i++) {
+          if (filter.charAt(i) == '\\') {
+            i++;
+          }
+        }
+        checkLiteralLength(filter, start, Math.min(i, length));
+      }
+    }
+  }
+
+  /**
+   * Check that a comparison value is within the configured limit
+   *
+   * @param filter The SCIM filter
+   * @param start  The start offset of the value, inclusive
+   * @param end    The end offset of the value, exclusive
+   */
+  private void checkLiteralLength(CharSequence filter, int start, int end) {
+    if (end - start > limits.maximumLiteralLength) {
+      throw new FilterLimitException("The comparison value starting at [" + filterAtParsedLocation(filter, start) + "] exceeds the maximum length of ["
+          + limits.maximumLiteralLength + "]");
+    }
+  }
+
+  /**
+   * Parse a text comparison value as a date if it is one. Most text values do not have the shape of a date-time, so they are rejected without
+   * attempting a parse that would throw.
+   *
+   * @param value The text comparison value
+   * @return The date, or {@code null} if the value should be treated as text
+   */
+  private ZonedDateTime dateValue(String value) {
+    if (!SCIMDateTools.isDateTimeCandidate(value)) {
+      return null;
+    }
+    try {
+      return SCIMDateTools.parse(value);
+    } catch (DateTimeException e) {
+      return null;
+    }
+  }
+
   /**
    * Helper to display SCIM filter substring at the parsed location
    *
@@ -439,47 +522,47 @@ public class SCIMFilterParser {
    * @param parseIndex Current character index in filter parsing
    * @return A substring of the filter that stops at the current character being parsed
    */
-  private String filterAtParsedLocation(String filter, int parseIndex) {
-    return filter.substring(0, Math.min(parseIndex + 1, filter.length()));
+  private String filterAtParsedLocation(CharSequence filter, int parseIndex) {
+    return slice(filter, 0, Math.min(parseIndex + 1, filter.length()));
   }
 
   /**
-   * Handle a closing square bracket by moving operators to the postfix expression
+   * Handle a closing square bracket by emitting operators
    * until the matching opening square bracket is found.
    *
    * @param filter     The SCIM filter string
    * @param parseIndex Current character index in filter parsing
    * @param operators  A stack containing operators encountered while parsing the filter
-   * @param postfix    A work in progress stack for building a postfix representation of the filter
+   * @param scratch    The working state for the current parse that receives the operators
    */
-  private void handleCloseBracket(String filter, int parseIndex, Deque<Expression> operators, Deque<Expression> postfix) {
+  private void handleCloseBracket(CharSequence filter, int parseIndex, Deque<Expression> operators, ParserScratch scratch) {
     while (!operators.isEmpty() &&
            operators.peek().type() != ExpressionType.attributeFilterGrouping
     ) {
-      postfix.push(operators.pop());
+      scratch.emit(operators.pop());
     }
     if (operators.isEmpty() || operators.peek().type() != ExpressionType.attributeFilterGrouping) {
       throw new GroupingException("Extra closed bracket at [" + filterAtParsedLocation(filter, parseIndex) + "]");
     } else {
-      // Remove the AttributeFilterGroupingExpression from operators stack and add to postfix stack
-      postfix.push(operators.pop());
+      // Remove the AttributeFilterGroupingExpression from operators stack and emit it for the bracketed filter
+      scratch.emit(operators.pop());
     }
   }
 
   /**
-   * Handle a closing parenthesis by moving operators to the postfix expression
+   * Handle a closing parenthesis by emitting operators
    * until the matching opening parenthesis is found.
    *
    * @param filter     The SCIM filter string
    * @param parseIndex Current character index in filter parsing
    * @param operators  A stack containing operators encountered while parsing the filter
-   * @param postfix    A work in progress stack for building a postfix representation of the filter
+   * @param scratch    The working state for the current parse that receives the operators
    */
-  private void handleCloseParen(String filter, int parseIndex, Deque<Expression> operators, Deque<Expression> postfix) {
+  private void handleCloseParen(CharSequence filter, int parseIndex, Deque<Expression> operators, ParserScratch scratch) {
     while (!operators.isEmpty() &&
            operators.peek().type() != ExpressionType.grouping
     ) {
-      postfix.push(operators.pop());
+      scratch.emit(operators.pop());
     }
     if (operators.isEmpty() || operators.peek().type() != ExpressionType.grouping) {
       throw new GroupingException("Extra closed parenthesis at [" + filterAtParsedLocation(filter, parseIndex) + "]");
@@ -500,14 +583,82 @@ public class SCIMFilterParser {
    * @param parseIndex Current character index in filter parsing
    * @param state      The current state of the parser
    * @param operators  A stack containing operators encountered while parsing the filter
-   * @param postfix    A work in progress stack for building a postfix representation of the filter
+   * @param scratch    The working state for the current parse that receives the operators
    */
-  private void handleOptionalGroupClose(String filter, int parseIndex, SCIMParserState state, Deque<Expression> operators,
-                                        Deque<Expression> postfix) {
+  private void handleOptionalGroupClose(CharSequence filter, int parseIndex, SCIMParserState state, Deque<Expression> operators,
+                                        ParserScratch scratch) {
     if (state == SCIMParserState.closeParen) {
-      handleCloseParen(filter, parseIndex, operators, postfix);
+      handleCloseParen(filter, parseIndex, operators, scratch);
     } else if (state == SCIMParserState.closeBracket) {
-      handleCloseBracket(filter, parseIndex, operators, postfix);
+      handleCloseBracket(filter, parseIndex, operators, scratch);
+    }
+  }
+
+  /**
+   * Resolve a two character comparison operator without creating a string
+   *
+   * @param first  The first character of the operator
+   * @param second The second character of the operator
+   * @return The comparison operator, or {@code null} if the characters do not form a comparison operator
+   */
+  private ComparisonOperator comparisonOperator(char first, char second) {
+    return switch (first) {
+      case 'e' -> second == 'q' ? ComparisonOperator.eq : second == 'w' ? ComparisonOperator.ew : null;
+      case 'n' -> second == 'e' ? ComparisonOperator.ne : null;
+      case 'c' -> second == 'o' ? ComparisonOperator.co : null;
+      case 's' -> second == 'w' ? ComparisonOperator.sw : null;
+      case 'g' -> second == 't' ? ComparisonOperator.gt : second == 'e' ? ComparisonOperator.ge : null;
+      case 'l' -> second == 't' ? ComparisonOperator.lt : second == 'e' ? ComparisonOperator.le : null;
+      case 'p' -> second == 'r' ? ComparisonOperator.pr : null;
+      default -> null;
+    };
+  }
+
+  /**
+   * Resolve a logical link operator from a region of the filter without creating a string
+   *
+   * @param filter The SCIM filter
+   * @param start  The start offset of the operator, inclusive
+   * @param end    The end offset of the operator, exclusive
+   * @return The logical operator, or {@code null} if the region is not a logical link operator
+   */
+  private LogicalOperator logicalOperator(CharSequence filter, int start, int end) {
+    if (regionEquals(filter, start, end, "and")) {
+      return LogicalOperator.and;
+    } else if (regionEquals(filter, start, end, "or")) {
+      return LogicalOperator.or;
+    }
+    return null;
+  }
+
+  /**
+   * Create a number comparison from a region of the filter
+   *
+   * @param filter             The SCIM filter
+   * @param start              The start offset of the number, inclusive
+   * @param end                The end offset of the number, exclusive
+   * @param attributePath      The attribute path for the comparison
+   * @param comparisonOperator The comparison operator
+   * @param scratch            The working state for the current parse
+   * @return The number comparison expression
+   */
+  private AttributeNumberComparisonExpression numberComparison(CharSequence filter, int start, int end, String attributePath,
+                                                               ComparisonOperator comparisonOperator, ParserScratch scratch) {
+    // Converting a very long number is not linear, so the limit is checked first
+    checkLiteralLength(filter, start, end);
+    // BigDecimal reads from a char[] directly, copying the number there avoids creating an intermediate string
+    char[] number = scratch.number(end - start);
+    for (int i = start; i < end; i++) {
+      number[i - start] = filter.charAt(i);
+    }
+    try {
+      AttributeNumberComparisonExpression expression = new AttributeNumberComparisonExpression(attributePath, comparisonOperator, new BigDecimal(number, 0, end - start));
+      if (comparisonOperator == ComparisonOperator.co || comparisonOperator == ComparisonOperator.sw || comparisonOperator == ComparisonOperator.ew) {
+        throw new ComparisonOperatorException("[" + comparisonOperator + "] is not a valid operator for a number comparison");
+      }
+      return expression;
+    } catch (NumberFormatException e) {
+      throw new ComparisonValueException("[" + slice(filter, start, end) + "] is not a valid comparison value");
     }
   }
 
@@ -525,29 +676,155 @@ public class SCIMFilterParser {
     };
   }
 
+  /**
+   * Check if a region of the filter is equal to the given literal without creating a string
+   *
+   * @param filter  The SCIM filter
+   * @param start   The start offset of the region, inclusive
+   * @param end     The end offset of the region, exclusive
+   * @param literal The literal to compare to
+   * @return true if the region is equal to the literal
+   */
+  private boolean regionEquals(CharSequence filter, int start, int end, String literal) {
+    if (end - start != literal.length()) {
+      return false;
+    }
+    for (int i = 0; i < literal.length(); i++) {
+      if (filter.charAt(start + i) != literal.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Copy a region of the filter into a string
+   *
+   * @param filter The SCIM filter
+   * @param start  The start offset of the region, inclusive
+   * @param end    The end offset of the region, exclusive
+   * @return The region as a string
+   */
+  private String slice(CharSequence filter, int start, int end) {
+    return filter.subSequence(start, end).toString();
+  }
+
   /**
    * Validate an attribute path's optional sub-attribute
    *
    * @param attributePath The attribute path to validate
    */
   private void validateAttributePath(String attributePath) {
-    int lastColon = attributePath.lastIndexOf(':');
-    String lastSegment = lastColon != -1 ? attributePath.substring(lastColon) : attributePath;
-    if (lastSegment.chars().filter(c -> c == '.').count() > 1) {
+    String subAttribute = AttributePath.of(attributePath).subAttribute;
+    if (subAttribute == null) {
+      return;
+    }
+    if (subAttribute.indexOf('.') != -1) {
       // Last segment can have at most one period
       throw new AttributePathException("The attribute path [" + attributePath + "] is not valid. Attribute paths can have at most one sub-attribute.");
     }
-    int lastPeriod = attributePath.lastIndexOf('.');
-    if (lastPeriod > lastColon) {
-      // A period after the last colon (or absent a colon) indicates the period is the start of a sub-attribute
-      if (attributePath.length() == lastPeriod + 1) {
-        // Cannot end with a period
-        throw new AttributePathException("The attribute path [" + attributePath + "] is not valid. A sub-attribute must be provided after the period.");
+    if (subAttribute.isEmpty()) {
+      // Cannot end with a period
+      throw new AttributePathException("The attribute path [" + attributePath + "] is not valid. A sub-attribute must be provided after the period.");
+    }
+    if (!Character.isAlphabetic(subAttribute.codePointAt(0))) {
+      // A sub-attribute must start with a letter
+      throw new AttributePathException("The attribute path [" + attributePath + "] is not valid. A sub-attribute must start with an alphabetic character.");
+    }
+  }
+
+  /**
+   * Working state for a single parse that is reused by each thread to avoid allocating it on every call
+   */
+  private static class ParserScratch {
+    // Larger buffers are released after use so a single large filter does not pin memory for the lifetime of the thread
+    private static final int MaximumRetainedText = 1024;
+
+    Deque<Expression> operators = new ArrayDeque<>();
+
+    Deque<Expression> postfix = new ArrayDeque<>();
+
+    Deque<Expression> result = new ArrayDeque<>();
+
+    StringBuilder text = new StringBuilder();
+
+    private char[] decoded = new char[256];
+
+    private char[] number = new char[32];
+
+    private int maximumNodes;
+
+    private int nodes;
+
+    private boolean singlePass;
+
+    /**
+     * Hand a completed operand or an operator whose operands are complete to the engine. The postfix engine queues it to be replayed once the scan
+     * is complete, the single pass engine applies it to the operand stack immediately. Either way, expressions are reduced in the same order, so
+     * both engines build the same tree.
+     *
+     * @param exp The operand or operator
+     */
+    void emit(Expression exp) {
+      if (++nodes > maximumNodes) {
+        throw new FilterLimitException("The filter exceeds the maximum of [" + maximumNodes + "] expressions");
+      }
+      if (singlePass) {
+        reduce(exp);
       } else {
-        // A sub-attribute must start with a letter
-        if (!Character.isAlphabetic(attributePath.codePointAt(lastPeriod + 1))) {
-          throw new AttributePathException("The attribute path [" + attributePath + "] is not valid. A sub-attribute must start with an alphabetic character.");
-        }
+        postfix.push(exp);
+      }
+    }
+
+    char[] decoded(int length) {
+      if (decoded.length < length) {
+        decoded = new char[length];
+      }
+      return decoded;
+    }
+
+    char[] number(int length) {
+      if (number.length < length) {
+        number = new char[length];
+      }
+      return number;
+    }
+
+    /**
+     * Apply an expression to the operand stack
+     *
+     * @param exp The operand or operator
+     */
+    void reduce(Expression exp) {
+      if (exp instanceof ExpressionBuilder builder) {
+        // Logical link, logical negation and complex attribute filter grouping operators are processed immediately by grabbing their operands
+        // from the top of the stack. After it is built, the expression is just another operand.
+        result.push(builder.build(result));
+      } else {
+        // Operands are pushed to a stack
+        result.push(exp);
+      }
+    }
+
+    void reset(ParserEngine engine, int maximumNodes) {
+      singlePass = engine == ParserEngine.singlePass;
+      this.maximumNodes = maximumNodes;
+      nodes = 0;
+      // A previous parse may have thrown part way through
+      operators.clear();
+      postfix.clear();
+      result.clear();
+      if (text.capacity() > MaximumRetainedText) {
+        text = new StringBuilder();
+      } else {
+        text.setLength(0);
+      }
+      if (number.length > MaximumRetainedText) {
+        number = new char[32];
+      }
+      // A filter decoded into a larger buffer still holds a reference to it while it is parsed, so it is safe to release here
+      if (decoded.length > MaximumRetainedText) {
+        decoded = new char[256];
       }
     }
   }
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.parser;
+
+import io.fusionauth.scim.utils.ToString;
+
+/**
+ * Resource limits that {@link SCIMFilterParser} enforces on each filter, so that a single filter cannot use an unbounded amount of CPU or stack.
+ * <p>
+ * The length, depth and quoted literal limits are checked by a pre-scan of the filter before any expression is created. The node and number
+ * limits are checked while the filter is parsed.
+ *
+ * @author Spencer Witt
+ */
+public class SCIMFilterParserLimits {
+  /**
+   * Limits suitable for filters provided by a client on a list request
+   */
+  public static final SCIMFilterParserLimits Recommended = new SCIMFilterParserLimits(4_096, 32, 256, 1_024);
+
+  /**
+   * No limits, this is the default for {@link SCIMFilterParser}
+   */
+  public static final SCIMFilterParserLimits Unlimited = new SCIMFilterParserLimits(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE,
+      Integer.MAX_VALUE);
+
+  /**
+   * The maximum nesting of parenthesis and square bracket groups
+   */
+  public final int maximumDepth;
+
+  /**
+   * The maximum number of characters in the filter
+   */
+  public final int maximumLength;
+
+  /**
+   * The maximum number of characters in a single comparison value. For text values this is the length between the quotes, before escape
+   * sequences are decoded.
+   */
+  public final int maximumLiteralLength;
+
+  /**
+   * The maximum number of expressions in the parsed tree. Because a chain of logical operators nests one level deeper for each operator, this
+   * also bounds the depth of the tree that later recursive processing has to walk.
+   */
+  public final int maximumNodes;
+
+  /**
+   * @param maximumLength        The maximum number of characters in the filter
+   * @param maximumDepth         The maximum nesting of parenthesis and square bracket groups
+   * @param maximumNodes         The maximum number of expressions in the parsed tree
+   * @param maximumLiteralLength The maximum number of characters in a single comparison value
+   */
+  public SCIMFilterParserLimits(int maximumLength, int maximumDepth, int maximumNodes, int maximumLiteralLength) {
+    if (maximumLength < 1 || maximumDepth < 0 || maximumNodes < 1 || maximumLiteralLength < 0) {
+      throw new IllegalArgumentException("The maximum length and number of nodes must be greater than zero, and the maximum depth and literal "
+          + "length must not be negative");
+    }
+    this.maximumLength = maximumLength;
+    this.maximumDepth = maximumDepth;
+    this.maximumNodes = maximumNodes;
+    this.maximumLiteralLength = maximumLiteralLength;
+  }
+
+  @Override
+  public String toString() {
+    return ToString.toString(this);
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A compiled transition table for {@link SCIMParserState}.
+ * <p>
+ * The table is built once by evaluating {@link SCIMParserState#next(char)} for every state and every ASCII character, so it always describes the
+ * same grammar as the state definitions. ASCII characters that cause the same transition from every state share a character class, which keeps
+ * the table small. Characters outside of ASCII fall back to {@link SCIMParserState#next(char)}.
+ *
+ * @author Spencer Witt
+ */
+final class SCIMParserTransitions {
+  private static final byte[] CharacterClasses = new byte[128];
+
+  private static final int ClassCount;
+
+  private static final SCIMParserState[] States = SCIMParserState.values();
+
+  private static final byte[] Table;
+
+  private SCIMParserTransitions() {
+  }
+
+  /**
+   * Return the next state of the parser based on the current state and next character
+   *
+   * @param state the current state of the parser
+   * @param c     the next character in the SCIM filter string
+   * @return the next state of the parser
+   */
+  static SCIMParserState next(SCIMParserState state, char c) {
+    if (c < 128) {
+      return States[Table[state.ordinal() * ClassCount + CharacterClasses[c]]];
+    }
+
+    // Non-ASCII characters are only valid in attribute paths (alphabetic or digit) and text values
+    return state.next(c);
+  }
+
+  static {
+    // Each column holds the next state ordinal from every state for a single character
+    List<byte[]> columns = new ArrayList<>();
+    for (char c = 0; c < 128; c++) {
+      byte[] column = new byte[States.length];
+      for (SCIMParserState state : States) {
+        column[state.ordinal()] = (byte) state.next(c).ordinal();
+      }
+
+      int characterClass = -1;
+      for (int i = 0; i < columns.size(); i++) {
+        if (Arrays.equals(columns.get(i), column)) {
+          characterClass = i;
+          break;
+        }
+      }
+      if (characterClass == -1) {
+        characterClass = columns.size();
+        columns.add(column);
+      }
+      CharacterClasses[c] = (byte) characterClass;
+    }
+
+    ClassCount = columns.size();
+    Table = new byte[States.length * ClassCount];
+    for (int characterClass = 0; characterClass < ClassCount; characterClass++) {
+      byte[] column = columns.get(characterClass);
+      for (int state = 0; state < States.length; state++) {
+        Table[state * ClassCount + characterClass] = column[state];
+      }
+    }
+  }
+}
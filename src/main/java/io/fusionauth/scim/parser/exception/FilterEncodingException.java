@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.parser.exception;
+
+/**
+ * An exception thrown when a SCIM filter provided as bytes is not valid UTF-8 or contains an invalid percent-encoded sequence
+ *
+ * @author Spencer Witt
+ */
+public class FilterEncodingException extends SCIMParserException {
+  public FilterEncodingException(String message) {
+    super(message);
+  }
+}
@@ -32,16 +32,20 @@ public class AttributeBooleanComparisonExpression extends AttributeComparisonExp
   /**
    * The boolean value the attribute will be compared to
    */
-  public Boolean comparisonValue;
+  public final Boolean comparisonValue;
+
+  private final int hashCode;
 
   public AttributeBooleanComparisonExpression(String attributePath, ComparisonOperator operator, Boolean comparisonValue) {
     super(attributePath, operator);
     this.comparisonValue = comparisonValue;
+    this.hashCode = Objects.hash(super.hashCode(), comparisonValue);
   }
 
   public AttributeBooleanComparisonExpression(AttributeBooleanComparisonExpression other) {
     super(other.attributePath, other.operator);
     this.comparisonValue = other.comparisonValue;
+    this.hashCode = other.hashCode;
   }
 
   @Override
@@ -66,7 +70,7 @@ public class AttributeBooleanComparisonExpression extends AttributeComparisonExp
 
   @Override
   public int hashCode() {
-    return Objects.hash(super.hashCode(), comparisonValue);
+    return hashCode;
   }
 
   @Override
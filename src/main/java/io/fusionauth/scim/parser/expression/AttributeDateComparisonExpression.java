@@ -33,16 +33,20 @@ public class AttributeDateComparisonExpression extends AttributeComparisonExpres
   /**
    * The date value the attribute will be compared to
    */
-  public ZonedDateTime comparisonValue;
+  public final ZonedDateTime comparisonValue;
+
+  private final int hashCode;
 
   public AttributeDateComparisonExpression(String attributePath, ComparisonOperator operator, ZonedDateTime comparisonValue) {
     super(attributePath, operator);
     this.comparisonValue = comparisonValue;
+    this.hashCode = Objects.hash(super.hashCode(), comparisonValue);
   }
 
   public AttributeDateComparisonExpression(AttributeDateComparisonExpression other) {
     super(other.attributePath, other.operator);
     this.comparisonValue = other.comparisonValue;
+    this.hashCode = other.hashCode;
   }
 
   @Override
@@ -72,7 +76,7 @@ public class AttributeDateComparisonExpression extends AttributeComparisonExpres
 
   @Override
   public int hashCode() {
-    return Objects.hash(super.hashCode(), comparisonValue);
+    return hashCode;
   }
 
   @Override
@@ -18,6 +18,8 @@ package io.fusionauth.scim.parser.expression;
 
 import java.util.Objects;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.fusionauth.scim.parser.AttributePath;
 import io.fusionauth.scim.parser.ComparisonOperator;
 import io.fusionauth.scim.parser.ExpressionType;
 import io.fusionauth.scim.parser.ValueType;
@@ -32,16 +34,27 @@ public abstract class AttributeExpression<T> extends Expression implements Copya
   /**
    * Path to the attribute to compare
    */
-  public String attributePath;
+  public final String attributePath;
+
+  /**
+   * The parsed {@link #attributePath}, including a precompiled pointer to the attribute. This is derived from {@link #attributePath}, so it is not
+   * serialized.
+   */
+  @JsonIgnore
+  public final AttributePath path;
 
   /**
    * The operator indicating which comparison or check should be performed
    */
-  public ComparisonOperator operator;
+  public final ComparisonOperator operator;
+
+  private final int hashCode;
 
   public AttributeExpression(String attributePath, ComparisonOperator operator) {
     this.attributePath = attributePath;
+    this.path = AttributePath.of(attributePath);
     this.operator = operator;
+    this.hashCode = Objects.hash(attributePath, operator);
   }
 
   @Override
@@ -58,7 +71,7 @@ public abstract class AttributeExpression<T> extends Expression implements Copya
 
   @Override
   public int hashCode() {
-    return Objects.hash(attributePath, operator);
+    return hashCode;
   }
 
   @Override
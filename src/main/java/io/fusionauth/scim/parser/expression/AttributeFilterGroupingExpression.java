@@ -30,20 +30,19 @@ public class AttributeFilterGroupingExpression extends Expression {
   /**
    * Sub-expressions for this grouping
    */
-  public Expression filterExpression;
+  public final Expression filterExpression;
 
   /**
    * The attribute path that all filters contained in {@link AttributeFilterGroupingExpression#filterExpression} will extend from
    */
-  public String parentAttributePath;
+  public final String parentAttributePath;
 
-  public AttributeFilterGroupingExpression(String parentAttributePath) {
-    this.parentAttributePath = parentAttributePath;
-  }
+  private final int hashCode;
 
   public AttributeFilterGroupingExpression(String parentAttributePath, Expression filterExpression) {
     this.filterExpression = filterExpression;
     this.parentAttributePath = parentAttributePath;
+    this.hashCode = Objects.hash(filterExpression, parentAttributePath);
   }
 
   @Override
@@ -55,12 +54,16 @@ public class AttributeFilterGroupingExpression extends Expression {
       return false;
     }
     AttributeFilterGroupingExpression that = (AttributeFilterGroupingExpression) o;
+    // Cheap rejection before walking the sub-tree
+    if (hashCode != that.hashCode) {
+      return false;
+    }
     return Objects.equals(filterExpression, that.filterExpression) && Objects.equals(parentAttributePath, that.parentAttributePath);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(filterExpression, parentAttributePath);
+    return hashCode;
   }
 
   @Override
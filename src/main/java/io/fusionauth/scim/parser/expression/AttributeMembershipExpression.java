@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.parser.expression;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.fusionauth.scim.parser.AttributePath;
+import io.fusionauth.scim.parser.ExpressionType;
+import io.fusionauth.scim.utils.ToString;
+
+/**
+ * An expression checking that an attribute's value is equal to one of a set of text values (e.g. {@code A eq "a" or A eq "b"}). This is not part
+ * of the SCIM filter grammar, it is created by combining {@code eq} comparisons of the same attribute, so that the value can be checked with a
+ * single hash lookup rather than one comparison per value.
+ *
+ * @author Spencer Witt
+ */
+public class AttributeMembershipExpression extends Expression {
+  /**
+   * Path to the attribute to compare
+   */
+  public final String attributePath;
+
+  /**
+   * The parsed {@link #attributePath}, including a precompiled pointer to the attribute. This is derived from {@link #attributePath}, so it is not
+   * serialized.
+   */
+  @JsonIgnore
+  public final AttributePath path;
+
+  /**
+   * The values the attribute is compared to, in filter order
+   */
+  public final Set<String> values;
+
+  private final int hashCode;
+
+  public AttributeMembershipExpression(String attributePath, Collection<String> values) {
+    this.attributePath = attributePath;
+    this.path = AttributePath.of(attributePath);
+    this.values = Collections.unmodifiableSet(new LinkedHashSet<>(values));
+    this.hashCode = Objects.hash(attributePath, this.values);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    AttributeMembershipExpression that = (AttributeMembershipExpression) o;
+    return hashCode == that.hashCode && attributePath.equals(that.attributePath) && values.equals(that.values);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return ToString.toString(this);
+  }
+
+  @Override
+  public ExpressionType type() {
+    return ExpressionType.attributeMembership;
+  }
+}
@@ -32,16 +32,20 @@ public class AttributeNumberComparisonExpression extends AttributeComparisonExpr
   /**
    * The numeric value the attribute will be compared to
    */
-  public BigDecimal comparisonValue;
+  public final BigDecimal comparisonValue;
+
+  private final int hashCode;
 
   public AttributeNumberComparisonExpression(String attributePath, ComparisonOperator operator, BigDecimal comparisonValue) {
     super(attributePath, operator);
     this.comparisonValue = comparisonValue;
+    this.hashCode = Objects.hash(super.hashCode(), comparisonValue);
   }
 
   public AttributeNumberComparisonExpression(AttributeNumberComparisonExpression other) {
     super(other.attributePath, other.operator);
     this.comparisonValue = other.comparisonValue;
+    this.hashCode = other.hashCode;
   }
 
   @Override
@@ -66,7 +70,7 @@ public class AttributeNumberComparisonExpression extends AttributeComparisonExpr
 
   @Override
   public int hashCode() {
-    return Objects.hash(super.hashCode(), comparisonValue);
+    return hashCode;
   }
 
   @Override
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.parser.expression;
+
+import java.util.Objects;
+
+import io.fusionauth.scim.parser.ComparisonOperator;
+import io.fusionauth.scim.parser.ExpressionType;
+import io.fusionauth.scim.parser.ValueType;
+import io.fusionauth.scim.utils.ToString;
+
+/**
+ * An expression checking that an attribute's value falls between a lower and an upper bound (e.g. {@code A gt 5 and A le 10}). This is not part
+ * of the SCIM filter grammar, it is created by combining a pair of comparisons on the same attribute.
+ *
+ * @author Spencer Witt
+ */
+public class AttributeRangeExpression extends Expression {
+  /**
+   * Path to the attribute to compare
+   */
+  public final String attributePath;
+
+  /**
+   * The lower bound, using the {@link ComparisonOperator#gt} or {@link ComparisonOperator#ge} operator
+   */
+  public final AttributeComparisonExpression<?, ?> lower;
+
+  /**
+   * The upper bound, using the {@link ComparisonOperator#lt} or {@link ComparisonOperator#le} operator
+   */
+  public final AttributeComparisonExpression<?, ?> upper;
+
+  private final int hashCode;
+
+  public AttributeRangeExpression(AttributeComparisonExpression<?, ?> lower, AttributeComparisonExpression<?, ?> upper) {
+    if (lower.operator != ComparisonOperator.gt && lower.operator != ComparisonOperator.ge) {
+      throw new IllegalArgumentException("The lower bound of a range must use the [gt] or [ge] operator");
+    }
+    if (upper.operator != ComparisonOperator.lt && upper.operator != ComparisonOperator.le) {
+      throw new IllegalArgumentException("The upper bound of a range must use the [lt] or [le] operator");
+    }
+    if (!lower.attributePath.equals(upper.attributePath) || lower.valueType() != upper.valueType()) {
+      throw new IllegalArgumentException("The bounds of a range must compare the same attribute to the same type of value");
+    }
+    this.attributePath = lower.attributePath;
+    this.lower = lower;
+    this.upper = upper;
+    this.hashCode = Objects.hash(lower, upper);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    AttributeRangeExpression that = (AttributeRangeExpression) o;
+    return hashCode == that.hashCode && lower.equals(that.lower) && upper.equals(that.upper);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return ToString.toString(this);
+  }
+
+  @Override
+  public ExpressionType type() {
+    return ExpressionType.attributeRange;
+  }
+
+  /**
+   * The type of the comparison values for this expression
+   *
+   * @return The comparison values' type
+   */
+  public ValueType valueType() {
+    return lower.valueType();
+  }
+}
@@ -31,16 +31,20 @@ public class AttributeTextComparisonExpression extends AttributeComparisonExpres
   /**
    * The string value the attribute will be compared to
    */
-  public String comparisonValue;
+  public final String comparisonValue;
+
+  private final int hashCode;
 
   public AttributeTextComparisonExpression(String attributePath, ComparisonOperator operator, String comparisonValue) {
     super(attributePath, operator);
     this.comparisonValue = comparisonValue;
+    this.hashCode = Objects.hash(super.hashCode(), comparisonValue);
   }
 
   public AttributeTextComparisonExpression(AttributeTextComparisonExpression other) {
     super(other.attributePath, other.operator);
     this.comparisonValue = other.comparisonValue;
+    this.hashCode = other.hashCode;
   }
 
   @Override
@@ -65,7 +69,7 @@ public class AttributeTextComparisonExpression extends AttributeComparisonExpres
 
   @Override
   public int hashCode() {
-    return Objects.hash(super.hashCode(), comparisonValue);
+    return hashCode;
   }
 
   @Override
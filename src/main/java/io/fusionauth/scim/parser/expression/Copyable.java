@@ -17,6 +17,9 @@
 package io.fusionauth.scim.parser.expression;
 
 /**
+ * Expressions are immutable, so a copy is never required to share an expression between threads. This remains for callers that want a distinct
+ * instance.
+ *
  * @param <T>
  * @author Daniel DeGroff
  */
@@ -19,7 +19,10 @@ package io.fusionauth.scim.parser.expression;
 import io.fusionauth.scim.parser.ExpressionType;
 
 /**
- * A generic filtering expression
+ * A generic filtering expression.
+ * <p>
+ * Expressions are immutable once constructed, so a parsed tree can be cached and shared between threads without copying. Sub-classes precompute
+ * their hash code at construction time.
  *
  * @author Spencer Witt
  */
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.parser.expression;
+
+import java.util.List;
+import java.util.Objects;
+
+import io.fusionauth.scim.parser.ExpressionType;
+import io.fusionauth.scim.parser.LogicalOperator;
+import io.fusionauth.scim.utils.ToString;
+
+/**
+ * An expression linking any number of sub-expressions with the same logical operator (e.g. {@code A or B or C}). This is the flattened form of a
+ * chain of {@link LogicalLinkExpression}s, so it can be evaluated and transformed with a loop rather than by recursing once per operator.
+ *
+ * @author Spencer Witt
+ */
+public class LogicalChainExpression extends LogicalExpression {
+  /**
+   * The sub-expressions for the logical operator, in filter order. There are always at least two.
+   */
+  public final List<Expression> operands;
+
+  private final int hashCode;
+
+  public LogicalChainExpression(LogicalOperator logicalOperator, List<Expression> operands) {
+    super(logicalOperator);
+    if (logicalOperator == LogicalOperator.not) {
+      throw new IllegalArgumentException("A logical chain requires the [and] or [or] operator");
+    }
+    if (operands.size() < 2) {
+      throw new IllegalArgumentException("A logical chain requires at least two operands");
+    }
+    this.operands = List.copyOf(operands);
+    this.hashCode = Objects.hash(super.hashCode(), this.operands);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    if (!super.equals(o)) {
+      return false;
+    }
+    LogicalChainExpression that = (LogicalChainExpression) o;
+    // Cheap rejection before walking the sub-trees
+    if (hashCode != that.hashCode) {
+      return false;
+    }
+    return operands.equals(that.operands);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return ToString.toString(this);
+  }
+
+  @Override
+  public ExpressionType type() {
+    return ExpressionType.logicalChain;
+  }
+}
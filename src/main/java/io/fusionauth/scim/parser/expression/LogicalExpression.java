@@ -29,10 +29,13 @@ public abstract class LogicalExpression extends Expression {
   /**
    * The logical operator for this expression
    */
-  public LogicalOperator logicalOperator;
+  public final LogicalOperator logicalOperator;
+
+  private final int hashCode;
 
   public LogicalExpression(LogicalOperator logicalOperator) {
     this.logicalOperator = logicalOperator;
+    this.hashCode = Objects.hash(logicalOperator);
   }
 
   @Override
@@ -49,6 +52,6 @@ public abstract class LogicalExpression extends Expression {
 
   @Override
   public int hashCode() {
-    return Objects.hash(logicalOperator);
+    return hashCode;
   }
 }
@@ -31,21 +31,20 @@ public class LogicalLinkExpression extends LogicalExpression {
   /**
    * The left sub-expression for the logical operator
    */
-  public Expression left;
+  public final Expression left;
 
   /**
    * The right sub-expression for the logical operator
    */
-  public Expression right;
+  public final Expression right;
 
-  public LogicalLinkExpression(LogicalOperator logicalOperator) {
-    super(logicalOperator);
-  }
+  private final int hashCode;
 
   public LogicalLinkExpression(Expression left, LogicalOperator logicalOperator, Expression right) {
     super(logicalOperator);
     this.left = left;
     this.right = right;
+    this.hashCode = Objects.hash(super.hashCode(), left, right);
   }
 
   @Override
@@ -60,12 +59,16 @@ public class LogicalLinkExpression extends LogicalExpression {
       return false;
     }
     LogicalLinkExpression that = (LogicalLinkExpression) o;
+    // Cheap rejection before walking both sub-trees
+    if (hashCode != that.hashCode) {
+      return false;
+    }
     return Objects.equals(left, that.left) && Objects.equals(right, that.right);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(super.hashCode(), left, right);
+    return hashCode;
   }
 
   @Override
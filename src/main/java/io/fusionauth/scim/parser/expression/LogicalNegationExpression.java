@@ -31,15 +31,14 @@ public class LogicalNegationExpression extends LogicalExpression {
   /**
    * The expression to be negated
    */
-  public Expression subExpression;
+  public final Expression subExpression;
 
-  public LogicalNegationExpression() {
-    super(LogicalOperator.not);
-  }
+  private final int hashCode;
 
   public LogicalNegationExpression(Expression subExpression) {
     super(LogicalOperator.not);
     this.subExpression = subExpression;
+    this.hashCode = Objects.hash(super.hashCode(), subExpression);
   }
 
   @Override
@@ -54,12 +53,16 @@ public class LogicalNegationExpression extends LogicalExpression {
       return false;
     }
     LogicalNegationExpression that = (LogicalNegationExpression) o;
+    // Cheap rejection before walking the sub-tree
+    if (hashCode != that.hashCode) {
+      return false;
+    }
     return Objects.equals(subExpression, that.subExpression);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(super.hashCode(), subExpression);
+    return hashCode;
   }
 
   @Override
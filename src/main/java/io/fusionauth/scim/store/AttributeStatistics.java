@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.store;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Statistics about the values of an indexed attribute, used to estimate how many resources match a filter.
+ * <p>
+ * Hash indexes keep a weighted sample of their distinct values, sorted, to estimate the frequency of a prefix. Sorted indexes keep an
+ * equi-depth histogram, where each bucket holds the same number of values, to estimate the frequency of a range.
+ *
+ * @author Spencer Witt
+ */
+public class AttributeStatistics {
+  /**
+   * The number of distinct values
+   */
+  public final int distinctCount;
+
+  /**
+   * The number of values. A multi-valued attribute counts each of its values.
+   */
+  public final long valueCount;
+
+  /**
+   * The boundaries of the histogram buckets, as seconds since the epoch. Empty if the attribute has no histogram.
+   */
+  private final double[] histogram;
+
+  /**
+   * The cumulative number of values up to and including each sample key
+   */
+  private final long[] sampleCounts;
+
+  private final String[] sampleKeys;
+
+  AttributeStatistics(int distinctCount, long valueCount, String[] sampleKeys, long[] sampleCounts, double[] histogram) {
+    this.distinctCount = distinctCount;
+    this.valueCount = valueCount;
+    this.sampleKeys = sampleKeys;
+    this.sampleCounts = sampleCounts;
+    this.histogram = histogram;
+  }
+
+  /**
+   * Statistics are recomputed once the number of changed values exceeds this many, or a tenth of the values if that is larger
+   */
+  static final int StaleModifications = 100;
+
+  static boolean isStale(int modifications, long valueCount) {
+    return modifications > Math.max(StaleModifications, valueCount / 10);
+  }
+
+  static double seconds(Instant instant) {
+    return instant.getEpochSecond() + instant.getNano() / 1_000_000_000d;
+  }
+
+  /**
+   * Estimate the fraction of values that start with a prefix
+   *
+   * @param prefix The prefix
+   * @return A fraction between 0 and 1
+   */
+  public double prefixFrequency(String prefix) {
+    if (sampleKeys.length == 0) {
+      return 0;
+    }
+
+    // The sample keys that start with the prefix are a contiguous run in sorted order
+    int from = insertionPoint(prefix);
+    int to = from;
+    while (to < sampleKeys.length && sampleKeys[to].startsWith(prefix)) {
+      to++;
+    }
+    long total = sampleCounts[sampleCounts.length - 1];
+    long before = from > 0 ? sampleCounts[from - 1] : 0;
+    long through = to > 0 ? sampleCounts[to - 1] : 0;
+    return (double) (through - before) / total;
+  }
+
+  /**
+   * Estimate the fraction of values in a range
+   *
+   * @param from The lower bound, or null for no lower bound
+   * @param to   The upper bound, or null for no upper bound
+   * @return A fraction between 0 and 1
+   */
+  public double rangeFrequency(Instant from, Instant to) {
+    if (histogram.length == 0) {
+      return 0;
+    }
+
+    double lower = from != null ? cumulativeFrequency(seconds(from)) : 0;
+    double upper = to != null ? cumulativeFrequency(seconds(to)) : 1;
+    return Math.max(upper - lower, 0);
+  }
+
+  /**
+   * Estimate the fraction of values less than or equal to a value, interpolating within a bucket
+   */
+  private double cumulativeFrequency(double value) {
+    int buckets = histogram.length - 1;
+    if (value < histogram[0]) {
+      return 0;
+    }
+    if (value >= histogram[buckets]) {
+      return 1;
+    }
+
+    int index = Arrays.binarySearch(histogram, value);
+    int bucket = index >= 0 ? index : -index - 2;
+    // Equal boundaries mean a value that fills several buckets
+    while (bucket < buckets - 1 && histogram[bucket + 1] <= value) {
+      bucket++;
+    }
+    double width = histogram[bucket + 1] - histogram[bucket];
+    double within = width > 0 ? (value - histogram[bucket]) / width : 1;
+    return (bucket + within) / buckets;
+  }
+
+  private int insertionPoint(String prefix) {
+    int index = Arrays.binarySearch(sampleKeys, prefix);
+    return index >= 0 ? index : -index - 1;
+  }
+}
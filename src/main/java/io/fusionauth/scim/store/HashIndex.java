@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.store;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A hash index from the text of each value of an attribute to the slots of the resources with that value.
+ *
+ * @author Spencer Witt
+ */
+class HashIndex<T> {
+  /**
+   * The maximum number of distinct values sampled for the statistics
+   */
+  static final int SampleSize = 4_096;
+
+  final List<String> segments;
+
+  final Map<String, Set<Integer>> slots = new HashMap<>();
+
+  private final Function<? super T, ? extends Collection<?>> values;
+
+  private int modifications;
+
+  private volatile AttributeStatistics statistics;
+
+  private volatile int statisticsModifications;
+
+  private long valueCount;
+
+  HashIndex(List<String> segments, Function<? super T, ? extends Collection<?>> values) {
+    this.segments = segments;
+    this.values = values;
+  }
+
+  void add(int slot, T resource) {
+    for (Object value : values(resource)) {
+      if (slots.computeIfAbsent(value.toString(), key -> new HashSet<>()).add(slot)) {
+        valueCount++;
+        modifications++;
+      }
+    }
+  }
+
+  Set<Integer> get(String value) {
+    return slots.getOrDefault(value, Set.of());
+  }
+
+  /**
+   * Return the statistics for the index, recomputing them once enough values have changed. Must be called with the store's read lock held.
+   */
+  AttributeStatistics statistics() {
+    AttributeStatistics current = statistics;
+    if (current != null && !AttributeStatistics.isStale(modifications - statisticsModifications, valueCount)) {
+      return current;
+    }
+
+    // Sample every n-th distinct value. Each sample is weighted by the number of values in the group it stands for.
+    int step = Math.max(1, slots.size() / SampleSize);
+    String[] keys = new String[(slots.size() + step - 1) / step];
+    long[] weights = new long[keys.length];
+    int index = 0;
+    int inGroup = 0;
+    for (Map.Entry<String, Set<Integer>> entry : slots.entrySet()) {
+      if (inGroup == 0) {
+        keys[index++] = entry.getKey();
+      }
+      weights[index - 1] += entry.getValue().size();
+      inGroup = (inGroup + 1) % step;
+    }
+
+    Integer[] order = new Integer[index];
+    Arrays.setAll(order, i -> i);
+    Arrays.sort(order, (a, b) -> keys[a].compareTo(keys[b]));
+    String[] sampleKeys = new String[index];
+    long[] sampleCounts = new long[index];
+    long cumulative = 0;
+    for (int i = 0; i < index; i++) {
+      sampleKeys[i] = keys[order[i]];
+      cumulative += weights[order[i]];
+      sampleCounts[i] = cumulative;
+    }
+
+    current = new AttributeStatistics(slots.size(), valueCount, sampleKeys, sampleCounts, new double[0]);
+    statisticsModifications = modifications;
+    statistics = current;
+    return current;
+  }
+
+  void remove(int slot, T resource) {
+    for (Object value : values(resource)) {
+      String key = value.toString();
+      Set<Integer> matches = slots.get(key);
+      if (matches != null && matches.remove(slot)) {
+        valueCount--;
+        modifications++;
+        if (matches.isEmpty()) {
+          slots.remove(key);
+        }
+      }
+    }
+  }
+
+  private Collection<?> values(T resource) {
+    Collection<?> result = values.apply(resource);
+    return result != null ? result : List.of();
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.store;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import io.fusionauth.scim.parser.expression.Expression;
+
+/**
+ * A step of a {@link QueryPlan} that finds candidate resources with the indexes of a {@link SCIMResourceStore}.
+ *
+ * @author Spencer Witt
+ */
+public abstract class IndexLookup {
+  /**
+   * The estimated number of resources found by the lookup
+   */
+  public final double estimatedCount;
+
+  IndexLookup(double estimatedCount) {
+    this.estimatedCount = estimatedCount;
+  }
+
+  /**
+   * Find the slots of the matching resources. The returned set may be owned by an index and must not be modified.
+   */
+  abstract Set<Integer> find();
+
+  /**
+   * Resources found by every lookup
+   */
+  public static final class Intersection extends IndexLookup {
+    /**
+     * The lookups, in order of their estimated count. The first lookup drives the intersection: only its slots are probed against the sets of
+     * the other lookups.
+     */
+    public final List<IndexLookup> lookups;
+
+    Intersection(List<IndexLookup> lookups, double estimatedCount) {
+      super(estimatedCount);
+      this.lookups = List.copyOf(lookups);
+    }
+
+    @Override
+    public String toString() {
+      return lookups.stream().map(Object::toString).collect(Collectors.joining(" and ", "(", ")"));
+    }
+
+    @Override
+    Set<Integer> find() {
+      // Walk the slots found so far and keep those the next lookup also finds. Lookups after the result is empty are not run.
+      Set<Integer> result = lookups.get(0).find();
+      for (int i = 1; i < lookups.size() && !result.isEmpty(); i++) {
+        Set<Integer> set = lookups.get(i).find();
+        Set<Integer> retained = new HashSet<>();
+        for (Integer slot : result) {
+          if (set.contains(slot)) {
+            retained.add(slot);
+          }
+        }
+        result = retained;
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Resources found with a single index
+   */
+  public static final class Probe extends IndexLookup {
+    /**
+     * The attribute expression answered by the index
+     */
+    public final Expression expression;
+
+    private final String description;
+
+    private final Supplier<Set<Integer>> finder;
+
+    Probe(Expression expression, String description, double estimatedCount, Supplier<Set<Integer>> finder) {
+      super(estimatedCount);
+      this.expression = expression;
+      this.description = description;
+      this.finder = finder;
+    }
+
+    @Override
+    public String toString() {
+      return description;
+    }
+
+    @Override
+    Set<Integer> find() {
+      return finder.get();
+    }
+  }
+
+  /**
+   * Resources found by any lookup
+   */
+  public static final class Union extends IndexLookup {
+    public final List<IndexLookup> lookups;
+
+    Union(List<IndexLookup> lookups, double estimatedCount) {
+      super(estimatedCount);
+      this.lookups = List.copyOf(lookups);
+    }
+
+    @Override
+    public String toString() {
+      return lookups.stream().map(Object::toString).collect(Collectors.joining(" or ", "(", ")"));
+    }
+
+    @Override
+    Set<Integer> find() {
+      Set<Integer> result = new HashSet<>();
+      for (IndexLookup lookup : lookups) {
+        result.addAll(lookup.find());
+      }
+      return result;
+    }
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.store;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import io.fusionauth.scim.parser.expression.Expression;
+
+/**
+ * How a {@link SCIMResourceStore} answers a filter: index lookups that find the candidate resources, and the residual parts of the filter that are
+ * evaluated against each candidate.
+ *
+ * @author Spencer Witt
+ */
+public class QueryPlan {
+  /**
+   * The index lookups that find the candidates, or null if every resource is a candidate
+   */
+  public final IndexLookup lookup;
+
+  /**
+   * The parts of the filter that the lookups do not answer exactly. A candidate matches the filter if it matches all of them.
+   */
+  public final List<Expression> residual;
+
+  final Predicate<Object> predicate;
+
+  QueryPlan(IndexLookup lookup, List<Expression> residual, Predicate<Object> predicate) {
+    this.lookup = lookup;
+    this.residual = List.copyOf(residual);
+    this.predicate = predicate;
+  }
+
+  /**
+   * @return true if every resource is tested against the filter
+   */
+  public boolean isFullScan() {
+    return lookup == null;
+  }
+
+  @Override
+  public String toString() {
+    return (lookup != null ? lookup.toString() : "scan") + (residual.isEmpty() ? "" : " with " + residual.size() + " residual expression(s)");
+  }
+}
@@ -0,0 +1,545 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.store;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import io.fusionauth.scim.domain.BaseSCIMResource;
+import io.fusionauth.scim.domain.BaseSCIMUser;
+import io.fusionauth.scim.domain.SCIMGroup;
+import io.fusionauth.scim.domain.SCIMListResponse;
+import io.fusionauth.scim.domain.SCIMResource;
+import io.fusionauth.scim.filter.PojoFilterCompiler;
+import io.fusionauth.scim.filter.ResourceSorter;
+import io.fusionauth.scim.parser.AttributePath;
+import io.fusionauth.scim.parser.ComparisonOperator;
+import io.fusionauth.scim.parser.ExpressionType;
+import io.fusionauth.scim.parser.LogicalOperator;
+import io.fusionauth.scim.parser.ValueType;
+import io.fusionauth.scim.parser.expression.AttributeComparisonExpression;
+import io.fusionauth.scim.parser.expression.AttributeDateComparisonExpression;
+import io.fusionauth.scim.parser.expression.AttributeMembershipExpression;
+import io.fusionauth.scim.parser.expression.AttributeRangeExpression;
+import io.fusionauth.scim.parser.expression.AttributeTextComparisonExpression;
+import io.fusionauth.scim.parser.expression.Expression;
+import io.fusionauth.scim.parser.expression.LogicalChainExpression;
+import io.fusionauth.scim.parser.expression.LogicalLinkExpression;
+import io.fusionauth.scim.transform.ExpressionFlattener;
+
+/**
+ * An in-memory store of SCIM resources that answers filters with secondary indexes.
+ * <p>
+ * Hash indexes answer text {@code eq} comparisons and membership tests, and sorted indexes answer date comparisons and ranges. A filter is
+ * planned into a {@link QueryPlan}: an {@code and} intersects the lookups of its indexed operands, an {@code or} unions the lookups of its operands
+ * when every operand is indexed, and everything else is left as a residual predicate that is evaluated with {@link PojoFilterCompiler} against each
+ * candidate. A filter without any indexed part is answered with a full scan.
+ * <p>
+ * Plans are cost-based. The indexes keep {@link AttributeStatistics}, which are used to estimate how many resources each part of a filter
+ * matches. The indexed operand of an {@code and} with the smallest estimate drives the lookup, operands whose lookups would be much larger are
+ * checked as residuals instead, and the residual expressions are checked in order of selectivity.
+ * <p>
+ * Text values are indexed by {@link Object#toString()}, which must match the text of the value in JSON, as it does for {@link String} and
+ * {@link UUID}. Comparisons with the empty string also match unassigned attributes, so they are never answered by an index.
+ * <p>
+ * The store may be used from several threads. Stored resources are indexed when they are stored, so a resource must not be modified while it is
+ * in the store. To change a resource, store the changed copy with {@link #put(BaseSCIMResource)}.
+ *
+ * @param <T> The resource type
+ * @author Spencer Witt
+ */
+public class SCIMResourceStore<T extends BaseSCIMResource<T>> {
+  /**
+   * An indexed operand of an {@code and} is intersected with the driving lookup if its estimated count is at most this many times larger
+   */
+  static final int IntersectionRatio = 4;
+
+  private final PojoFilterCompiler compiler = new PojoFilterCompiler();
+
+  private final Deque<Integer> freeSlots = new ArrayDeque<>();
+
+  private final Map<List<String>, HashIndex<T>> hashIndexes = new HashMap<>();
+
+  private final Map<UUID, Integer> ids = new HashMap<>();
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final List<T> slots = new ArrayList<>();
+
+  private final Map<List<String>, SortedIndex<T>> sortedIndexes = new HashMap<>();
+
+  /**
+   * Create a store with a hash index on {@code id} and {@code externalId}, and a sorted index on {@code meta.lastModified}
+   */
+  public SCIMResourceStore() {
+    withHashIndex("id", resource -> resource.id != null ? List.of(resource.id) : null);
+    withHashIndex("externalId", resource -> resource.externalId != null ? List.of(resource.externalId) : null);
+    withSortedIndex("meta.lastModified", resource -> resource.meta != null ? resource.meta.lastModified : null);
+  }
+
+  /**
+   * @return A store for groups
+   */
+  public static SCIMResourceStore<SCIMGroup> groups() {
+    return new SCIMResourceStore<>();
+  }
+
+  /**
+   * @return A store for users, with additional hash indexes on {@code userName} and {@code emails.value}
+   */
+  public static <T extends BaseSCIMUser<T>> SCIMResourceStore<T> users() {
+    SCIMResourceStore<T> store = new SCIMResourceStore<>();
+    store.withHashIndex("userName", user -> user.userName != null ? List.of(user.userName) : null);
+    store.withHashIndex("emails.value", user -> user.emails != null
+        ? user.emails.stream().map(email -> email.value).filter(value -> value != null).toList()
+        : null);
+    return store;
+  }
+
+  private static String describe(AttributeComparisonExpression<?, ?> expression) {
+    return expression.attributePath + " " + expression.operator + " " + expression.valueAsString();
+  }
+
+  private static List<Expression> operands(Expression expression) {
+    return expression instanceof LogicalChainExpression chain
+        ? chain.operands
+        : List.of(((LogicalLinkExpression) expression).left, ((LogicalLinkExpression) expression).right);
+  }
+
+  /**
+   * Find a resource by id
+   *
+   * @param id The id
+   * @return The resource, or null if there is no resource with the id
+   */
+  public T get(UUID id) {
+    lock.readLock().lock();
+    try {
+      Integer slot = ids.get(id);
+      return slot != null ? slots.get(slot) : null;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Plan how a filter is answered, without running it
+   *
+   * @param filter The filter
+   * @return The plan
+   */
+  public QueryPlan plan(Expression filter) {
+    Planned planned;
+    List<Expression> residuals;
+    lock.readLock().lock();
+    try {
+      SelectivityEstimator<T> estimator = new SelectivityEstimator<>(hashIndexes, sortedIndexes, ids.size());
+      planned = decompose(ExpressionFlattener.flatten(filter), estimator);
+      // Check the most selective residual expressions first, so that most candidates are rejected early
+      residuals = new ArrayList<>(planned.residual);
+      residuals.sort(Comparator.comparingDouble(estimator::selectivity));
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    Predicate<Object> predicate = null;
+    for (Expression residual : residuals) {
+      Predicate<Object> compiled = compiler.compile(residual);
+      predicate = predicate == null ? compiled : predicate.and(compiled);
+    }
+    return new QueryPlan(planned.lookup, residuals, predicate);
+  }
+
+  /**
+   * Return the statistics for an indexed attribute
+   *
+   * @param attributePath The attribute path of the index
+   * @return The statistics, or null if the attribute is not indexed
+   */
+  public AttributeStatistics statistics(String attributePath) {
+    List<String> segments = AttributePath.of(attributePath).segments;
+    lock.readLock().lock();
+    try {
+      HashIndex<T> hash = hashIndexes.get(segments);
+      if (hash != null) {
+        return hash.statistics();
+      }
+
+      SortedIndex<T> sorted = sortedIndexes.get(segments);
+      return sorted != null ? sorted.statistics() : null;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Store a resource, replacing any resource with the same id
+   *
+   * @param resource The resource
+   * @throws IllegalArgumentException If the resource does not have an id
+   */
+  public void put(T resource) {
+    if (resource.id == null) {
+      throw new IllegalArgumentException("A resource must have an id to be stored");
+    }
+
+    lock.writeLock().lock();
+    try {
+      Integer slot = ids.get(resource.id);
+      if (slot != null) {
+        unindex(slot, slots.get(slot));
+        slots.set(slot, resource);
+      } else if (!freeSlots.isEmpty()) {
+        slot = freeSlots.pop();
+        slots.set(slot, resource);
+      } else {
+        slot = slots.size();
+        slots.add(resource);
+      }
+
+      ids.put(resource.id, slot);
+      int stored = slot;
+      hashIndexes.values().forEach(index -> index.add(stored, resource));
+      sortedIndexes.values().forEach(index -> index.add(stored, resource));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Remove a resource
+   *
+   * @param id The id of the resource
+   * @return The removed resource, or null if there is no resource with the id
+   */
+  public T remove(UUID id) {
+    lock.writeLock().lock();
+    try {
+      Integer slot = ids.remove(id);
+      if (slot == null) {
+        return null;
+      }
+
+      T resource = slots.get(slot);
+      unindex(slot, resource);
+      slots.set(slot, null);
+      freeSlots.push(slot);
+      return resource;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Find the resources that match a filter
+   *
+   * @param filter The filter
+   * @return The matching resources, in no particular order
+   */
+  public List<T> search(Expression filter) {
+    return search(plan(filter));
+  }
+
+  /**
+   * Find one page of the resources that match a filter, sorted as requested with the {@code sortBy} and {@code sortOrder} parameters and
+   * positioned by a cursor, as requested with the {@code cursor} parameter of cursor-based pagination
+   *
+   * @param filter The filter
+   * @param sorter The sort order, e.g. from {@link ResourceSorter#objects(String, io.fusionauth.scim.filter.SortOrder)}
+   * @param cursor The {@code nextCursor} or {@code previousCursor} of an earlier response, or null for the first page
+   * @param count  The maximum number of matches to return
+   * @return The list response with the page of matches, the cursors for the pages on either side of it and the total number of matches
+   * @throws IllegalArgumentException If the cursor is not valid for the sort
+   */
+  public SCIMListResponse search(Expression filter, ResourceSorter<? super T> sorter, String cursor, int count) {
+    List<T> matches = search(plan(filter));
+    ResourceSorter.CursorPage<?> page = sorter.page(matches, cursor, count);
+    SCIMListResponse response = new SCIMListResponse();
+    for (Object resource : page.resources) {
+      response.Resources.add((SCIMResource) resource);
+    }
+    response.itemsPerPage = response.Resources.size();
+    response.nextCursor = page.nextCursor;
+    response.previousCursor = page.previousCursor;
+    response.totalResults = matches.size();
+    return response;
+  }
+
+  /**
+   * Find one page of the resources that match a filter, sorted as requested with the {@code sortBy} and {@code sortOrder} parameters
+   *
+   * @param filter     The filter
+   * @param sorter     The sort order, e.g. from {@link ResourceSorter#objects(String, io.fusionauth.scim.filter.SortOrder)}
+   * @param startIndex The 1-based index of the first match to return. Values less than 1 are treated as 1.
+   * @param count      The maximum number of matches to return
+   * @return The list response with the page of matches and the total number of matches
+   */
+  public SCIMListResponse search(Expression filter, ResourceSorter<? super T> sorter, int startIndex, int count) {
+    List<T> matches = search(plan(filter));
+    SCIMListResponse response = new SCIMListResponse();
+    for (Object resource : sorter.page(matches, startIndex, count)) {
+      response.Resources.add((SCIMResource) resource);
+    }
+    response.itemsPerPage = response.Resources.size();
+    response.startIndex = Math.max(startIndex, 1);
+    response.totalResults = matches.size();
+    return response;
+  }
+
+  /**
+   * Run a query plan
+   *
+   * @param plan A plan from {@link #plan(Expression)} on this store
+   * @return The matching resources, in no particular order
+   */
+  public List<T> search(QueryPlan plan) {
+    List<T> results = new ArrayList<>();
+    lock.readLock().lock();
+    try {
+      if (plan.lookup == null) {
+        for (T resource : slots) {
+          if (resource != null && (plan.predicate == null || plan.predicate.test(resource))) {
+            results.add(resource);
+          }
+        }
+        return results;
+      }
+
+      for (Integer slot : plan.lookup.find()) {
+        T resource = slots.get(slot);
+        if (plan.predicate == null || plan.predicate.test(resource)) {
+          results.add(resource);
+        }
+      }
+      return results;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @return The number of stored resources
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return ids.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Add a hash index. Each value returned for a resource is indexed by its {@link Object#toString()}.
+   *
+   * @param attributePath The attribute path that the index answers, e.g. {@code emails.value}
+   * @param values        Returns the values of the attribute for a resource, or null if it has none
+   * @return This store
+   */
+  public SCIMResourceStore<T> withHashIndex(String attributePath, Function<? super T, ? extends Collection<?>> values) {
+    HashIndex<T> index = new HashIndex<>(AttributePath.of(attributePath).segments, values);
+    lock.writeLock().lock();
+    try {
+      for (int slot = 0; slot < slots.size(); slot++) {
+        if (slots.get(slot) != null) {
+          index.add(slot, slots.get(slot));
+        }
+      }
+      hashIndexes.put(index.segments, index);
+      return this;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Add a sorted index on a date-time attribute
+   *
+   * @param attributePath The attribute path that the index answers, e.g. {@code meta.lastModified}
+   * @param value         Returns the value of the attribute for a resource, or null if it is unassigned
+   * @return This store
+   */
+  public SCIMResourceStore<T> withSortedIndex(String attributePath, Function<? super T, ZonedDateTime> value) {
+    SortedIndex<T> index = new SortedIndex<>(AttributePath.of(attributePath).segments, value);
+    lock.writeLock().lock();
+    try {
+      for (int slot = 0; slot < slots.size(); slot++) {
+        if (slots.get(slot) != null) {
+          index.add(slot, slots.get(slot));
+        }
+      }
+      sortedIndexes.put(index.segments, index);
+      return this;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private Planned decompose(Expression expression, SelectivityEstimator<T> estimator) {
+    double estimatedCount = estimator.selectivity(expression) * ids.size();
+    IndexLookup lookup = switch (expression.type()) {
+      case attribute -> probe(expression, estimatedCount);
+      case attributeMembership -> {
+        AttributeMembershipExpression membership = (AttributeMembershipExpression) expression;
+        HashIndex<T> index = hashIndexes.get(membership.path.segments);
+        if (index == null || membership.values.contains("")) {
+          yield null;
+        }
+        yield new IndexLookup.Probe(expression, membership.attributePath + " in " + membership.values, estimatedCount, () -> {
+          List<Set<Integer>> sets = membership.values.stream().map(index::get).toList();
+          return SortedIndex.union(sets);
+        });
+      }
+      case attributeRange -> {
+        AttributeRangeExpression range = (AttributeRangeExpression) expression;
+        SortedIndex<T> index = sortedIndexes.get(AttributePath.of(range.attributePath).segments);
+        if (index == null || range.lower.valueType() != ValueType.date || range.upper.valueType() != ValueType.date) {
+          yield null;
+        }
+
+        Instant from = ((AttributeDateComparisonExpression) range.lower).value().toInstant();
+        Instant to = ((AttributeDateComparisonExpression) range.upper).value().toInstant();
+        boolean fromInclusive = range.lower.operator == ComparisonOperator.ge;
+        boolean toInclusive = range.upper.operator == ComparisonOperator.le;
+        yield new IndexLookup.Probe(expression, describe(range.lower) + " and " + describe(range.upper), estimatedCount,
+            () -> index.range(from, fromInclusive, to, toInclusive));
+      }
+      default -> null;
+    };
+    if (lookup != null) {
+      return new Planned(expression, lookup, List.of());
+    }
+
+    if (expression.type() == ExpressionType.logicalChain
+        || expression.type() == ExpressionType.logicalLink) {
+      LogicalOperator operator = expression instanceof LogicalChainExpression chain
+          ? chain.logicalOperator
+          : ((LogicalLinkExpression) expression).logicalOperator;
+      List<Planned> operands = operands(expression).stream().map(operand -> decompose(operand, estimator)).toList();
+      if (operator == LogicalOperator.and) {
+        return intersect(expression, operands);
+      } else if (operands.stream().allMatch(operand -> operand.lookup != null)) {
+        // A union is only exact if every operand is exact, otherwise the whole filter is checked
+        boolean exact = operands.stream().allMatch(operand -> operand.residual.isEmpty());
+        double unionCount = Math.min(operands.stream().mapToDouble(operand -> operand.lookup.estimatedCount).sum(), ids.size());
+        return new Planned(expression, new IndexLookup.Union(operands.stream().map(operand -> operand.lookup).toList(), unionCount),
+            exact ? List.of() : List.of(expression));
+      }
+    }
+
+    return new Planned(expression, null, List.of(expression));
+  }
+
+  /**
+   * Plan the operands of an {@code and}. The indexed operand with the smallest estimated count drives the lookup. Other indexed operands are
+   * intersected with it while their lookups are not much larger than the driving lookup, and are otherwise checked against each candidate.
+   */
+  private Planned intersect(Expression expression, List<Planned> operands) {
+    List<Planned> indexed = new ArrayList<>();
+    List<Expression> residual = new ArrayList<>();
+    for (Planned operand : operands) {
+      if (operand.lookup != null) {
+        indexed.add(operand);
+      } else {
+        residual.addAll(operand.residual);
+      }
+    }
+    if (indexed.isEmpty()) {
+      // Keep the operands separate so that they can be checked in order of selectivity
+      return new Planned(expression, null, residual);
+    }
+
+    indexed.sort(Comparator.comparingDouble(operand -> operand.lookup.estimatedCount));
+    double driving = indexed.get(0).lookup.estimatedCount;
+    double estimatedCount = driving;
+    List<IndexLookup> lookups = new ArrayList<>();
+    for (Planned operand : indexed) {
+      if (lookups.isEmpty() || operand.lookup.estimatedCount <= Math.max(driving, 1) * IntersectionRatio) {
+        if (!lookups.isEmpty()) {
+          estimatedCount *= operand.lookup.estimatedCount / Math.max(ids.size(), 1);
+        }
+        lookups.add(operand.lookup);
+        residual.addAll(operand.residual);
+      } else {
+        // Cheaper to check each candidate than to materialize the larger lookup
+        residual.add(operand.expression);
+      }
+    }
+    IndexLookup lookup = lookups.size() == 1 ? lookups.get(0) : new IndexLookup.Intersection(lookups, estimatedCount);
+    return new Planned(expression, lookup, residual);
+  }
+
+  private IndexLookup probe(Expression expression, double estimatedCount) {
+    if (expression instanceof AttributeTextComparisonExpression text && text.operator == ComparisonOperator.eq && !text.value().isEmpty()) {
+      HashIndex<T> index = hashIndexes.get(text.path.segments);
+      if (index != null) {
+        String value = text.value();
+        return new IndexLookup.Probe(expression, describe(text), estimatedCount, () -> index.get(value));
+      }
+    }
+
+    if (expression instanceof AttributeDateComparisonExpression date) {
+      SortedIndex<T> index = sortedIndexes.get(date.path.segments);
+      if (index == null) {
+        return null;
+      }
+
+      Instant value = date.value().toInstant();
+      return switch (date.operator) {
+        case eq -> new IndexLookup.Probe(expression, describe(date), estimatedCount, () -> index.range(value, true, value, true));
+        case gt -> new IndexLookup.Probe(expression, describe(date), estimatedCount, () -> index.range(value, false, null, false));
+        case ge -> new IndexLookup.Probe(expression, describe(date), estimatedCount, () -> index.range(value, true, null, false));
+        case lt -> new IndexLookup.Probe(expression, describe(date), estimatedCount, () -> index.range(null, false, value, false));
+        case le -> new IndexLookup.Probe(expression, describe(date), estimatedCount, () -> index.range(null, false, value, true));
+        default -> null;
+      };
+    }
+    return null;
+  }
+
+  private void unindex(int slot, T resource) {
+    hashIndexes.values().forEach(index -> index.remove(slot, resource));
+    sortedIndexes.values().forEach(index -> index.remove(slot, resource));
+  }
+
+  private static final class Planned {
+    final Expression expression;
+
+    final IndexLookup lookup;
+
+    final List<Expression> residual;
+
+    Planned(Expression expression, IndexLookup lookup, List<Expression> residual) {
+      this.expression = expression;
+      this.lookup = lookup;
+      this.residual = residual;
+    }
+  }
+}
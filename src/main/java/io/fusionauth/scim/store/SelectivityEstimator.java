@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.store;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import io.fusionauth.scim.parser.AttributePath;
+import io.fusionauth.scim.parser.ComparisonOperator;
+import io.fusionauth.scim.parser.LogicalOperator;
+import io.fusionauth.scim.parser.expression.AttributeDateComparisonExpression;
+import io.fusionauth.scim.parser.expression.AttributeExpression;
+import io.fusionauth.scim.parser.expression.AttributeFilterGroupingExpression;
+import io.fusionauth.scim.parser.expression.AttributeMembershipExpression;
+import io.fusionauth.scim.parser.expression.AttributeRangeExpression;
+import io.fusionauth.scim.parser.expression.AttributeTextComparisonExpression;
+import io.fusionauth.scim.parser.expression.Expression;
+import io.fusionauth.scim.parser.expression.LogicalChainExpression;
+import io.fusionauth.scim.parser.expression.LogicalLinkExpression;
+import io.fusionauth.scim.parser.expression.LogicalNegationExpression;
+
+/**
+ * Estimates the selectivity of a filter, the fraction of the stored resources that match it.
+ * <p>
+ * Leaves on indexed attributes are estimated from the index: exact counts for text {@code eq}, the sampled prefix frequency for {@code sw}, and
+ * the histogram for date comparisons. Other leaves use fixed default selectivities. Operands are assumed to be independent, so an {@code and} is
+ * the product of its operands and an {@code or} is the complement of the product of their complements.
+ *
+ * @author Spencer Witt
+ */
+final class SelectivityEstimator<T> {
+  static final double DefaultEqual = 0.1;
+
+  static final double DefaultPattern = 0.2;
+
+  static final double DefaultPresent = 0.9;
+
+  static final double DefaultRange = 1 / 3d;
+
+  private final Map<List<String>, HashIndex<T>> hashIndexes;
+
+  private final double resourceCount;
+
+  private final Map<List<String>, SortedIndex<T>> sortedIndexes;
+
+  SelectivityEstimator(Map<List<String>, HashIndex<T>> hashIndexes, Map<List<String>, SortedIndex<T>> sortedIndexes, int resourceCount) {
+    this.hashIndexes = hashIndexes;
+    this.sortedIndexes = sortedIndexes;
+    this.resourceCount = Math.max(resourceCount, 1);
+  }
+
+  private static List<String> concat(List<String> parent, List<String> segments) {
+    if (parent.isEmpty()) {
+      return segments;
+    }
+
+    List<String> result = new ArrayList<>(parent);
+    result.addAll(segments);
+    return result;
+  }
+
+  private static double clamp(double selectivity) {
+    return Math.min(Math.max(selectivity, 0), 1);
+  }
+
+  /**
+   * Estimate the fraction of resources that match an expression
+   *
+   * @param expression The expression
+   * @return A fraction between 0 and 1
+   */
+  double selectivity(Expression expression) {
+    return selectivity(expression, List.of());
+  }
+
+  private double dateEqual(List<String> segments, Instant value) {
+    SortedIndex<T> index = sortedIndexes.get(segments);
+    return index != null ? clamp(index.range(value, true, value, true).size() / resourceCount) : DefaultEqual;
+  }
+
+  private double equal(List<String> segments, String value) {
+    HashIndex<T> index = hashIndexes.get(segments);
+    if (index == null) {
+      return DefaultEqual;
+    }
+    // Unassigned attributes compare equal to the empty string
+    return value.isEmpty() ? 1 - present(segments) : clamp(index.get(value).size() / resourceCount);
+  }
+
+  private double present(List<String> segments) {
+    HashIndex<T> hash = hashIndexes.get(segments);
+    if (hash != null) {
+      return clamp(hash.statistics().valueCount / resourceCount);
+    }
+
+    SortedIndex<T> sorted = sortedIndexes.get(segments);
+    return sorted != null ? clamp(sorted.statistics().valueCount / resourceCount) : DefaultPresent;
+  }
+
+  private double range(List<String> segments, Instant from, Instant to) {
+    SortedIndex<T> index = sortedIndexes.get(segments);
+    if (index == null) {
+      return from != null && to != null ? DefaultRange * DefaultRange : DefaultRange;
+    }
+
+    AttributeStatistics statistics = index.statistics();
+    return clamp(statistics.rangeFrequency(from, to) * statistics.valueCount / resourceCount);
+  }
+
+  private double selectivity(AttributeExpression<?> expression, List<String> parent) {
+    List<String> segments = concat(parent, expression.path.segments);
+    return switch (expression.valueType()) {
+      case none -> present(segments);
+      case nul -> expression.operator == ComparisonOperator.eq ? 1 - present(segments) : present(segments);
+      case bool -> expression.operator == ComparisonOperator.eq || expression.operator == ComparisonOperator.ne ? 0.5 : 0;
+      case text -> {
+        String value = ((AttributeTextComparisonExpression) expression).value();
+        yield switch (expression.operator) {
+          case eq -> equal(segments, value);
+          case ne -> 1 - equal(segments, value);
+          case sw -> {
+            HashIndex<T> index = hashIndexes.get(segments);
+            if (index == null) {
+              yield DefaultPattern;
+            }
+            AttributeStatistics statistics = index.statistics();
+            yield clamp(statistics.prefixFrequency(value) * statistics.valueCount / resourceCount);
+          }
+          case co, ew -> DefaultPattern;
+          default -> DefaultRange;
+        };
+      }
+      case date -> {
+        Instant value = ((AttributeDateComparisonExpression) expression).value().toInstant();
+        yield switch (expression.operator) {
+          case eq -> dateEqual(segments, value);
+          case ne -> 1 - dateEqual(segments, value);
+          case gt, ge -> range(segments, value, null);
+          case lt, le -> range(segments, null, value);
+          default -> DefaultPattern;
+        };
+      }
+      case number -> switch (expression.operator) {
+        case eq -> DefaultEqual;
+        case ne -> 1 - DefaultEqual;
+        case gt, ge, lt, le -> DefaultRange;
+        default -> DefaultPattern;
+      };
+    };
+  }
+
+  private double selectivity(Expression expression, List<String> parent) {
+    return switch (expression.type()) {
+      case attribute -> selectivity((AttributeExpression<?>) expression, parent);
+      case attributeMembership -> {
+        AttributeMembershipExpression membership = (AttributeMembershipExpression) expression;
+        List<String> segments = concat(parent, membership.path.segments);
+        yield clamp(membership.values.stream().mapToDouble(value -> equal(segments, value)).sum());
+      }
+      case attributeRange -> {
+        AttributeRangeExpression range = (AttributeRangeExpression) expression;
+        if (range.lower instanceof AttributeDateComparisonExpression lower && range.upper instanceof AttributeDateComparisonExpression upper) {
+          yield range(concat(parent, AttributePath.of(range.attributePath).segments), lower.value().toInstant(), upper.value().toInstant());
+        }
+        yield selectivity(range.lower, parent) * selectivity(range.upper, parent);
+      }
+      case attributeFilterGrouping -> {
+        AttributeFilterGroupingExpression grouping = (AttributeFilterGroupingExpression) expression;
+        yield selectivity(grouping.filterExpression, concat(parent, AttributePath.of(grouping.parentAttributePath).segments));
+      }
+      case logicalNegation -> 1 - selectivity(((LogicalNegationExpression) expression).subExpression, parent);
+      case logicalChain, logicalLink -> {
+        boolean and;
+        List<Expression> operands;
+        if (expression instanceof LogicalChainExpression chain) {
+          and = chain.logicalOperator == LogicalOperator.and;
+          operands = chain.operands;
+        } else {
+          LogicalLinkExpression link = (LogicalLinkExpression) expression;
+          and = link.logicalOperator == LogicalOperator.and;
+          operands = List.of(link.left, link.right);
+        }
+
+        double product = 1;
+        for (Expression operand : operands) {
+          double selectivity = selectivity(operand, parent);
+          product *= and ? selectivity : 1 - selectivity;
+        }
+        yield and ? product : 1 - product;
+      }
+      case grouping -> DefaultPresent;
+    };
+  }
+}
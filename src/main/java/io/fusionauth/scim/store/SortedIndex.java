@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.store;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * A sorted index from the instant of a date-time attribute to the slots of the resources with that value.
+ *
+ * @author Spencer Witt
+ */
+class SortedIndex<T> {
+  /**
+   * The maximum number of histogram buckets
+   */
+  static final int HistogramBuckets = 64;
+
+  final List<String> segments;
+
+  final NavigableMap<Instant, Set<Integer>> slots = new TreeMap<>();
+
+  private final Function<? super T, ZonedDateTime> value;
+
+  private int modifications;
+
+  private volatile AttributeStatistics statistics;
+
+  private volatile int statisticsModifications;
+
+  private long valueCount;
+
+  SortedIndex(List<String> segments, Function<? super T, ZonedDateTime> value) {
+    this.segments = segments;
+    this.value = value;
+  }
+
+  static Set<Integer> union(Collection<Set<Integer>> sets) {
+    Set<Integer> result = new HashSet<>();
+    sets.forEach(result::addAll);
+    return result;
+  }
+
+  void add(int slot, T resource) {
+    ZonedDateTime dateTime = value.apply(resource);
+    if (dateTime != null) {
+      if (slots.computeIfAbsent(dateTime.toInstant(), key -> new HashSet<>()).add(slot)) {
+        valueCount++;
+        modifications++;
+      }
+    }
+  }
+
+  /**
+   * Find the resources with a value in a range
+   *
+   * @param from          The lower bound, or null for no lower bound
+   * @param fromInclusive Whether the lower bound is included
+   * @param to            The upper bound, or null for no upper bound
+   * @param toInclusive   Whether the upper bound is included
+   * @return The slots of the resources in the range
+   */
+  Set<Integer> range(Instant from, boolean fromInclusive, Instant to, boolean toInclusive) {
+    if (from != null && to != null) {
+      int order = from.compareTo(to);
+      if (order > 0 || (order == 0 && !(fromInclusive && toInclusive))) {
+        return Set.of();
+      }
+    }
+
+    NavigableMap<Instant, Set<Integer>> range = slots;
+    if (from != null) {
+      range = range.tailMap(from, fromInclusive);
+    }
+    if (to != null) {
+      range = range.headMap(to, toInclusive);
+    }
+    return union(range.values());
+  }
+
+  /**
+   * Return the statistics for the index, recomputing them once enough values have changed. Must be called with the store's read lock held.
+   */
+  AttributeStatistics statistics() {
+    AttributeStatistics current = statistics;
+    if (current != null && !AttributeStatistics.isStale(modifications - statisticsModifications, valueCount)) {
+      return current;
+    }
+
+    // An equi-depth histogram, the boundaries are the values at evenly spaced ranks
+    int buckets = (int) Math.min(HistogramBuckets, valueCount);
+    double[] histogram = new double[buckets > 0 ? buckets + 1 : 0];
+    if (buckets > 0) {
+      histogram[0] = AttributeStatistics.seconds(slots.firstKey());
+      histogram[buckets] = AttributeStatistics.seconds(slots.lastKey());
+      long rank = 0;
+      int boundary = 1;
+      for (Map.Entry<Instant, Set<Integer>> entry : slots.entrySet()) {
+        rank += entry.getValue().size();
+        while (boundary < buckets && rank >= boundary * valueCount / buckets) {
+          histogram[boundary++] = AttributeStatistics.seconds(entry.getKey());
+        }
+      }
+    }
+
+    current = new AttributeStatistics(slots.size(), valueCount, new String[0], new long[0], histogram);
+    statisticsModifications = modifications;
+    statistics = current;
+    return current;
+  }
+
+  void remove(int slot, T resource) {
+    ZonedDateTime dateTime = value.apply(resource);
+    if (dateTime == null) {
+      return;
+    }
+
+    Set<Integer> matches = slots.get(dateTime.toInstant());
+    if (matches != null && matches.remove(slot)) {
+      valueCount--;
+      modifications++;
+      if (matches.isEmpty()) {
+        slots.remove(dateTime.toInstant());
+      }
+    }
+  }
+}
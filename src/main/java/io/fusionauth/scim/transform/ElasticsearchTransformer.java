@@ -23,7 +23,10 @@ import io.fusionauth.scim.parser.exception.ComparisonOperatorException;
 import io.fusionauth.scim.parser.expression.AttributeComparisonExpression;
 import io.fusionauth.scim.parser.expression.AttributeExpression;
 import io.fusionauth.scim.parser.expression.AttributeFilterGroupingExpression;
+import io.fusionauth.scim.parser.expression.AttributeMembershipExpression;
+import io.fusionauth.scim.parser.expression.AttributeRangeExpression;
 import io.fusionauth.scim.parser.expression.Expression;
+import io.fusionauth.scim.parser.expression.LogicalChainExpression;
 import io.fusionauth.scim.parser.expression.LogicalLinkExpression;
 import io.fusionauth.scim.parser.expression.LogicalNegationExpression;
 
@@ -32,7 +35,9 @@ import io.fusionauth.scim.parser.expression.LogicalNegationExpression;
  */
 public class ElasticsearchTransformer {
   public static String transform(Expression exp) {
-    return transform(exp, "");
+    StringBuilder sb = new StringBuilder();
+    transform(exp, "", sb);
+    return sb.toString();
   }
 
   private static String appendToParentAttributePath(String currentParentPath, String newPathSegment) {
@@ -55,15 +60,19 @@ public class ElasticsearchTransformer {
     return currentParentPath.isEmpty() ? attributePath : currentParentPath + "." + attributePath;
   }
 
-  private static String transform(Expression exp, String parentAttributePath) {
-    return switch (exp.type()) {
-      case attribute -> transformAttributeExpression((AttributeExpression<?>) exp, parentAttributePath);
-      case logicalLink -> transformLogicalExpression((LogicalLinkExpression) exp, parentAttributePath);
-      case logicalNegation -> transformNegationExpression((LogicalNegationExpression) exp, parentAttributePath);
-      case attributeFilterGrouping -> transformAttributeFilterGrouping((AttributeFilterGroupingExpression) exp, parentAttributePath);
+  private static void transform(Expression exp, String parentAttributePath, StringBuilder sb) {
+    switch (exp.type()) {
+      case attribute -> sb.append(transformAttributeExpression((AttributeExpression<?>) exp, parentAttributePath));
+      case logicalLink -> transformLogicalExpression((LogicalLinkExpression) exp, parentAttributePath, sb);
+      case logicalChain -> transformLogicalChain((LogicalChainExpression) exp, parentAttributePath, sb);
+      case logicalNegation -> transformNegationExpression((LogicalNegationExpression) exp, parentAttributePath, sb);
+      case attributeFilterGrouping -> transformAttributeFilterGrouping((AttributeFilterGroupingExpression) exp, parentAttributePath, sb);
+      case attributeRange -> transformRange((AttributeRangeExpression) exp, parentAttributePath, sb);
+      case attributeMembership -> transformMembership((AttributeMembershipExpression) exp, parentAttributePath, sb);
       // GroupingExpressions do not appear in the final parsed SCIM output
-      case grouping -> "";
-    };
+      case grouping -> {
+      }
+    }
   }
 
   private static String transformAttributeExpression(AttributeExpression<?> exp, String parentAttributePath) {
@@ -80,8 +89,8 @@ public class ElasticsearchTransformer {
     }
   }
 
-  private static String transformAttributeFilterGrouping(AttributeFilterGroupingExpression exp, String parentAttributePath) {
-    return transform(exp.filterExpression, appendToParentAttributePath(parentAttributePath, exp.parentAttributePath));
+  private static void transformAttributeFilterGrouping(AttributeFilterGroupingExpression exp, String parentAttributePath, StringBuilder sb) {
+    transform(exp.filterExpression, appendToParentAttributePath(parentAttributePath, exp.parentAttributePath), sb);
   }
 
   private static String transformComparisonExpression(AttributeComparisonExpression<?, ?> exp, String parentAttributePath) {
@@ -134,14 +143,69 @@ public class ElasticsearchTransformer {
     }
   }
 
-  private static String transformLogicalExpression(LogicalLinkExpression exp, String parentAttributePath) {
-    String left = transform(exp.left, parentAttributePath);
-    String right = transform(exp.right, parentAttributePath);
-    String opString = exp.logicalOperator == LogicalOperator.and ? " AND " : " OR ";
-    return "(" + left + opString + right + ")";
+  private static void transformLogicalChain(LogicalChainExpression exp, String parentAttributePath, StringBuilder sb) {
+    String opString = transformLogicalOperator(exp.logicalOperator);
+    sb.append('(');
+    for (int i = 0; i < exp.operands.size(); i++) {
+      if (i > 0) {
+        sb.append(opString);
+      }
+      transform(exp.operands.get(i), parentAttributePath, sb);
+    }
+    sb.append(')');
+  }
+
+  private static void transformLogicalExpression(LogicalLinkExpression exp, String parentAttributePath, StringBuilder sb) {
+    // Chains of logical operators nest to the right, so walk down the right-hand side with a loop rather than recursing once per operator
+    int depth = 0;
+    Expression current = exp;
+    while (current instanceof LogicalLinkExpression link) {
+      sb.append('(');
+      transform(link.left, parentAttributePath, sb);
+      sb.append(transformLogicalOperator(link.logicalOperator));
+      current = link.right;
+      depth++;
+    }
+    transform(current, parentAttributePath, sb);
+    sb.append(")".repeat(depth));
+  }
+
+  private static String transformLogicalOperator(LogicalOperator op) {
+    return op == LogicalOperator.and ? " AND " : " OR ";
+  }
+
+  private static String transformRangeValue(AttributeComparisonExpression<?, ?> exp) {
+    String value = exp.valueAsString();
+    // The negative sign has to be escaped
+    return exp.valueType() == ValueType.number && value.startsWith("-") ? "\\" + value : value;
+  }
+
+  private static void transformRange(AttributeRangeExpression exp, String parentAttributePath, StringBuilder sb) {
+    sb.append(prependParentAttributePath(parentAttributePath, exp.attributePath))
+      .append(':')
+      .append(exp.lower.operator == ComparisonOperator.ge ? '[' : '{')
+      .append(transformRangeValue(exp.lower))
+      .append(" TO ")
+      .append(transformRangeValue(exp.upper))
+      .append(exp.upper.operator == ComparisonOperator.le ? ']' : '}');
+  }
+
+  private static void transformMembership(AttributeMembershipExpression exp, String parentAttributePath, StringBuilder sb) {
+    sb.append(prependParentAttributePath(parentAttributePath, exp.attributePath)).append(":(");
+    boolean first = true;
+    for (String value : exp.values) {
+      if (!first) {
+        sb.append(" OR ");
+      }
+      sb.append('"').append(value).append('"');
+      first = false;
+    }
+    sb.append(')');
   }
 
-  private static String transformNegationExpression(LogicalNegationExpression exp, String parentAttributePath) {
-    return "!(" + transform(exp.subExpression, parentAttributePath) + ")";
+  private static void transformNegationExpression(LogicalNegationExpression exp, String parentAttributePath, StringBuilder sb) {
+    sb.append("!(");
+    transform(exp.subExpression, parentAttributePath, sb);
+    sb.append(')');
   }
 }
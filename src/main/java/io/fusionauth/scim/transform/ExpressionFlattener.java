@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.transform;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+import io.fusionauth.scim.parser.expression.AttributeFilterGroupingExpression;
+import io.fusionauth.scim.parser.expression.Expression;
+import io.fusionauth.scim.parser.expression.LogicalChainExpression;
+import io.fusionauth.scim.parser.expression.LogicalExpression;
+import io.fusionauth.scim.parser.expression.LogicalLinkExpression;
+import io.fusionauth.scim.parser.expression.LogicalNegationExpression;
+
+/**
+ * Rewrites chains of {@link LogicalLinkExpression}s that use the same operator into a single {@link LogicalChainExpression}.
+ * <p>
+ * For example {@code A or B or C} is parsed as {@code A or (B or C)}, and is flattened to one {@code or} with three operands. Operators with
+ * different precedence are not merged, so {@code A or B and C} keeps its {@code and} as an operand of the {@code or}. The tree is walked with an
+ * explicit stack, so a chain of any length can be flattened without a {@link StackOverflowError}.
+ *
+ * @author Spencer Witt
+ */
+public class ExpressionFlattener {
+  private ExpressionFlattener() {
+  }
+
+  /**
+   * Flatten all same-operator logical chains in an expression tree
+   *
+   * @param exp The expression tree
+   * @return An equivalent expression tree without nested same-operator links. Sub-trees that do not change are reused.
+   */
+  public static Expression flatten(Expression exp) {
+    // Post-order walk. A node is visited once to queue its children, and completed once their flattened forms are on the result stack.
+    Deque<Expression> pending = new ArrayDeque<>();
+    // The number of children queued for each pending node, or -1 if its children have not been queued yet
+    Deque<Integer> childCounts = new ArrayDeque<>();
+    Deque<Expression> results = new ArrayDeque<>();
+    pending.push(exp);
+    childCounts.push(-1);
+    while (!pending.isEmpty()) {
+      Expression current = pending.pop();
+      int childCount = childCounts.pop();
+      if (childCount == -1) {
+        List<Expression> children = children(current);
+        if (children.isEmpty()) {
+          results.push(current);
+          continue;
+        }
+
+        pending.push(current);
+        childCounts.push(children.size());
+        // Push in reverse so that the children complete in order
+        for (int i = children.size() - 1; i >= 0; i--) {
+          pending.push(children.get(i));
+          childCounts.push(-1);
+        }
+      } else {
+        Expression[] flattened = new Expression[childCount];
+        for (int i = childCount - 1; i >= 0; i--) {
+          flattened[i] = results.pop();
+        }
+        results.push(rebuild(current, flattened));
+      }
+    }
+    return results.pop();
+  }
+
+  private static List<Expression> children(Expression exp) {
+    return switch (exp.type()) {
+      case logicalLink, logicalChain -> operands((LogicalExpression) exp);
+      case logicalNegation -> List.of(((LogicalNegationExpression) exp).subExpression);
+      case attributeFilterGrouping -> List.of(((AttributeFilterGroupingExpression) exp).filterExpression);
+      case attribute, attributeMembership, attributeRange, grouping -> List.of();
+    };
+  }
+
+  private static Expression rebuild(Expression exp, Expression[] children) {
+    return switch (exp.type()) {
+      case logicalLink, logicalChain -> new LogicalChainExpression(((LogicalExpression) exp).logicalOperator, Arrays.asList(children));
+      case logicalNegation -> {
+        LogicalNegationExpression negation = (LogicalNegationExpression) exp;
+        yield children[0] == negation.subExpression ? negation : new LogicalNegationExpression(children[0]);
+      }
+      case attributeFilterGrouping -> {
+        AttributeFilterGroupingExpression grouping = (AttributeFilterGroupingExpression) exp;
+        yield children[0] == grouping.filterExpression ? grouping : new AttributeFilterGroupingExpression(grouping.parentAttributePath, children[0]);
+      }
+      case attribute, attributeMembership, attributeRange, grouping -> exp;
+    };
+  }
+
+  /**
+   * Collect the operands of a logical expression, descending through every nested link or chain with the same operator. Those nested operators
+   * are merged into the one being flattened, so only the remaining operands need to be flattened themselves.
+   *
+   * @param exp The logical link or chain
+   * @return The operands in filter order
+   */
+  private static List<Expression> operands(LogicalExpression exp) {
+    List<Expression> operands = new ArrayList<>();
+    Deque<Expression> spine = new ArrayDeque<>();
+    spine.push(exp);
+    while (!spine.isEmpty()) {
+      Expression current = spine.pop();
+      if (current instanceof LogicalLinkExpression link && link.logicalOperator == exp.logicalOperator) {
+        spine.push(link.right);
+        spine.push(link.left);
+      } else if (current instanceof LogicalChainExpression chain && chain.logicalOperator == exp.logicalOperator) {
+        for (int i = chain.operands.size() - 1; i >= 0; i--) {
+          spine.push(chain.operands.get(i));
+        }
+      } else {
+        operands.add(current);
+      }
+    }
+    return operands;
+  }
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.transform;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.fusionauth.scim.parser.ComparisonOperator;
+import io.fusionauth.scim.parser.LogicalOperator;
+import io.fusionauth.scim.parser.ValueType;
+import io.fusionauth.scim.parser.expression.AttributeComparisonExpression;
+import io.fusionauth.scim.parser.expression.AttributeFilterGroupingExpression;
+import io.fusionauth.scim.parser.expression.AttributeMembershipExpression;
+import io.fusionauth.scim.parser.expression.AttributeRangeExpression;
+import io.fusionauth.scim.parser.expression.AttributeTextComparisonExpression;
+import io.fusionauth.scim.parser.expression.Expression;
+import io.fusionauth.scim.parser.expression.LogicalChainExpression;
+import io.fusionauth.scim.parser.expression.LogicalNegationExpression;
+
+/**
+ * Rewrites a parsed {@link Expression} tree into an equivalent tree that is smaller or cheaper to evaluate. The rules that are applied are
+ * described by {@link OptimizerRule}.
+ * <p>
+ * The tree is flattened with {@link ExpressionFlattener} first, so the result uses {@link LogicalChainExpression}s rather than
+ * {@link io.fusionauth.scim.parser.expression.LogicalLinkExpression}s. The optimizer is stateless and may be shared between threads.
+ *
+ * @author Spencer Witt
+ */
+public class ExpressionOptimizer {
+  private final Set<OptimizerRule> rules;
+
+  /**
+   * Create an optimizer that applies every rule
+   */
+  public ExpressionOptimizer() {
+    this(EnumSet.allOf(OptimizerRule.class));
+  }
+
+  /**
+   * @param rules The rules to apply
+   */
+  public ExpressionOptimizer(Set<OptimizerRule> rules) {
+    this.rules = rules.isEmpty() ? EnumSet.noneOf(OptimizerRule.class) : EnumSet.copyOf(rules);
+  }
+
+  /**
+   * Optimize an expression tree
+   *
+   * @param exp The expression tree
+   * @return The optimized tree and the rewrites that produced it
+   */
+  public OptimizedExpression optimize(Expression exp) {
+    Map<OptimizerRule, Integer> rewrites = new EnumMap<>(OptimizerRule.class);
+    Expression optimized = visit(ExpressionFlattener.flatten(exp), rewrites);
+    return new OptimizedExpression(optimized, rewrites);
+  }
+
+  /**
+   * The complement of an expression. A comparison is not replaced by the opposite comparison, e.g. {@code not (emails.type eq "work")} is not the
+   * same as {@code emails.type ne "work"}, because a multi-valued attribute matches a comparison if any of its values match.
+   */
+  private static Expression complement(Expression exp) {
+    if (exp instanceof LogicalNegationExpression negation) {
+      return negation.subExpression;
+    }
+    return new LogicalNegationExpression(exp);
+  }
+
+  private static boolean isRangeBound(Expression exp, ComparisonOperator exclusive, ComparisonOperator inclusive) {
+    return exp instanceof AttributeComparisonExpression<?, ?> comparison &&
+           (comparison.operator == exclusive || comparison.operator == inclusive) &&
+           (comparison.valueType() == ValueType.number || comparison.valueType() == ValueType.date);
+  }
+
+  /**
+   * @return true if the expression is an {@code or} that contains both an operand and its complement
+   */
+  private static boolean isTautology(Expression exp) {
+    if (!(exp instanceof LogicalChainExpression chain) || chain.logicalOperator != LogicalOperator.or) {
+      return false;
+    }
+    Set<Expression> operands = new HashSet<>(chain.operands);
+    for (Expression operand : chain.operands) {
+      if (operands.contains(complement(operand))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void rewrote(Map<OptimizerRule, Integer> rewrites, OptimizerRule rule, int count) {
+    rewrites.merge(rule, count, Integer::sum);
+  }
+
+  /**
+   * Combine the text equality comparisons and memberships of each attribute into one membership in the position of the first of them
+   *
+   * @return The number of memberships that were created or extended
+   */
+  private static int mergeMemberships(List<Expression> operands) {
+    Map<String, Set<String>> valuesByPath = new LinkedHashMap<>();
+    Map<String, Integer> countByPath = new HashMap<>();
+    for (Expression operand : operands) {
+      String attributePath = membershipPath(operand);
+      if (attributePath != null) {
+        countByPath.merge(attributePath, 1, Integer::sum);
+      }
+    }
+
+    int merged = 0;
+    List<Expression> result = new ArrayList<>(operands.size());
+    for (Expression operand : operands) {
+      String attributePath = membershipPath(operand);
+      if (attributePath == null || countByPath.get(attributePath) < 2) {
+        result.add(operand);
+        continue;
+      }
+
+      Set<String> values = valuesByPath.get(attributePath);
+      if (values == null) {
+        values = new LinkedHashSet<>();
+        valuesByPath.put(attributePath, values);
+        // Reserve the position of the first comparison, the membership is created once all of its values are known
+        result.add(null);
+        merged++;
+      }
+      if (operand instanceof AttributeMembershipExpression membership) {
+        values.addAll(membership.values);
+      } else {
+        values.add(((AttributeTextComparisonExpression) operand).value());
+      }
+    }
+
+    if (merged == 0) {
+      return 0;
+    }
+    Iterator<Map.Entry<String, Set<String>>> memberships = valuesByPath.entrySet().iterator();
+    for (int i = 0; i < result.size(); i++) {
+      if (result.get(i) == null) {
+        Map.Entry<String, Set<String>> membership = memberships.next();
+        result.set(i, new AttributeMembershipExpression(membership.getKey(), membership.getValue()));
+      }
+    }
+    operands.clear();
+    operands.addAll(result);
+    return merged;
+  }
+
+  /**
+   * @return The attribute path of a text equality comparison or membership, or {@code null} for any other expression
+   */
+  private static String membershipPath(Expression exp) {
+    if (exp instanceof AttributeTextComparisonExpression text && text.operator == ComparisonOperator.eq) {
+      return text.attributePath;
+    } else if (exp instanceof AttributeMembershipExpression membership) {
+      return membership.attributePath;
+    }
+    return null;
+  }
+
+  /**
+   * Pair each lower bound with an upper bound on the same attribute. The operands are all part of one {@code and}, so any pairing is
+   * equivalent.
+   */
+  private static int mergeRanges(List<Expression> operands) {
+    int merged = 0;
+    for (int i = 0; i < operands.size(); i++) {
+      if (!isRangeBound(operands.get(i), ComparisonOperator.gt, ComparisonOperator.ge)) {
+        continue;
+      }
+      AttributeComparisonExpression<?, ?> lower = (AttributeComparisonExpression<?, ?>) operands.get(i);
+      for (int j = 0; j < operands.size(); j++) {
+        if (isRangeBound(operands.get(j), ComparisonOperator.lt, ComparisonOperator.le)) {
+          AttributeComparisonExpression<?, ?> upper = (AttributeComparisonExpression<?, ?>) operands.get(j);
+          if (lower.attributePath.equals(upper.attributePath) && lower.valueType() == upper.valueType()) {
+            operands.set(i, new AttributeRangeExpression(lower, upper));
+            operands.remove(j);
+            if (j < i) {
+              i--;
+            }
+            merged++;
+            break;
+          }
+        }
+      }
+    }
+    return merged;
+  }
+
+  private Expression visit(Expression exp, Map<OptimizerRule, Integer> rewrites) {
+    return switch (exp.type()) {
+      case logicalNegation -> visitNegation((LogicalNegationExpression) exp, rewrites);
+      case logicalChain -> visitChain((LogicalChainExpression) exp, rewrites);
+      case attributeFilterGrouping -> {
+        AttributeFilterGroupingExpression grouping = (AttributeFilterGroupingExpression) exp;
+        Expression filter = visit(grouping.filterExpression, rewrites);
+        yield filter == grouping.filterExpression ? grouping : new AttributeFilterGroupingExpression(grouping.parentAttributePath, filter);
+      }
+      // Links were removed by flattening the tree
+      case logicalLink -> visit(ExpressionFlattener.flatten(exp), rewrites);
+      case attribute, attributeMembership, attributeRange, grouping -> exp;
+    };
+  }
+
+  private Expression visitChain(LogicalChainExpression chain, Map<OptimizerRule, Integer> rewrites) {
+    List<Expression> operands = new ArrayList<>(chain.operands.size());
+    for (Expression operand : chain.operands) {
+      Expression visited = visit(operand, rewrites);
+      // A rewritten operand may now use the same operator, e.g. after De Morgan's laws are applied to it
+      if (visited instanceof LogicalChainExpression nested && nested.logicalOperator == chain.logicalOperator) {
+        operands.addAll(nested.operands);
+      } else {
+        operands.add(visited);
+      }
+    }
+
+    if (rules.contains(OptimizerRule.duplicate)) {
+      Set<Expression> unique = new LinkedHashSet<>(operands);
+      if (unique.size() < operands.size()) {
+        rewrote(rewrites, OptimizerRule.duplicate, operands.size() - unique.size());
+        operands = new ArrayList<>(unique);
+      }
+    }
+
+    if (chain.logicalOperator == LogicalOperator.and) {
+      if (rules.contains(OptimizerRule.tautology)) {
+        int before = operands.size();
+        Expression first = operands.get(0);
+        operands.removeIf(ExpressionOptimizer::isTautology);
+        if (operands.isEmpty()) {
+          // Every operand is always true. There is no expression for true, so keep one of them.
+          operands.add(first);
+        }
+        if (operands.size() < before) {
+          rewrote(rewrites, OptimizerRule.tautology, before - operands.size());
+        }
+      }
+      if (rules.contains(OptimizerRule.range)) {
+        int merged = mergeRanges(operands);
+        if (merged > 0) {
+          rewrote(rewrites, OptimizerRule.range, merged);
+        }
+      }
+    }
+
+    if (chain.logicalOperator == LogicalOperator.or && rules.contains(OptimizerRule.membership)) {
+      int merged = mergeMemberships(operands);
+      if (merged > 0) {
+        rewrote(rewrites, OptimizerRule.membership, merged);
+      }
+    }
+
+    if (operands.size() == 1) {
+      return operands.get(0);
+    }
+    return operands.equals(chain.operands) ? chain : new LogicalChainExpression(chain.logicalOperator, operands);
+  }
+
+  private Expression visitNegation(LogicalNegationExpression negation, Map<OptimizerRule, Integer> rewrites) {
+    Expression subExpression = negation.subExpression;
+    if (rules.contains(OptimizerRule.doubleNegation) && subExpression instanceof LogicalNegationExpression inner) {
+      rewrote(rewrites, OptimizerRule.doubleNegation, 1);
+      return visit(inner.subExpression, rewrites);
+    }
+
+    if (rules.contains(OptimizerRule.deMorgan)) {
+      if (subExpression instanceof LogicalChainExpression chain) {
+        rewrote(rewrites, OptimizerRule.deMorgan, 1);
+        List<Expression> negated = new ArrayList<>(chain.operands.size());
+        for (Expression operand : chain.operands) {
+          negated.add(new LogicalNegationExpression(operand));
+        }
+        LogicalOperator opposite = chain.logicalOperator == LogicalOperator.and ? LogicalOperator.or : LogicalOperator.and;
+        return visit(new LogicalChainExpression(opposite, negated), rewrites);
+      }
+    }
+
+    Expression visited = visit(subExpression, rewrites);
+    return visited == subExpression ? negation : new LogicalNegationExpression(visited);
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.transform;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import io.fusionauth.scim.parser.expression.Expression;
+import io.fusionauth.scim.utils.ToString;
+
+/**
+ * The result of {@link ExpressionOptimizer#optimize(Expression)}
+ *
+ * @author Spencer Witt
+ */
+public class OptimizedExpression {
+  /**
+   * The optimized expression tree
+   */
+  public final Expression expression;
+
+  /**
+   * The number of times each rule rewrote part of the tree. Rules that did not fire are not included.
+   */
+  public final Map<OptimizerRule, Integer> rewrites;
+
+  public OptimizedExpression(Expression expression, Map<OptimizerRule, Integer> rewrites) {
+    this.expression = expression;
+    this.rewrites = rewrites.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(new EnumMap<>(rewrites));
+  }
+
+  /**
+   * @return true if any rule rewrote part of the tree
+   */
+  public boolean rewritten() {
+    return !rewrites.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return ToString.toString(this);
+  }
+}
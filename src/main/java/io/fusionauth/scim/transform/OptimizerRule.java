@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.transform;
+
+/**
+ * The rewrite rules applied by {@link ExpressionOptimizer}
+ *
+ * @author Spencer Witt
+ */
+public enum OptimizerRule {
+  /**
+   * Removes a pair of negations, {@code not (not (A))} becomes {@code A}
+   */
+  doubleNegation,
+  /**
+   * Pushes a negation into a logical expression using De Morgan's laws, {@code not (A and B)} becomes {@code not (A) or not (B)}. A negated
+   * comparison keeps the negation. Replacing {@code eq} with {@code ne} is only equivalent for single-valued attributes, because a multi-valued
+   * attribute matches a comparison if any of its values match, and {@code gt} and {@code le} are not complements when the attribute is missing.
+   */
+  deMorgan,
+  /**
+   * Combines a {@code gt} or {@code ge} comparison and a {@code lt} or {@code le} comparison of the same number or date attribute in an
+   * {@code and} into a single {@link io.fusionauth.scim.parser.expression.AttributeRangeExpression}. This assumes the attribute is
+   * single-valued, for a multi-valued attribute the two comparisons may match different values.
+   */
+  range,
+  /**
+   * Removes an operand of an {@code and} or {@code or} that is equal to an earlier operand
+   */
+  duplicate,
+  /**
+   * Removes an operand of an {@code and} that is always true because it is an {@code or} containing both an expression and its negation
+   */
+  tautology,
+  /**
+   * Combines {@code eq} comparisons of the same attribute to text values in an {@code or} into a single
+   * {@link io.fusionauth.scim.parser.expression.AttributeMembershipExpression}. Number and date comparisons are not combined, because their
+   * equality is not the same as equality of the comparison values.
+   */
+  membership
+}
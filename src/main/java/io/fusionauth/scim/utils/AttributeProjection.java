@@ -0,0 +1,360 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.utils;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.databind.AnnotationIntrospector;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.AnnotatedClass;
+import com.fasterxml.jackson.databind.introspect.NopAnnotationIntrospector;
+import com.fasterxml.jackson.databind.ser.BeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.PropertyFilter;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import io.fusionauth.scim.domain.SCIMListResponse;
+import io.fusionauth.scim.domain.SCIMResource;
+import io.fusionauth.scim.parser.AttributePath;
+import io.fusionauth.scim.parser.ClockCache;
+
+/**
+ * Serializes only the requested attributes of SCIM resources, as requested with the {@code attributes} and {@code excludedAttributes}
+ * parameters in RFC 7644, section 3.4.2.5.
+ * <p>
+ * The attribute list is compiled once into a tree of attribute names, and the tree is applied with a Jackson
+ * {@link com.fasterxml.jackson.databind.ser.PropertyFilter} while the resource is written. Attributes that are not part of the projection are
+ * skipped before their value is read, so excluded attributes are never visited. The filter applies to the domain classes, such as
+ * {@link io.fusionauth.scim.domain.SCIMUser}, and to extension maps and other {@link Map}s, including
+ * {@link io.fusionauth.scim.domain.GenericSCIMResource}. In a {@link SCIMListResponse} the projection applies to each of the {@code Resources}.
+ * <p>
+ * Attribute names are case-insensitive. The {@code id} and {@code schemas} attributes are always returned. An extension attribute may be named by
+ * its schema URN to select the whole extension, or by its full path to select part of it.
+ * <p>
+ * Compiled projections are immutable and are cached by their canonical form, so lists that only differ in order, case or the core schema URN
+ * share a projection. To use a projection, call {@link #configure(ObjectMapper)} once on the mapper before it is used, then write with
+ * {@link #writer(ObjectMapper)}.
+ *
+ * @author Spencer Witt
+ */
+public final class AttributeProjection {
+  /**
+   * The id of the Jackson filter that applies projections
+   */
+  public static final String FilterId = "scimAttributeProjection";
+
+  /**
+   * The maximum number of cached projections. Once the cache is full, projections that have not been used recently are evicted.
+   */
+  public static final int MaximumCached = 1_000;
+
+  /**
+   * The projection that returns every attribute
+   */
+  public static final AttributeProjection Everything = new AttributeProjection("", Node.All);
+
+  private static final ClockCache<String, AttributeProjection> Cache = new ClockCache<>(MaximumCached, Long.MAX_VALUE, canonical -> 0);
+
+  /**
+   * The canonical form of the attribute list, e.g. {@code attributes=/emails/value,/username}
+   */
+  public final String canonical;
+
+  private final Filters filters;
+
+  private final Node root;
+
+  private AttributeProjection(String canonical, Node root) {
+    this.canonical = canonical;
+    this.root = root;
+    this.filters = new Filters(new Filter(root), null);
+  }
+
+  /**
+   * Return the projection that returns only the listed attributes, and the attributes that are always returned
+   *
+   * @param attributes A comma separated list of attribute paths
+   * @return The projection
+   */
+  public static AttributeProjection attributes(String attributes) {
+    return compile("attributes", attributes, false);
+  }
+
+  /**
+   * Prepare an object mapper to write projections. Every class is assigned the projection filter, and writes that do not use a projection are not
+   * filtered.
+   * <p>
+   * Filters that the mapper already has are kept. A class annotated with its own {@link com.fasterxml.jackson.annotation.JsonFilter} keeps that
+   * filter and is not projected, and the mapper's filter provider is still used to find it. Configuring a mapper more than once has no effect.
+   *
+   * @param mapper The object mapper
+   * @return The object mapper
+   */
+  public static ObjectMapper configure(ObjectMapper mapper) {
+    FilterProvider existing = mapper.getSerializationConfig().getFilterProvider();
+    if (existing instanceof Filters) {
+      return mapper;
+    }
+
+    AnnotationIntrospector introspector = mapper.getSerializationConfig().getAnnotationIntrospector();
+    mapper.setAnnotationIntrospector(AnnotationIntrospector.pair(introspector, new FilterIntrospector()));
+    mapper.setFilterProvider(new Filters(null, existing));
+    return mapper;
+  }
+
+  /**
+   * Return the projection that returns every attribute except the listed attributes
+   *
+   * @param excludedAttributes A comma separated list of attribute paths
+   * @return The projection
+   */
+  public static AttributeProjection excludedAttributes(String excludedAttributes) {
+    return compile("excludedAttributes", excludedAttributes, true);
+  }
+
+  /**
+   * Return the projection for the {@code attributes} and {@code excludedAttributes} parameters of a request. The {@code attributes} parameter
+   * takes precedence when both are given.
+   *
+   * @param attributes         The attributes parameter, or null
+   * @param excludedAttributes The excludedAttributes parameter, or null
+   * @return The projection
+   */
+  public static AttributeProjection of(String attributes, String excludedAttributes) {
+    if (attributes != null && !attributes.isBlank()) {
+      return attributes(attributes);
+    } else if (excludedAttributes != null && !excludedAttributes.isBlank()) {
+      return excludedAttributes(excludedAttributes);
+    }
+    return Everything;
+  }
+
+  private static void add(Node root, Iterable<String> segments, Node leaf) {
+    Node node = root;
+    String previous = null;
+    for (String segment : segments) {
+      if (previous != null) {
+        Node child = node.children.get(previous);
+        if (child == leaf) {
+          // The whole attribute is already selected
+          return;
+        }
+        if (child == null) {
+          child = new Node(node.other);
+          node.children.put(previous, child);
+        }
+        node = child;
+      }
+      previous = segment;
+    }
+    node.children.put(previous, leaf);
+  }
+
+  private static AttributeProjection compile(String parameter, String attributes, boolean excluded) {
+    // The parsed paths by pointer, which is the canonical form of a path
+    TreeMap<String, AttributePath> paths = new TreeMap<>();
+    TreeSet<String> wholeNames = new TreeSet<>();
+    for (String attribute : attributes.split(",")) {
+      attribute = attribute.trim();
+      if (attribute.isEmpty()) {
+        continue;
+      }
+
+      AttributePath path = AttributePath.of(attribute.toLowerCase(Locale.ROOT));
+      paths.put(path.pointer.toString(), path);
+      if (path.schema != null && path.subAttribute == null && path.segments.size() == 2) {
+        // A schema URN on its own names a whole extension
+        wholeNames.add(path.path);
+      }
+    }
+
+    String canonical = parameter + "=" + String.join(",", paths.keySet());
+    AttributeProjection projection = Cache.get(canonical);
+    if (projection != null) {
+      return projection;
+    }
+
+    Node leaf = excluded ? Node.None : Node.All;
+    Node root = new Node(excluded ? Node.All : Node.None);
+    for (AttributePath path : paths.values()) {
+      add(root, path.segments, leaf);
+    }
+    for (String name : wholeNames) {
+      root.children.put(name, leaf);
+    }
+
+    // The attributes that are always returned
+    for (String name : new String[]{"id", "schemas"}) {
+      if (excluded) {
+        root.children.remove(name);
+      } else {
+        root.children.put(name, Node.All);
+      }
+    }
+
+    return Cache.putIfAbsent(canonical, new AttributeProjection(canonical, root));
+  }
+
+  /**
+   * @return The filters to write with, for use with {@link ObjectMapper#writer(FilterProvider)}. Only the projection filter is provided, use
+   *     {@link #writer(ObjectMapper)} to keep the mapper's own filters.
+   */
+  public FilterProvider filters() {
+    return filters;
+  }
+
+  @Override
+  public String toString() {
+    return canonical;
+  }
+
+  /**
+   * Return a writer that writes this projection of each value
+   *
+   * @param mapper An object mapper prepared with {@link #configure(ObjectMapper)}
+   * @return The writer
+   */
+  public ObjectWriter writer(ObjectMapper mapper) {
+    FilterProvider existing = mapper.getSerializationConfig().getFilterProvider();
+    return mapper.writer(new Filters(filters.projection, existing instanceof Filters configured ? configured.other : existing));
+  }
+
+  /**
+   * Applies the projection to each property as it is written
+   */
+  private static final class Filter extends SimpleBeanPropertyFilter {
+    private final Node root;
+
+    private Filter(Node root) {
+      this.root = root;
+    }
+
+    @Override
+    public void serializeAsField(Object pojo, JsonGenerator gen, SerializerProvider provider, PropertyWriter writer) throws Exception {
+      Node node = root == Node.All ? Node.All : resolve(gen.getOutputContext());
+      if (node == Node.All || node.child(writer.getName()) != Node.None) {
+        writer.serializeAsField(pojo, gen, provider);
+      } else if (!gen.canOmitFields()) {
+        writer.serializeAsOmittedField(pojo, gen, provider);
+      }
+    }
+
+    /**
+     * Return the projection of the object that is being written in the given context
+     */
+    private Node resolve(JsonStreamContext context) {
+      Object value = context.getCurrentValue();
+      if (value instanceof SCIMResource) {
+        return root;
+      } else if (value instanceof SCIMListResponse) {
+        return Node.All;
+      }
+
+      JsonStreamContext parent = context.getParent();
+      while (parent != null && parent.inArray()) {
+        parent = parent.getParent();
+      }
+      if (parent == null || parent.inRoot()) {
+        return root;
+      }
+
+      Node node = resolve(parent);
+      return node == Node.All ? Node.All : node.child(parent.getCurrentName());
+    }
+  }
+
+  /**
+   * Assigns the projection filter to every class that does not have a filter of its own
+   */
+  private static final class FilterIntrospector extends NopAnnotationIntrospector {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public Object findFilterId(Annotated annotated) {
+      return annotated instanceof AnnotatedClass ? FilterId : null;
+    }
+  }
+
+  /**
+   * Provides the projection filter, and finds any other filter with the mapper's own filter provider
+   */
+  private static final class Filters extends FilterProvider {
+    final FilterProvider other;
+
+    final PropertyFilter projection;
+
+    Filters(PropertyFilter projection, FilterProvider other) {
+      this.other = other;
+      this.projection = projection;
+    }
+
+    @Override
+    @Deprecated
+    public BeanPropertyFilter findFilter(Object filterId) {
+      return other != null ? other.findFilter(filterId) : null;
+    }
+
+    @Override
+    public PropertyFilter findPropertyFilter(Object filterId, Object valueToFilter) {
+      if (FilterId.equals(filterId)) {
+        return projection;
+      }
+      return other != null ? other.findPropertyFilter(filterId, valueToFilter) : null;
+    }
+  }
+
+  /**
+   * The projection of an attribute, by the names of its sub-attributes
+   */
+  private static final class Node {
+    /**
+     * Every sub-attribute is returned
+     */
+    static final Node All = new Node(null);
+
+    /**
+     * The attribute is not returned
+     */
+    static final Node None = new Node(null);
+
+    final Map<String, Node> children = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    /**
+     * The projection of the sub-attributes that are not named, which is {@link #All} or {@link #None}
+     */
+    final Node other;
+
+    Node(Node other) {
+      this.other = other;
+    }
+
+    Node child(String name) {
+      if (this == All) {
+        return All;
+      }
+      Node child = children.get(name);
+      return child != null ? child : other;
+    }
+  }
+}
@@ -40,6 +40,42 @@ public class SCIMDateTools {
     return SCIMDateTimeFormatter.format(zonedDateTime);
   }
 
+  /**
+   * Check if a string has the shape of a SCIM date-time without parsing it. This is a cheap way to rule out values that {@link #parse(String)} would
+   * reject, and does not throw or allocate.
+   * <p>
+   * Only the fixed width fields are checked: a year of at least four characters followed by {@code -MM-dd'T'HH:mm:ss}. A string that passes this
+   * check may still fail to parse, a string that fails it will never parse.
+   *
+   * @param s an input string to check
+   * @return true if the string could be a SCIM date-time
+   */
+  public static boolean isDateTimeCandidate(CharSequence s) {
+    int length = s.length();
+    // The shortest date-time has a four-digit year and no fraction or offset, yyyy-MM-ddTHH:mm:ss
+    if (length < 19) {
+      return false;
+    }
+
+    // The year may be longer than four digits, so find the date and time separator and check the fixed width fields around it
+    int t = -1;
+    for (int i = 10; i < length; i++) {
+      if (s.charAt(i) == 'T') {
+        t = i;
+        break;
+      }
+    }
+    if (t == -1 || t + 8 >= length) {
+      return false;
+    }
+
+    return s.charAt(t - 6) == '-' && isDigit(s, t - 5) && isDigit(s, t - 4) &&
+           s.charAt(t - 3) == '-' && isDigit(s, t - 2) && isDigit(s, t - 1) &&
+           isDigit(s, t + 1) && isDigit(s, t + 2) && s.charAt(t + 3) == ':' &&
+           isDigit(s, t + 4) && isDigit(s, t + 5) && s.charAt(t + 6) == ':' &&
+           isDigit(s, t + 7) && isDigit(s, t + 8);
+  }
+
   /**
    * Parse a date string for SCIM into a {@link ZonedDateTime}.
    * <p>
@@ -51,4 +87,9 @@ public class SCIMDateTools {
   public static ZonedDateTime parse(String s) {
     return ZonedDateTime.from(SCIMDateTimeParser.parse(s));
   }
+
+  private static boolean isDigit(CharSequence s, int index) {
+    char c = s.charAt(index);
+    return c >= '0' && c <= '9';
+  }
 }
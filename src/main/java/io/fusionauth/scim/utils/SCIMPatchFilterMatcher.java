@@ -22,16 +22,22 @@ import java.time.ZonedDateTime;
 import com.fasterxml.jackson.databind.JsonNode;
 import io.fusionauth.scim.parser.ComparisonOperator;
 import io.fusionauth.scim.parser.InvalidFilterExpressionException;
+import io.fusionauth.scim.parser.LogicalOperator;
 import io.fusionauth.scim.parser.ValueType;
 import io.fusionauth.scim.parser.expression.AttributeBooleanComparisonExpression;
 import io.fusionauth.scim.parser.expression.AttributeComparisonExpression;
 import io.fusionauth.scim.parser.expression.AttributeDateComparisonExpression;
 import io.fusionauth.scim.parser.expression.AttributeExpression;
+import io.fusionauth.scim.parser.expression.AttributeMembershipExpression;
 import io.fusionauth.scim.parser.expression.AttributeNullTestExpression;
 import io.fusionauth.scim.parser.expression.AttributeNumberComparisonExpression;
 import io.fusionauth.scim.parser.expression.AttributePresentTestExpression;
+import io.fusionauth.scim.parser.expression.AttributeRangeExpression;
 import io.fusionauth.scim.parser.expression.AttributeTextComparisonExpression;
 import io.fusionauth.scim.parser.expression.Expression;
+import io.fusionauth.scim.parser.expression.LogicalChainExpression;
+import io.fusionauth.scim.parser.expression.LogicalLinkExpression;
+import io.fusionauth.scim.parser.expression.LogicalNegationExpression;
 
 /**
  * @author Daniel DeGroff
@@ -46,8 +52,7 @@ public class SCIMPatchFilterMatcher {
    */
   public static boolean matches(Expression expression, JsonNode node) {
     if (expression instanceof AttributePresentTestExpression present) {
-      String attributePath = "/" + present.attributePath.replace(".", "/");
-      return !node.at(attributePath).isMissingNode();
+      return !node.at(present.path.pointer).isMissingNode();
     }
 
     if (expression instanceof AttributeNullTestExpression nullTest) {
@@ -58,9 +63,45 @@ public class SCIMPatchFilterMatcher {
           : !node.isNull();
     }
 
+    if (expression instanceof LogicalChainExpression chain) {
+      // Short-circuit on the first operand that decides the result
+      boolean and = chain.logicalOperator == LogicalOperator.and;
+      for (Expression operand : chain.operands) {
+        if (matches(operand, node) != and) {
+          return !and;
+        }
+      }
+      return and;
+    }
+
+    if (expression instanceof LogicalLinkExpression) {
+      // Chains of logical operators nest to the right, so walk down the right-hand side with a loop rather than recursing once per operator
+      Expression current = expression;
+      while (current instanceof LogicalLinkExpression link) {
+        boolean left = matches(link.left, node);
+        if (link.logicalOperator == LogicalOperator.and ? !left : left) {
+          return left;
+        }
+        current = link.right;
+      }
+      return matches(current, node);
+    }
+
+    if (expression instanceof AttributeMembershipExpression membership) {
+      return membership.values.contains(node.at(membership.path.pointer).asText());
+    }
+
+    if (expression instanceof AttributeRangeExpression range) {
+      return matches(range.lower, node) && matches(range.upper, node);
+    }
+
+    if (expression instanceof LogicalNegationExpression negation) {
+      return !matches(negation.subExpression, node);
+    }
+
     if (expression instanceof AttributeComparisonExpression<?, ?> attributeExpression) {
       ComparisonOperator operator = attributeExpression.operator;
-      JsonNode subAttribute = node.at("/" + attributeExpression.attributePath.replace(".", "/"));
+      JsonNode subAttribute = node.at(attributeExpression.path.pointer);
 
       return switch (operator) {
         case eq -> equal(attributeExpression, subAttribute);
@@ -187,8 +187,8 @@ public class SCIMPatchTools {
 
           String filterValue = value.get(attributePath).asText();
 
+          AttributeTextComparisonExpression expression = new AttributeTextComparisonExpression(attributePath, ComparisonOperator.eq, filterValue);
           for (int i = 0; i < array.size(); i++) {
-            AttributeTextComparisonExpression expression = new AttributeTextComparisonExpression(attributePath, ComparisonOperator.eq, filterValue);
             if (SCIMPatchFilterMatcher.matches(expression, array.get(i))) {
               // Make a copy since we may create more than one of these from the initial SCIM op
               // - Add a new op to the result for each matching node. It is plausible we'll match more than one node.
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.filter;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fusionauth.scim.parser.SCIMFilterParser;
+import io.fusionauth.scim.parser.expression.Expression;
+import io.fusionauth.scim.transform.ExpressionOptimizer;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * @author Spencer Witt
+ */
+public class BytecodeFilterCompilerTest {
+  private final JsonNodeFilterCompiler interpreter = new JsonNodeFilterCompiler();
+
+  private final SCIMFilterParser parser = new SCIMFilterParser();
+
+  private final List<JsonNode> resources = new ArrayList<>();
+
+  @BeforeClass
+  public void beforeClass() throws Exception {
+    ObjectMapper objectMapper = new ObjectMapper();
+    // @formatter:off
+    resources.add(objectMapper.readTree("""
+        {"userName": "bjensen", "active": true, "age": 42, "score": 4.5, "name": {"givenName": "Barbara"},
+         "emails": [{"value": "bjensen@example.com", "type": "work"}, {"value": "babs@jensen.org", "type": "home"}]}
+        """));
+    resources.add(objectMapper.readTree("""
+        {"userName": "jsmith", "active": false, "age": 9223372036854775807, "score": 42, "name": {"givenName": null},
+         "emails": {"value": "jsmith@example.com", "type": "work"}}
+        """));
+    resources.add(objectMapper.readTree("""
+        {"userName": ["a", "b"], "age": "42", "name": "Barbara"}
+        """));
+    // @formatter:on
+  }
+
+  @DataProvider(name = "filters")
+  public Object[][] filters() {
+    return new Object[][]{
+        {"userName eq \"bjensen\""},
+        {"userName ne \"bjensen\""},
+        {"userName co \"smi\""},
+        {"userName sw \"bj\""},
+        {"userName ew \"th\""},
+        {"userName gt \"c\""},
+        {"userName ge \"jsmith\""},
+        {"userName lt \"c\""},
+        {"userName le \"bjensen\""},
+        {"userName eq \"a\""},
+        {"name.givenName eq \"Barbara\""},
+        {"name.givenName eq \"\""},
+        {"emails.type eq \"work\""},
+        {"emails.value ew \"@jensen.org\""},
+        {"emails[type eq \"home\"]"},
+        {"age eq 42"},
+        {"age eq 42.9"},
+        {"age eq 42.0"},
+        {"age lt 42.5"},
+        {"age ge 41.5"},
+        {"score eq 42.0"},
+        {"score lt 100"},
+        {"active eq false"},
+        {"age ne 42"},
+        {"age gt 41"},
+        {"age ge 9223372036854775807"},
+        {"age lt 100"},
+        {"age le 42"},
+        {"age gt 99999999999999999999"},
+        {"score eq 4.5"},
+        {"score gt 4"},
+        {"active eq true"},
+        {"name.givenName pr"},
+        {"name.givenName eq null"},
+        {"userName eq \"bjensen\" and age gt 40"},
+        {"userName eq \"jsmith\" or age lt 10 or active eq true"},
+        {"not (userName sw \"b\") and (age ge 42 or emails[type eq \"work\"])"},
+        {"not (not (userName eq \"bjensen\"))"},
+        {"age gt 40 and age lt 50"},
+        {"userName eq \"x\" or userName eq \"y\" or userName eq \"jsmith\""},
+    };
+  }
+
+  @Test(dataProvider = "filters")
+  public void generated(String filter) {
+    Expression expression = parser.parse(filter);
+    BytecodeFilterCompiler compiler = new BytecodeFilterCompiler(0);
+    Predicate<JsonNode> generated = compiler.compile(expression);
+    assertTrue(isGenerated(generated));
+
+    // The optimizer introduces ranges and memberships
+    Predicate<JsonNode> optimized = compiler.compile(new ExpressionOptimizer().optimize(expression).expression);
+
+    Predicate<JsonNode> interpreted = interpreter.compile(expression);
+    for (JsonNode resource : resources) {
+      boolean expected = interpreted.test(resource);
+      assertEquals(filter + " " + resource, expected, generated.test(resource));
+      assertEquals(filter + " " + resource, expected, optimized.test(resource));
+    }
+  }
+
+  @Test
+  public void largeFilter() {
+    StringBuilder filter = new StringBuilder();
+    for (int i = 0; i < 2_000; i++) {
+      filter.append("userName eq \"").append(i).append("\" or ");
+    }
+
+    // The optimizer turns the chain into a single membership, which is generated
+    Predicate<JsonNode> predicate = new BytecodeFilterCompiler(0).compile(parser.parse(filter + "userName eq \"jsmith\""));
+    assertTrue(isGenerated(predicate));
+    assertFalse(predicate.test(resources.get(0)));
+    assertTrue(predicate.test(resources.get(1)));
+
+    // Comparisons of different attributes can not be combined, so a long chain stays interpreted
+    filter = new StringBuilder();
+    for (int i = 0; i <= JsonNodeFilterGenerator.MaximumComparisons; i++) {
+      filter.append("attribute").append(i).append(" eq \"").append(i).append("\" or ");
+    }
+    predicate = new BytecodeFilterCompiler(0).compile(parser.parse(filter + "userName eq \"jsmith\""));
+    assertFalse(isGenerated(predicate));
+    assertFalse(predicate.test(resources.get(0)));
+    assertTrue(predicate.test(resources.get(1)));
+  }
+
+  @Test
+  public void promotion() {
+    Predicate<JsonNode> predicate = new BytecodeFilterCompiler(10).compile(parser.parse("userName eq \"bjensen\" and age gt 40"));
+    for (int i = 0; i < 30; i++) {
+      assertTrue(predicate.test(resources.get(0)));
+      assertFalse(predicate.test(resources.get(1)));
+    }
+  }
+
+  @Test
+  public void concurrentPromotion() throws Exception {
+    Predicate<JsonNode> predicate = new BytecodeFilterCompiler(1_000).compile(parser.parse("userName eq \"bjensen\" and age gt 40"));
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      threads.add(new Thread(() -> {
+        for (int j = 0; j < 1_000; j++) {
+          assertTrue(predicate.test(resources.get(0)));
+        }
+      }));
+    }
+    threads.forEach(Thread::start);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    // Evaluations from every thread are counted, so the filter is promoted even when the threshold is passed concurrently
+    Field delegate = predicate.getClass().getDeclaredField("delegate");
+    delegate.setAccessible(true);
+    @SuppressWarnings("unchecked")
+    Predicate<JsonNode> promoted = (Predicate<JsonNode>) delegate.get(predicate);
+    assertTrue(isGenerated(promoted));
+  }
+
+  @Test
+  public void textOrdering() {
+    // The attribute is compared to the value, so "bjensen" is greater than "a"
+    Object[][] expected = {
+        {"userName gt \"a\"", true},
+        {"userName gt \"z\"", false},
+        {"userName gt \"bjensen\"", false},
+        {"userName ge \"bjensen\"", true},
+        {"userName lt \"c\"", true},
+        {"userName lt \"b\"", false},
+        {"userName le \"bjensen\"", true},
+        {"userName le \"a\"", false}
+    };
+    for (Object[] row : expected) {
+      assertEquals((String) row[0], row[1], new BytecodeFilterCompiler(0).compile(parser.parse((String) row[0])).test(resources.get(0)));
+    }
+  }
+
+  private boolean isGenerated(Predicate<JsonNode> predicate) {
+    // Lambdas are hidden classes too, so check the name of the class
+    return predicate.getClass().isHidden() && predicate.getClass().getName().contains("GeneratedFilter");
+  }
+}
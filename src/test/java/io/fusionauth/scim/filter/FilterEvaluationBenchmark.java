@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.filter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fusionauth.scim.parser.SCIMFilterParser;
+import io.fusionauth.scim.parser.expression.Expression;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the time to evaluate a compiled filter against a single resource with each backend. Run the {@link #main(String[])} method from the
+ * test classpath.
+ *
+ * @author Spencer Witt
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class FilterEvaluationBenchmark {
+  @Param({"interpreted", "generated"})
+  public String backend;
+
+  @Param({"text", "number", "complex", "long", "distinct"})
+  public String shape;
+
+  private Predicate<JsonNode> predicate;
+
+  private JsonNode resource;
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(FilterEvaluationBenchmark.class.getSimpleName()).build()).run();
+  }
+
+  @Benchmark
+  public boolean evaluate() {
+    return predicate.test(resource);
+  }
+
+  @Setup
+  public void setup() throws Exception {
+    // @formatter:off
+    resource = new ObjectMapper().readTree("""
+        {
+          "userName": "bjensen",
+          "userType": "Employee",
+          "active": true,
+          "externalId": "99",
+          "loginCount": 42,
+          "name": {"givenName": "Barbara", "familyName": "Jensen"},
+          "emails": [{"value": "bjensen@example.com", "type": "work"}]
+        }
+        """);
+    // @formatter:on
+
+    String filter = switch (shape) {
+      case "text" -> "userName eq \"bjensen\"";
+      case "number" -> "loginCount gt 10 and loginCount le 100";
+      case "complex" -> "userType eq \"Employee\" and name.familyName sw \"J\" and not (emails[type eq \"home\"] or active eq false)";
+      case "long" -> longFilter(false);
+      case "distinct" -> longFilter(true);
+      default -> throw new IllegalArgumentException("Unexpected shape [" + shape + "]");
+    };
+    Expression expression = new SCIMFilterParser().parse(filter);
+    predicate = switch (backend) {
+      case "interpreted" -> new JsonNodeFilterCompiler().compile(expression);
+      case "generated" -> new BytecodeFilterCompiler(0).compile(expression);
+      default -> throw new IllegalArgumentException("Unexpected backend [" + backend + "]");
+    };
+  }
+
+  private String longFilter(boolean distinct) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      if (i > 0) {
+        sb.append(" or ");
+      }
+      // Comparisons of one attribute can be combined into a membership by the optimizer, comparisons of different attributes can not
+      sb.append(distinct ? "attribute" + i : "externalId").append(" eq \"").append(i).append("\"");
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.filter;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fusionauth.scim.parser.SCIMFilterParser;
+import io.fusionauth.scim.transform.ExpressionOptimizer;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * @author Spencer Witt
+ */
+public class FilterIndexTest {
+  private static final List<String> Filters = List.of(
+      "userName eq \"bjensen\"",
+      "userName eq \"jsmith\" and active eq true",
+      "userName sw \"bj\"",
+      "userName sw \"\"",
+      "title eq \"\"",
+      "title pr",
+      "name.givenName eq \"Barbara\" or name.givenName eq \"John\"",
+      "emails[type eq \"work\" and value ew \"@example.com\"]",
+      "emails[not (type eq \"work\")]",
+      "emails.value sw \"babs@\"",
+      "age gt 40",
+      "age eq 42",
+      "not (userName eq \"bjensen\")",
+      "userName eq \"x\" or age lt 10",
+      "active eq true and (userName sw \"j\" or userName sw \"b\")",
+      "urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:employeeNumber eq \"701984\"",
+      "userName eq \"a\" or userName eq \"b\" or userName eq \"c\""
+  );
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final SCIMFilterParser parser = new SCIMFilterParser();
+
+  private List<JsonNode> resources;
+
+  @BeforeClass
+  public void beforeClass() throws Exception {
+    // @formatter:off
+    resources = List.of(
+        objectMapper.readTree("""
+            {"userName": "bjensen", "active": true, "age": 42, "title": "Tour Guide", "name": {"givenName": "Barbara"},
+             "emails": [{"value": "bjensen@example.com", "type": "work"}, {"value": "babs@jensen.org", "type": "home"}],
+             "urn:ietf:params:scim:schemas:extension:enterprise:2.0:User": {"employeeNumber": "701984"}}
+            """),
+        objectMapper.readTree("""
+            {"userName": "jsmith", "active": true, "age": 9, "name": {"givenName": "John"}, "emails": {"value": "jsmith@example.com", "type": "work"}}
+            """),
+        objectMapper.readTree("""
+            {"userName": ["a", "z"], "title": null}
+            """),
+        objectMapper.readTree("""
+            {}
+            """));
+    // @formatter:on
+  }
+
+  @Test
+  public void matches() {
+    FilterIndex<String> index = new FilterIndex<>();
+    FilterIndex<String> optimized = new FilterIndex<>();
+    JsonNodeFilterCompiler compiler = new JsonNodeFilterCompiler();
+    for (String filter : Filters) {
+      index.add(filter, parser.parse(filter));
+      // The optimizer introduces memberships
+      optimized.add(filter, new ExpressionOptimizer().optimize(parser.parse(filter)).expression);
+    }
+    assertEquals(Filters.size(), index.size());
+
+    for (JsonNode resource : resources) {
+      Set<String> expected = new LinkedHashSet<>();
+      for (String filter : Filters) {
+        if (compiler.compile(parser.parse(filter)).test(resource)) {
+          expected.add(filter);
+        }
+      }
+
+      assertEquals(resource.toString(), expected, index.matches(resource));
+      assertEquals(resource.toString(), expected, optimized.matches(resource));
+      assertTrue(resource.toString(), index.candidates(resource).containsAll(expected));
+    }
+  }
+
+  @Test
+  public void candidates() {
+    FilterIndex<Integer> index = new FilterIndex<>();
+    for (int i = 0; i < 10_000; i++) {
+      index.add(i, parser.parse("userName eq \"user" + i + "\" and active eq true"));
+    }
+    index.add(-1, parser.parse("emails[value sw \"bjensen@\"]"));
+    index.add(-2, parser.parse("age gt 40"));
+
+    JsonNode resource = objectMapper.createObjectNode().put("userName", "user42").put("active", true);
+    // Only the filter on the same user name and the residual filter are candidates
+    assertEquals(Set.of(42, -2), index.candidates(resource));
+    assertEquals(Set.of(42), index.matches(resource));
+    assertEquals(Set.of(-1, -2), index.matches(resources.get(0)));
+
+    assertTrue(index.remove(42));
+    assertFalse(index.remove(42));
+    assertTrue(index.remove(-1));
+    assertEquals(Set.of(-2), index.candidates(resource));
+    assertEquals(Set.of(-2), index.candidates(resources.get(0)));
+
+    // Adding a filter with the same key replaces it
+    index.add(-2, parser.parse("userName sw \"user4\""));
+    assertEquals(Set.of(-2), index.matches(resource));
+    assertEquals(10_000, index.size());
+  }
+
+  @Test
+  public void duplicateGuards() {
+    // Both operands of the or are guarded by the same title value
+    FilterIndex<String> index = new FilterIndex<>();
+    String filter = "title eq \"x\" or (title eq \"x\" and active eq true)";
+    index.add("duplicate", parser.parse(filter));
+    JsonNode resource = objectMapper.createObjectNode().put("title", "x");
+    assertEquals(Set.of("duplicate"), index.matches(resource));
+
+    // The filter can be replaced and removed
+    index.add("duplicate", parser.parse(filter));
+    index.add("other", parser.parse("title eq \"x\""));
+    assertEquals(Set.of("duplicate", "other"), index.matches(resource));
+    assertTrue(index.remove("duplicate"));
+    assertEquals(Set.of("other"), index.matches(resource));
+    assertTrue(index.remove("other"));
+    assertEquals(Set.of(), index.candidates(resource));
+    assertEquals(0, index.size());
+  }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.filter;
+
+import java.util.function.Predicate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fusionauth.scim.parser.ComparisonOperator;
+import io.fusionauth.scim.parser.InvalidFilterExpressionException;
+import io.fusionauth.scim.parser.SCIMFilterParser;
+import io.fusionauth.scim.parser.expression.AttributeBooleanComparisonExpression;
+import io.fusionauth.scim.parser.expression.Expression;
+import io.fusionauth.scim.transform.ExpressionOptimizer;
+import io.fusionauth.scim.utils.SCIMPatchFilterMatcher;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.fail;
+
+/**
+ * @author Spencer Witt
+ */
+public class JsonNodeFilterCompilerTest {
+  private final JsonNodeFilterCompiler compiler = new JsonNodeFilterCompiler();
+
+  private final SCIMFilterParser parser = new SCIMFilterParser();
+
+  private JsonNode user;
+
+  @BeforeClass
+  public void beforeClass() throws Exception {
+    // @formatter:off
+    user = new ObjectMapper().readTree("""
+        {
+          "schemas": ["urn:ietf:params:scim:schemas:core:2.0:User", "urn:ietf:params:scim:schemas:extension:enterprise:2.0:User"],
+          "userName": "bjensen",
+          "active": true,
+          "nickName": null,
+          "name": {
+            "familyName": "Jensen",
+            "givenName": "Barbara"
+          },
+          "emails": [
+            {"value": "bjensen@example.com", "type": "work", "primary": true},
+            {"value": "babs@jensen.org", "type": "home"}
+          ],
+          "meta": {
+            "lastModified": "2022-09-02T15:14:45Z"
+          },
+          "urn:ietf:params:scim:schemas:extension:enterprise:2.0:User": {
+            "employeeNumber": "701984",
+            "costCenter": 4130
+          }
+        }
+        """);
+    // @formatter:on
+  }
+
+  @DataProvider(name = "data")
+  public Object[][] data() {
+    return new Object[][]{
+        {"userName eq \"bjensen\"", true},
+        {"userName eq \"BJensen\"", false},
+        {"userName sw \"bj\" and userName ew \"sen\"", true},
+        {"name.givenName co \"arb\"", true},
+        {"urn:ietf:params:scim:schemas:core:2.0:User:name.familyName eq \"Jensen\"", true},
+        {"urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:employeeNumber eq \"701984\"", true},
+        {"urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:costCenter gt 4000", true},
+        {"urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:costCenter le 4000", false},
+        {"active eq true", true},
+        {"active ne true", false},
+        {"meta.lastModified gt \"2022-09-01T00:00:00Z\"", true},
+        {"meta.lastModified ge \"2022-09-02T15:14:45Z\"", true},
+        {"meta.lastModified lt \"2022-09-02T15:14:45Z\"", false},
+        {"userName gt \"2022-09-01T00:00:00Z\"", false},
+
+        // Numbers are compared by their full value
+        {"urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:costCenter eq 4130.0", true},
+        {"urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:costCenter eq 4130.5", false},
+        {"urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:costCenter lt 4130.5", true},
+        {"urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:costCenter ge 4130.5", false},
+
+        // Missing or mistyped attributes never match a number or boolean comparison, except ne
+        {"urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:employeeNumber eq 701984", false},
+        {"loginCount lt 5000", false},
+        {"loginCount le 0", false},
+        {"loginCount eq 0", false},
+        {"loginCount gt -1", false},
+        {"loginCount ne 0", true},
+        {"nickName eq 0", false},
+        {"title eq false", false},
+        {"title ne false", true},
+        {"nickName eq false", false},
+        {"userName eq false", false},
+
+        // Multi-valued attributes match when any value matches
+        {"emails.value ew \"@jensen.org\"", true},
+        {"emails.type eq \"other\"", false},
+        {"schemas eq \"urn:ietf:params:scim:schemas:extension:enterprise:2.0:User\"", true},
+        {"emails[type eq \"work\" and value co \"@example.com\"]", true},
+        {"emails[type eq \"home\" and value co \"@example.com\"]", false},
+        {"emails[type eq \"home\"] and emails[primary eq true]", true},
+        {"emails[not (type eq \"home\")]", true},
+        {"name[givenName eq \"Barbara\"]", true},
+        {"addresses[type eq \"work\"]", false},
+
+        // Present and null tests
+        {"title pr", false},
+        {"nickName pr", false},
+        {"nickName eq null", true},
+        {"name pr and name.givenName ne null", true},
+        {"emails.display pr", false},
+
+        // Logical operators
+        {"userName eq \"x\" or active eq true", true},
+        {"not (userName eq \"x\") and not (active eq false)", true},
+        {"not (userName eq \"bjensen\" or active eq false)", false},
+        {"(userName eq \"x\" or name.givenName eq \"Barbara\") and emails[type eq \"work\"]", true},
+    };
+  }
+
+  @Test
+  public void booleanOrdering() {
+    try {
+      // The parser rejects this filter, but an expression can be built directly
+      compiler.compile(new AttributeBooleanComparisonExpression("active", ComparisonOperator.gt, true));
+      fail("Expected an exception");
+    } catch (InvalidFilterExpressionException e) {
+      assertEquals("The gt or ge operator cannot be used with a boolean type value.", e.getMessage());
+    }
+  }
+
+  @Test(dataProvider = "data")
+  public void compile(String filter, boolean expected) {
+    Expression expression = parser.parse(filter);
+    assertEquals(filter, expected, compiler.compile(expression).test(user));
+
+    // The optimized tree gives the same result
+    assertEquals(filter, expected, compiler.compile(new ExpressionOptimizer().optimize(expression).expression).test(user));
+  }
+
+  @Test
+  public void longChain() {
+    StringBuilder filter = new StringBuilder();
+    for (int i = 0; i < 10_000; i++) {
+      filter.append("userName eq \"").append(i).append("\" or ");
+    }
+
+    Predicate<JsonNode> predicate = compiler.compile(parser.parse(filter + "name.givenName eq \"Barbara\""));
+    assertEquals(true, predicate.test(user));
+    assertEquals(false, compiler.compile(parser.parse(filter + "name.givenName eq \"Babs\"")).test(user));
+  }
+
+  @Test
+  public void matcherParity() {
+    // Single-valued attributes give the same results as the patch filter matcher, except for the order of text comparisons, comparisons with
+    // fractional values and comparisons of missing attributes
+    String[] filters = {
+        "userName eq \"bjensen\"",
+        "userName ne \"bjensen\"",
+        "name.familyName co \"ens\"",
+        "active eq false",
+        "meta.lastModified lt \"2022-09-03T00:00:00Z\"",
+        "urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:costCenter eq 4130",
+        "urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:costCenter ge 4130.0",
+        "title eq \"\""
+    };
+    for (String filter : filters) {
+      Expression expression = parser.parse(filter);
+      assertEquals(filter, SCIMPatchFilterMatcher.matches(expression, user), compiler.compile(expression).test(user));
+    }
+  }
+
+  @Test
+  public void textOrdering() {
+    // The attribute is compared to the value, so "bjensen" is greater than "a"
+    Object[][] expected = {
+        {"userName gt \"a\"", true},
+        {"userName gt \"z\"", false},
+        {"userName gt \"bjensen\"", false},
+        {"userName ge \"bjensen\"", true},
+        {"userName lt \"c\"", true},
+        {"userName lt \"b\"", false},
+        {"userName le \"bjensen\"", true},
+        {"userName le \"a\"", false}
+    };
+    for (Object[] row : expected) {
+      assertEquals((String) row[0], row[1], compiler.compile(parser.parse((String) row[0])).test(user));
+    }
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.filter;
+
+import java.math.BigDecimal;
+import java.util.Base64;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.AssertJUnit.fail;
+
+/**
+ * @author Spencer Witt
+ */
+public class KeysetCursorTest {
+  @DataProvider(name = "invalid")
+  public Object[][] invalid() {
+    return new Object[][]{
+        {"not base64!"},
+        {Base64.getUrlEncoder().encodeToString("not json".getBytes())},
+        {Base64.getUrlEncoder().encodeToString("{}".getBytes())},
+        {Base64.getUrlEncoder().encodeToString("[\"after\", \"userName\", \"sideways\", \"a\", \"1\"]".getBytes())},
+        {Base64.getUrlEncoder().encodeToString("[\"after\", \"userName\", \"ascending\", {}, \"1\"]".getBytes())},
+    };
+  }
+
+  @Test(dataProvider = "invalid")
+  public void decodeInvalid(String cursor) {
+    try {
+      KeysetCursor.decode(cursor);
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains(cursor));
+    }
+  }
+
+  @Test
+  public void roundTrip() {
+    for (Object value : new Object[]{"Barbara Jensen", new BigDecimal("42.5"), new BigDecimal("9223372036854775808"), true, null}) {
+      for (boolean before : new boolean[]{true, false}) {
+        KeysetCursor cursor = new KeysetCursor("name.formatted", SortOrder.descending, value, "2819c223-7f76-453a-919d-413861904646", before);
+        String encoded = cursor.encode();
+        assertTrue(encoded, encoded.matches("[A-Za-z0-9_-]+"));
+        assertEquals(cursor, KeysetCursor.decode(encoded));
+      }
+    }
+
+    // The sort order defaults to ascending
+    assertEquals(SortOrder.ascending, KeysetCursor.decode(new KeysetCursor("userName", null, "a", null, false).encode()).sortOrder);
+  }
+}
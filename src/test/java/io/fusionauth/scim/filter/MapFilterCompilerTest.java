@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.filter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fusionauth.scim.domain.GenericSCIMResource;
+import io.fusionauth.scim.domain.SCIMUser;
+import io.fusionauth.scim.parser.SCIMFilterParser;
+import io.fusionauth.scim.parser.expression.Expression;
+import io.fusionauth.scim.transform.ExpressionOptimizer;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import static org.testng.AssertJUnit.assertEquals;
+
+/**
+ * @author Spencer Witt
+ */
+public class MapFilterCompilerTest {
+  // @formatter:off
+  private static final List<String> Resources = List.of(
+      """
+      {"schemas": ["urn:ietf:params:scim:schemas:core:2.0:User"], "userName": "bjensen", "active": true, "age": 42, "score": 4.5,
+       "name": {"givenName": "Barbara", "familyName": "Jensen"},
+       "emails": [{"value": "bjensen@example.com", "type": "work", "primary": true}, {"value": "babs@jensen.org", "type": "home"}],
+       "meta": {"lastModified": "2022-09-02T15:14:45.000Z"},
+       "urn:ietf:params:scim:schemas:extension:enterprise:2.0:User": {"employeeNumber": "701984", "manager": {"value": "26118915"}}}
+      """,
+      """
+      {"userName": "jsmith", "active": false, "age": 9223372036854775807, "score": 42, "name": {"givenName": null},
+       "emails": {"value": "jsmith@example.com", "type": "work"}, "meta": {"lastModified": "not a date"}}
+      """,
+      """
+      {"displayName": "Tour Guides", "members": [{"value": "2819c223", "display": "Babs Jensen"}], "userName": ["a", "b"], "name": "Barbara",
+       "age": 12345678901234567890}
+      """,
+      """
+      {}
+      """);
+  // @formatter:on
+
+  private final MapFilterCompiler compiler = new MapFilterCompiler();
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final SCIMFilterParser parser = new SCIMFilterParser();
+
+  @DataProvider(name = "filters")
+  public Object[][] filters() {
+    return new Object[][]{
+        {"userName eq \"bjensen\""},
+        {"userName eq \"a\""},
+        {"userName gt \"c\""},
+        {"userName sw \"j\" and active eq false"},
+        {"active eq true or age lt 10"},
+        {"age eq 42"},
+        {"age gt 9223372036854775806"},
+        {"score eq 4.5"},
+        {"score ge 42"},
+        {"score le 4.5"},
+        {"age lt 1"},
+        {"age eq 42.0"},
+        {"active eq false"},
+        {"active ne false"},
+        {"x lt 1"},
+        {"flag eq false"},
+        {"name.givenName eq \"Barbara\""},
+        {"name.givenName pr"},
+        {"name.givenName eq null"},
+        {"name pr"},
+        {"emails[type eq \"work\" and value ew \"example.com\"]"},
+        {"emails[not (type eq \"work\")]"},
+        {"emails.value co \"jensen\""},
+        {"emails.primary eq true"},
+        {"emails.value eq \"jsmith@example.com\" or emails.value eq \"x\" or emails.value eq \"y\""},
+        {"meta.lastModified gt \"2022-09-01T00:00:00Z\""},
+        {"meta.lastModified ne \"2022-09-02T15:14:45Z\""},
+        {"urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:employeeNumber eq \"701984\""},
+        {"urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:manager.value pr"},
+        {"urn:ietf:params:scim:schemas:core:2.0:User:userName eq \"bjensen\""},
+        {"schemas eq \"urn:ietf:params:scim:schemas:core:2.0:User\""},
+        {"members[display sw \"Babs\"] or displayName eq \"x\""},
+        {"not (userName eq \"jsmith\") and (active eq true or displayName pr)"},
+    };
+  }
+
+  @Test(dataProvider = "filters")
+  public void matchesJson(String filter) throws Exception {
+    // The maps give the same results as the JSON they are read from
+    Expression expression = parser.parse(filter);
+    Predicate<JsonNode> json = new JsonNodeFilterCompiler().compile(expression);
+    // The optimizer introduces ranges and memberships
+    for (Expression candidate : List.of(expression, new ExpressionOptimizer().optimize(expression).expression)) {
+      Predicate<Object> predicate = compiler.compile(candidate);
+      for (String resource : Resources) {
+        GenericSCIMResource map = objectMapper.readValue(resource, GenericSCIMResource.class);
+        assertEquals(filter + " " + resource, json.test(objectMapper.readTree(resource)), predicate.test(map));
+      }
+    }
+  }
+
+  @Test
+  public void unassigned() {
+    // Unassigned attributes, and attributes of another type such as the text "false", do not match number or boolean comparisons, other than ne
+    Map<String, Object> resource = Map.of("name", "Barbara", "flag", "false");
+    Object[][] expected = {
+        {"x lt 1", false},
+        {"x eq 0", false},
+        {"x ne 0", true},
+        {"flag eq false", false},
+        {"flag ne false", true},
+        {"active eq false", false},
+        {"name lt 1", false},
+        {"name.givenName eq false", false}
+    };
+    for (Object[] row : expected) {
+      Predicate<Object> predicate = compiler.compile(parser.parse((String) row[0]));
+      assertEquals((String) row[0], row[1], predicate.test(resource));
+      assertEquals((String) row[0], row[1], predicate.test(Map.of()));
+    }
+  }
+
+  @Test
+  public void extensionMap() {
+    SCIMUser user = new SCIMUser();
+    user.set("urn:example:extension", Map.of("level", 3, "tags", List.of("a", "b")));
+
+    // Filter the extension data without the rest of the user
+    assertEquals(true, compiler.compile(parser.parse("urn:example:extension:level ge 3")).test(user.any()));
+    assertEquals(true, compiler.compile(parser.parse("urn:example:extension:tags eq \"b\"")).test(user.any()));
+    assertEquals(false, compiler.compile(parser.parse("urn:example:extension:tags eq \"c\"")).test(user.any()));
+
+    // Values that are not maps have no attributes
+    assertEquals(false, compiler.compile(parser.parse("userName.value pr")).test(Map.of("userName", "bjensen")));
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fusionauth.scim.domain.GenericSCIMResource;
+import io.fusionauth.scim.domain.SCIMListResponse;
+import io.fusionauth.scim.domain.SCIMResource;
+import io.fusionauth.scim.domain.SCIMUser;
+import io.fusionauth.scim.parser.SCIMFilterParser;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * @author Spencer Witt
+ */
+public class ParallelFilterScannerTest {
+  private final SCIMFilterParser parser = new SCIMFilterParser();
+
+  private final List<SCIMUser> users = new ArrayList<>();
+
+  private ForkJoinPool pool;
+
+  private ParallelFilterScanner scanner;
+
+  @AfterClass
+  public void afterClass() {
+    pool.shutdown();
+  }
+
+  @BeforeClass
+  public void beforeClass() {
+    pool = new ForkJoinPool(4);
+    scanner = new ParallelFilterScanner(pool);
+    for (int i = 0; i < 20_000; i++) {
+      int index = i;
+      users.add(new SCIMUser().with(u -> {
+        u.userName = "user" + index;
+        u.active = index % 3 == 0;
+      }));
+    }
+  }
+
+  @DataProvider(name = "pages")
+  public Object[][] pages() {
+    return new Object[][]{
+        {1, 10},
+        {0, 10},
+        {-5, 1},
+        {1, 0},
+        {1, 100_000},
+        {3_000, 50},
+        {6_660, 50},
+        {6_667, 10},
+        {100_000, 10},
+    };
+  }
+
+  @Test(dataProvider = "pages")
+  public void page(int startIndex, int count) {
+    Predicate<Object> filter = new PojoFilterCompiler().compile(parser.parse("active eq true"));
+    List<SCIMUser> expected = users.stream().filter(filter).collect(Collectors.toList());
+    int start = Math.max(startIndex, 1);
+
+    SCIMListResponse response = scanner.scan(users, filter, startIndex, count);
+    assertEquals(expected.size(), response.totalResults);
+    assertEquals(start, response.startIndex);
+    assertEquals(expected.subList(Math.min(start - 1, expected.size()), Math.min(start - 1 + count, expected.size())), response.Resources);
+    assertEquals(response.Resources.size(), response.itemsPerPage);
+  }
+
+  @Test
+  public void stopsEarly() {
+    Predicate<Object> filter = new PojoFilterCompiler().compile(parser.parse("userName sw \"user1\""));
+
+    // The total is only counted up to the end of the page
+    SCIMListResponse response = scanner.scan(users.spliterator(), filter, user -> user, 2, 5, false);
+    assertEquals(List.of(users.get(10), users.get(11), users.get(12), users.get(13), users.get(14)), response.Resources);
+    assertEquals(6, response.totalResults);
+
+    // Fewer matches than the end of the page gives the exact total
+    response = scanner.scan(users.spliterator(), filter, user -> user, 11_200, 5, false);
+    assertEquals(0, response.Resources.size());
+    assertEquals(11_111, response.totalResults);
+  }
+
+  @Test
+  public void unsized() {
+    AtomicInteger read = new AtomicInteger();
+    Spliterator<Integer> resources = Spliterators.spliteratorUnknownSize(Stream.iterate(0, i -> i + 1).limit(1_000_000).peek(i -> read.incrementAndGet())
+                                                                               .iterator(), Spliterator.ORDERED);
+
+    SCIMListResponse response = scanner.scan(resources, i -> i % 7 == 0, i -> new SCIMUser().with(u -> u.userName = "user" + i), 3, 2, false);
+    assertEquals(List.of("user14", "user21"), response.Resources.stream().map(user -> ((SCIMUser) user).userName).collect(Collectors.toList()));
+    assertEquals(4, response.totalResults);
+    // Only the first few chunks are read from the source
+    assertTrue(String.valueOf(read.get()), read.get() < 100_000);
+
+    // Every chunk is tested to count the total
+    resources = Spliterators.spliteratorUnknownSize(Stream.iterate(0, i -> i + 1).limit(100_000).iterator(), Spliterator.ORDERED);
+    response = scanner.scan(resources, i -> i % 7 == 0, i -> new SCIMUser().with(u -> u.userName = "user" + i), 14_000, 3, true);
+    assertEquals(List.of("user97993", "user98000", "user98007"),
+                 response.Resources.stream().map(user -> ((SCIMUser) user).userName).collect(Collectors.toList()));
+    assertEquals(14_286, response.totalResults);
+  }
+
+  @Test
+  public void convertsPage() {
+    ObjectMapper objectMapper = new ObjectMapper();
+    List<JsonNode> nodes = users.stream().map(user -> objectMapper.<JsonNode>valueToTree(user)).collect(Collectors.toList());
+    AtomicInteger conversions = new AtomicInteger();
+
+    SCIMListResponse response = scanner.scan(nodes.spliterator(), new JsonNodeFilterCompiler().compile(parser.parse("userName ew \"7\"")), node -> {
+      conversions.incrementAndGet();
+      return (SCIMResource) objectMapper.convertValue(node, GenericSCIMResource.class);
+    }, 1, 3, true);
+
+    // Only the matches on the page are converted
+    assertEquals(3, conversions.get());
+    assertEquals(2_000, response.totalResults);
+    assertEquals("user7", ((GenericSCIMResource) response.Resources.get(0)).get("userName"));
+    assertEquals("user17", ((GenericSCIMResource) response.Resources.get(1)).get("userName"));
+  }
+}
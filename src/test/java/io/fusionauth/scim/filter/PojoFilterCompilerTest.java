@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.filter;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fusionauth.scim.domain.SCIMEnterpriseSchemaExtension;
+import io.fusionauth.scim.domain.SCIMEnterpriseUser;
+import io.fusionauth.scim.domain.SCIMGroup;
+import io.fusionauth.scim.domain.SCIMMember;
+import io.fusionauth.scim.domain.SCIMMeta;
+import io.fusionauth.scim.domain.SCIMSchemas;
+import io.fusionauth.scim.domain.SCIMUser;
+import io.fusionauth.scim.domain.SCIMUserEmail;
+import io.fusionauth.scim.domain.SCIMUserName;
+import io.fusionauth.scim.parser.SCIMFilterParser;
+import io.fusionauth.scim.parser.expression.Expression;
+import io.fusionauth.scim.utils.SCIMDateTools;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import static org.testng.AssertJUnit.assertEquals;
+
+/**
+ * @author Spencer Witt
+ */
+public class PojoFilterCompilerTest {
+  private final PojoFilterCompiler compiler = new PojoFilterCompiler();
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final SCIMFilterParser parser = new SCIMFilterParser();
+
+  private SCIMEnterpriseUser enterpriseUser;
+
+  private SCIMGroup group;
+
+  private SCIMUser user;
+
+  @BeforeClass
+  public void beforeClass() {
+    enterpriseUser = new SCIMEnterpriseUser().with(u -> {
+      u.id = UUID.fromString("2819c223-7f76-453a-919d-413861904646");
+      u.schemas = List.of(SCIMSchemas.User, SCIMSchemas.EnterpriseUser);
+      u.userName = "bjensen";
+      u.active = true;
+      u.profileURL = URI.create("https://login.example.com/bjensen");
+      u.name = new SCIMUserName().with(n -> {
+        n.givenName = "Barbara";
+        n.familyName = "Jensen";
+      });
+      u.emails = List.of(
+          new SCIMUserEmail().with(e -> {
+            e.value = "bjensen@example.com";
+            e.type = "work";
+            e.primary = true;
+          }),
+          new SCIMUserEmail().with(e -> {
+            e.value = "babs@jensen.org";
+            e.type = "home";
+          }));
+      u.meta = new SCIMMeta().with(m -> m.lastModified = SCIMDateTools.parse("2022-09-02T15:14:45.000Z"));
+      u.extension = new SCIMEnterpriseSchemaExtension().with(x -> {
+        x.employeeNumber = "701984";
+        x.costCenter = "4130";
+      });
+      u.set("urn:example:extension", Map.of("level", 3, "tags", List.of("a", "b")));
+    });
+
+    user = new SCIMUser().with(u -> {
+      u.userName = "jsmith";
+      u.active = false;
+      u.emails = List.of();
+    });
+
+    group = new SCIMGroup().with(g -> {
+      g.displayName = "Tour Guides";
+      g.members = List.of(new SCIMMember().with(m -> {
+        m.value = "2819c223-7f76-453a-919d-413861904646";
+        m.ref = "https://example.com/v2/Users/2819c223-7f76-453a-919d-413861904646";
+      }));
+    });
+  }
+
+  @DataProvider(name = "filters")
+  public Object[][] filters() {
+    return new Object[][]{
+        {"userName eq \"bjensen\""},
+        {"userName sw \"j\""},
+        {"id eq \"2819c223-7f76-453a-919d-413861904646\""},
+        {"active eq true"},
+        {"active eq false"},
+        {"active ne false"},
+        {"name.givenName eq \"Barbara\""},
+        {"name.familyName co \"ens\" and name.middleName pr"},
+        {"name.middleName eq null"},
+        {"profileUrl sw \"https://login.example.com\""},
+        {"emails[type eq \"work\"]"},
+        {"emails[type eq \"work\" and value ew \"@jensen.org\"]"},
+        {"emails.value co \"@example.com\""},
+        {"emails.primary eq true"},
+        {"emails pr"},
+        {"meta.lastModified gt \"2022-09-01T00:00:00Z\""},
+        {"meta.lastModified lt \"2022-09-01T00:00:00Z\""},
+        {"urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:employeeNumber eq \"701984\""},
+        {"urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:costCenter sw \"41\""},
+        {"urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:manager.displayName pr"},
+        {"urn:ietf:params:scim:schemas:core:2.0:User:userName eq \"bjensen\""},
+        {"urn:example:extension:level ge 3"},
+        {"urn:example:extension:level eq 3.0"},
+        {"urn:example:extension:level lt 3.5"},
+        {"urn:example:extension:level lt 100"},
+        {"urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:costCenter lt 5000"},
+        {"urn:example:extension:tags eq \"b\""},
+        {"schemas eq \"urn:ietf:params:scim:schemas:extension:enterprise:2.0:User\""},
+        {"displayName eq \"Tour Guides\""},
+        {"members[value eq \"2819c223-7f76-453a-919d-413861904646\"]"},
+        {"members.display pr"},
+        {"not (userName eq \"jsmith\") and (active eq true or displayName pr)"},
+    };
+  }
+
+  @Test(dataProvider = "filters")
+  public void matchesJson(String filter) {
+    // The domain objects give the same results as the JSON they serialize to
+    Expression expression = parser.parse(filter);
+    Predicate<Object> predicate = compiler.compile(expression);
+    Predicate<JsonNode> json = new JsonNodeFilterCompiler().compile(expression);
+    for (Object resource : List.of(enterpriseUser, user, group)) {
+      JsonNode node = objectMapper.valueToTree(resource);
+      assertEquals(filter + " " + node, json.test(node), predicate.test(resource));
+    }
+  }
+
+  @Test
+  public void resolvesDomainAttributes() {
+    assertEquals(true, compiler.compile(parser.parse("emails[type eq \"work\"]")).test(enterpriseUser));
+    assertEquals(false, compiler.compile(parser.parse("emails[type eq \"other\"]")).test(enterpriseUser));
+    assertEquals(true, compiler.compile(parser.parse("name.givenName eq \"Barbara\"")).test(enterpriseUser));
+    assertEquals(true, compiler.compile(parser.parse("urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:employeeNumber eq \"701984\""))
+                               .test(enterpriseUser));
+
+    // The same compiled filter works with each resource type
+    Predicate<Object> predicate = compiler.compile(parser.parse("userName pr or displayName pr"));
+    assertEquals(true, predicate.test(enterpriseUser));
+    assertEquals(true, predicate.test(user));
+    assertEquals(true, predicate.test(group));
+    assertEquals(false, predicate.test(new SCIMGroup()));
+  }
+
+  @Test
+  public void unassigned() {
+    // Unassigned attributes and attributes of another type do not match number or boolean comparisons, other than ne
+    SCIMUser unassigned = new SCIMUser().with(u -> u.userName = "unassigned");
+    Object[][] expected = {
+        {"active eq false", false},
+        {"active eq true", false},
+        {"active ne false", true},
+        {"urn:example:extension:level lt 5", false},
+        {"urn:example:extension:level eq 0", false},
+        {"urn:example:extension:level ne 0", true},
+        {"userName eq false", false},
+        {"userName lt 5", false}
+    };
+    for (Object[] row : expected) {
+      assertEquals((String) row[0], row[1], compiler.compile(parser.parse((String) row[0])).test(unassigned));
+    }
+  }
+
+  @Test
+  public void textOrdering() {
+    // The attribute is compared to the value, so "bjensen" is greater than "a"
+    Object[][] expected = {
+        {"userName gt \"a\"", true},
+        {"userName gt \"z\"", false},
+        {"userName gt \"bjensen\"", false},
+        {"userName ge \"bjensen\"", true},
+        {"userName lt \"c\"", true},
+        {"userName lt \"b\"", false},
+        {"userName le \"bjensen\"", true},
+        {"userName le \"a\"", false}
+    };
+    for (Object[] row : expected) {
+      assertEquals((String) row[0], row[1], compiler.compile(parser.parse((String) row[0])).test(enterpriseUser));
+    }
+  }
+}
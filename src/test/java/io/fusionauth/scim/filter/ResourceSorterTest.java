@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.filter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fusionauth.scim.domain.SCIMUser;
+import io.fusionauth.scim.domain.SCIMUserEmail;
+import io.fusionauth.scim.domain.SCIMUserName;
+import org.testng.annotations.Test;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.AssertJUnit.fail;
+
+/**
+ * @author Spencer Witt
+ */
+public class ResourceSorterTest {
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  public void cursorPage() {
+    Random random = new Random(42);
+    List<Map<String, Object>> resources = new ArrayList<>();
+    for (int i = 0; i < 1_000; i++) {
+      // Many equal values, so the pages depend on ties being broken by id
+      resources.add(Map.of("id", String.format("%04d", random.nextInt(10_000)) + "-" + i, "userName", "user" + random.nextInt(50)));
+    }
+
+    for (SortOrder sortOrder : SortOrder.values()) {
+      ResourceSorter<Object> sorter = ResourceSorter.objects("userName", sortOrder);
+      List<Object> sorted = sorter.sort(resources);
+
+      // Forward through every page
+      List<Object> forward = new ArrayList<>();
+      String cursor = null;
+      ResourceSorter.CursorPage<Object> page;
+      do {
+        page = sorter.page(resources, cursor, 30);
+        assertEquals(!forward.isEmpty(), page.previousCursor != null);
+        forward.addAll(page.resources);
+        cursor = page.nextCursor;
+      } while (cursor != null);
+      assertEquals(sorted, forward);
+      assertEquals(10, page.resources.size());
+
+      // Backward from the last page
+      List<Object> backward = new ArrayList<>(page.resources);
+      cursor = page.previousCursor;
+      while (cursor != null) {
+        page = sorter.page(resources, cursor, 30);
+        assertEquals(30, page.resources.size());
+        assertEquals(page.resources.get(page.resources.size() - 1), sorted.get(sorted.size() - backward.size() - 1));
+        backward.addAll(0, page.resources);
+        cursor = page.previousCursor;
+      }
+      assertEquals(sorted, backward);
+      assertEquals(null, page.previousCursor);
+    }
+
+    // Resources removed before the cursor do not shift the next page
+    ResourceSorter<Object> sorter = ResourceSorter.objects("userName", SortOrder.ascending);
+    ResourceSorter.CursorPage<Object> first = sorter.page(resources, null, 100);
+    List<Map<String, Object>> remaining = new ArrayList<>(resources);
+    remaining.removeAll(first.resources.subList(0, 50));
+    assertEquals(sorter.page(resources, first.nextCursor, 100).resources, sorter.page(remaining, first.nextCursor, 100).resources);
+
+    // A cursor for a different sort is rejected
+    try {
+      ResourceSorter.objects("userName", SortOrder.descending).page(resources, first.nextCursor, 100);
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("different sort"));
+    }
+
+    assertEquals(List.of(), sorter.page(List.of(), null, 10).resources);
+    assertEquals(null, sorter.page(List.of(), null, 10).nextCursor);
+  }
+
+  @Test
+  public void json() throws Exception {
+    // @formatter:off
+    List<JsonNode> resources = List.of(
+        objectMapper.readTree("""
+            {"userName": "carol", "age": 30, "emails": [{"value": "z@example.com"}, {"value": "c@example.com", "primary": true}]}
+            """),
+        objectMapper.readTree("""
+            {"userName": "Alice", "age": 4.5, "emails": [{"value": "a@example.com"}]}
+            """),
+        objectMapper.readTree("""
+            {"age": "old"}
+            """),
+        objectMapper.readTree("""
+            {"userName": "bob", "age": 100, "emails": {"value": "B@example.com"}}
+            """));
+    // @formatter:on
+
+    // Case-insensitive, unassigned values last when ascending and first when descending
+    assertEquals(List.of("Alice", "bob", "carol", ""), userNames(ResourceSorter.json("userName", SortOrder.ascending).sort(resources)));
+    assertEquals(List.of("", "carol", "bob", "Alice"), userNames(ResourceSorter.json("userName", SortOrder.descending).sort(resources)));
+
+    // Numbers by value, then strings
+    assertEquals(List.of("Alice", "carol", "bob", ""), userNames(ResourceSorter.json("age", SortOrder.ascending).sort(resources)));
+
+    // Multi-valued attributes by the primary value, complex values by their value sub-attribute
+    assertEquals(List.of("Alice", "bob", "carol", ""), userNames(ResourceSorter.json("emails", SortOrder.ascending).sort(resources)));
+    assertEquals(List.of("Alice", "bob", "carol", ""), userNames(ResourceSorter.json("emails.value", SortOrder.ascending).sort(resources)));
+
+    // The core schema URN may be used
+    assertEquals(List.of("Alice", "bob", "carol", ""),
+        userNames(ResourceSorter.json("urn:ietf:params:scim:schemas:core:2.0:User:userName", SortOrder.ascending).sort(resources)));
+  }
+
+  @Test
+  public void objects() {
+    List<Object> resources = List.of(
+        new SCIMUser().with(u -> {
+          u.userName = "carol";
+          u.name = new SCIMUserName().with(n -> n.familyName = "Zimmer");
+          u.emails = List.of(new SCIMUserEmail().with(e -> e.value = "z@example.com"),
+              new SCIMUserEmail().with(e -> {
+                e.value = "c@example.com";
+                e.primary = true;
+              }));
+        }),
+        new SCIMUser().with(u -> {
+          u.userName = "Alice";
+          u.name = new SCIMUserName().with(n -> n.familyName = "adams");
+          u.emails = List.of(new SCIMUserEmail().with(e -> e.value = "a@example.com"));
+        }),
+        Map.of("userName", "bob", "name", Map.of("familyName", "Baker"), "emails", List.of(Map.of("value", "B@example.com"))),
+        new SCIMUser());
+
+    assertEquals(List.of("Alice", "bob", "carol", ""), userNames(ResourceSorter.objects("userName", SortOrder.ascending).sort(resources)));
+    assertEquals(List.of("", "carol", "bob", "Alice"), userNames(ResourceSorter.objects("name.familyName", SortOrder.descending).sort(resources)));
+    assertEquals(List.of("Alice", "bob", "carol", ""), userNames(ResourceSorter.objects("emails", SortOrder.ascending).sort(resources)));
+
+    // The objects sort the same as the JSON they serialize to
+    for (String sortBy : List.of("userName", "name.familyName", "emails", "emails.value", "meta.lastModified")) {
+      List<JsonNode> json = resources.stream().map(resource -> objectMapper.<JsonNode>valueToTree(resource)).toList();
+      assertEquals(sortBy, userNames(ResourceSorter.json(sortBy, SortOrder.ascending).sort(json)),
+          userNames(ResourceSorter.objects(sortBy, SortOrder.ascending).sort(resources)));
+    }
+  }
+
+  @Test
+  public void page() {
+    Random random = new Random(42);
+    List<Map<String, Object>> resources = new ArrayList<>();
+    for (int i = 0; i < 2_000; i++) {
+      // Many equal values, so the pages depend on ties being broken by the original order
+      resources.add(Map.of("userName", "user" + random.nextInt(100), "index", i));
+    }
+
+    for (SortOrder sortOrder : SortOrder.values()) {
+      ResourceSorter<Object> sorter = ResourceSorter.objects("userName", sortOrder);
+      List<Object> sorted = sorter.sort(resources);
+      List<Object> expected = new ArrayList<>(resources);
+      expected.sort((a, b) -> {
+        int result = String.CASE_INSENSITIVE_ORDER.compare((String) ((Map<?, ?>) a).get("userName"), (String) ((Map<?, ?>) b).get("userName"));
+        return sortOrder == SortOrder.descending ? -result : result;
+      });
+      assertEquals(expected, sorted);
+
+      assertEquals(sorted.subList(0, 10), sorter.page(resources, 1, 10));
+      assertEquals(sorted.subList(0, 10), sorter.page(resources, 0, 10));
+      assertEquals(sorted.subList(990, 1_015), sorter.page(resources, 991, 25));
+      assertEquals(sorted.subList(1_995, 2_000), sorter.page(resources, 1_996, 25));
+      assertEquals(sorted, sorter.page(resources, 1, Integer.MAX_VALUE));
+      assertEquals(List.of(), sorter.page(resources, 2_001, 25));
+      assertEquals(List.of(), sorter.page(resources, 1, 0));
+    }
+
+    assertEquals(List.of(), ResourceSorter.objects("userName", SortOrder.ascending).page(Collections.emptyList(), 1, 10));
+  }
+
+  private List<String> userNames(List<?> resources) {
+    return resources.stream().map(resource -> {
+      if (resource instanceof JsonNode node) {
+        return node.path("userName").asText("");
+      } else if (resource instanceof SCIMUser user) {
+        return user.userName != null ? user.userName : "";
+      }
+      return (String) ((Map<?, ?>) resource).get("userName");
+    }).toList();
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fusionauth.scim.parser.SCIMFilterParser;
+import io.fusionauth.scim.parser.expression.Expression;
+import io.fusionauth.scim.transform.ExpressionOptimizer;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import static org.testng.AssertJUnit.assertEquals;
+
+/**
+ * @author Spencer Witt
+ */
+public class StreamingFilterMatcherTest {
+  // @formatter:off
+  private static final List<String> Resources = List.of(
+      """
+      {"schemas": ["urn:ietf:params:scim:schemas:core:2.0:User"], "userName": "bjensen", "active": true, "age": 42,
+       "name": {"givenName": "Barbara", "familyName": "Jensen", "formatted": {"ignored": [1, 2, 3]}},
+       "emails": [{"value": "bjensen@example.com", "type": "work", "primary": true}, {"value": "babs@jensen.org", "type": "home"}],
+       "meta": {"lastModified": "2022-09-02T15:14:45.000Z"},
+       "urn:ietf:params:scim:schemas:extension:enterprise:2.0:User": {"employeeNumber": "701984", "manager": {"value": "26118915"}}}
+      """,
+      """
+      {"photos": [{"value": "https://photos.example.com/1.jpg"}], "userName": "jsmith", "active": false, "age": 9,
+       "emails": {"value": "jsmith@example.com", "type": "work"}, "name": {"givenName": null}}
+      """,
+      """
+      {"displayName": "Tour Guides", "members": [{"value": "2819c223", "display": "Babs Jensen"}], "userName": ["a", "b"]}
+      """,
+      """
+      {}
+      """);
+  // @formatter:on
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final SCIMFilterParser parser = new SCIMFilterParser();
+
+  @DataProvider(name = "filters")
+  public Object[][] filters() {
+    return new Object[][]{
+        {"userName eq \"bjensen\""},
+        {"userName eq \"a\""},
+        {"userName sw \"j\" and active eq false"},
+        {"active eq true or age lt 10"},
+        {"age ge 9 and age le 42"},
+        {"name.givenName eq \"Barbara\""},
+        {"name.givenName pr"},
+        {"name.givenName eq null"},
+        {"name pr"},
+        {"name.familyName sw \"J\""},
+        {"emails[type eq \"work\" and value ew \"example.com\"]"},
+        {"emails[not (type eq \"work\")]"},
+        {"emails.value co \"jensen\""},
+        {"emails.primary eq true"},
+        {"emails pr"},
+        {"meta.lastModified gt \"2022-09-01T00:00:00Z\""},
+        {"urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:employeeNumber eq \"701984\""},
+        {"urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:manager.value pr"},
+        {"urn:ietf:params:scim:schemas:core:2.0:User:userName eq \"bjensen\""},
+        {"schemas eq \"urn:ietf:params:scim:schemas:core:2.0:User\""},
+        {"members[display sw \"Babs\"] or displayName eq \"x\""},
+        {"not (userName eq \"jsmith\") and (active eq true or displayName pr)"},
+        {"title pr or not (title pr)"},
+        {"userName eq \"x\" or userName eq \"y\" or userName eq \"jsmith\""},
+    };
+  }
+
+  @Test(dataProvider = "filters")
+  public void matchesTree(String filter) throws Exception {
+    Expression expression = parser.parse(filter);
+    for (Expression candidate : List.of(expression, new ExpressionOptimizer().optimize(expression).expression)) {
+      StreamingFilterMatcher matcher = new StreamingFilterMatcher(candidate);
+      JsonNodeFilterCompiler compiler = new JsonNodeFilterCompiler();
+      for (String resource : Resources) {
+        try (JsonParser jsonParser = objectMapper.getFactory().createParser(resource)) {
+          assertEquals(filter + " " + resource, compiler.compile(candidate).test(objectMapper.readTree(resource)), matcher.matches(jsonParser));
+          assertEquals(JsonToken.END_OBJECT, jsonParser.currentToken());
+          assertEquals(null, jsonParser.nextToken());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void stream() throws Exception {
+    // Resources in an array are matched one at a time, even when the result is known before the end of a resource
+    StreamingFilterMatcher matcher = new StreamingFilterMatcher(parser.parse("userName sw \"j\" or age gt 40"));
+    List<Boolean> results = new ArrayList<>();
+    try (JsonParser jsonParser = objectMapper.getFactory().createParser("[" + String.join(",", Resources) + "]")) {
+      assertEquals(JsonToken.START_ARRAY, jsonParser.nextToken());
+      while (jsonParser.nextToken() == JsonToken.START_OBJECT) {
+        results.add(matcher.matches(jsonParser));
+      }
+    }
+
+    assertEquals(List.of(true, true, false, false), results);
+  }
+}
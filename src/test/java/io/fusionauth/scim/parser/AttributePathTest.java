@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.parser;
+
+import java.util.List;
+
+import io.fusionauth.scim.parser.expression.AttributeMembershipExpression;
+import io.fusionauth.scim.parser.expression.AttributePresentTestExpression;
+import io.fusionauth.scim.parser.expression.AttributeTextComparisonExpression;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertSame;
+
+/**
+ * @author Spencer Witt
+ */
+public class AttributePathTest {
+  @DataProvider(name = "paths")
+  public Object[][] paths() {
+    return new Object[][]{
+        {"userName", null, "userName", null, "/userName"},
+        {"name.givenName", null, "name", "givenName", "/name/givenName"},
+        {"urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:employeeNumber", "urn:ietf:params:scim:schemas:extension:enterprise:2.0:User",
+            "employeeNumber", null, "/urn:ietf:params:scim:schemas:extension:enterprise:2.0:User/employeeNumber"},
+        {"urn:ietf:params:scim:schemas:extension:enterprise:2.0:User:manager.value", "urn:ietf:params:scim:schemas:extension:enterprise:2.0:User",
+            "manager", "value", "/urn:ietf:params:scim:schemas:extension:enterprise:2.0:User/manager/value"},
+        // Core schema attributes are at the top level of the resource
+        {"urn:ietf:params:scim:schemas:core:2.0:User:name.familyName", "urn:ietf:params:scim:schemas:core:2.0:User", "name", "familyName",
+            "/name/familyName"},
+        // Not valid in a filter, but the structure is still available
+        {"a.b.c", null, "a", "b.c", "/a/b/c"},
+        {"a~b/c", null, "a~b/c", null, "/a~0b~1c"}
+    };
+  }
+
+  @Test
+  public void evictsUnusedPaths() {
+    // Paths that are used stay interned while junk paths are added, and new paths are still interned after the table fills up
+    AttributePath used = AttributePath.of("userName");
+    for (int i = 0; i < AttributePath.MaximumInterned * 3; i++) {
+      AttributePath.of("junk" + i);
+      if (i % 100 == 0) {
+        assertSame(used, AttributePath.of("userName"));
+      }
+    }
+
+    AttributePath added = AttributePath.of("nickName");
+    assertSame(added, AttributePath.of(new String("nickName")));
+  }
+
+  @Test
+  public void interned() {
+    assertSame(AttributePath.of("emails.value"), AttributePath.of(new String("emails.value")));
+    assertNotNull(AttributePath.of("emails.value").toString());
+  }
+
+  @Test
+  public void expressionPath() {
+    AttributeTextComparisonExpression expression = new AttributeTextComparisonExpression("emails.value", ComparisonOperator.eq, "a@b.c");
+    assertSame(AttributePath.of("emails.value"), expression.path);
+    assertSame(expression.path, new AttributePresentTestExpression("emails.value").path);
+
+    // The parsed path is derived from the attribute path, so it is not serialized
+    assertFalse(expression.toString().contains("pointer"));
+    assertFalse(new AttributeMembershipExpression("emails.value", List.of("a", "b")).toString().contains("pointer"));
+  }
+
+  @Test(dataProvider = "paths")
+  public void parse(String path, String schema, String attribute, String subAttribute, String pointer) {
+    AttributePath attributePath = AttributePath.of(path);
+    assertEquals(path, attributePath.path);
+    assertEquals(schema, attributePath.schema);
+    assertEquals(attribute, attributePath.attribute);
+    assertEquals(subAttribute, attributePath.subAttribute);
+    assertEquals(pointer, attributePath.pointer.toString());
+  }
+}
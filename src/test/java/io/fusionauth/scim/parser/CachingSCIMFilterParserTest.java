@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.fusionauth.scim.parser.exception.InvalidStateException;
+import io.fusionauth.scim.parser.expression.AttributeTextComparisonExpression;
+import io.fusionauth.scim.parser.expression.Expression;
+import org.testng.annotations.Test;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.fail;
+
+/**
+ * @author Spencer Witt
+ */
+public class CachingSCIMFilterParserTest {
+  @Test
+  public void concurrentClear() throws Exception {
+    List<String> filters = new ArrayList<>();
+    long totalWeight = 0;
+    for (int i = 0; i < 500; i++) {
+      filters.add("userName eq \"" + i + "\"");
+      totalWeight += filters.get(i).length();
+    }
+
+    // Exactly large enough for every filter, so any weight left behind by a clear causes evictions
+    CachingSCIMFilterParser parser = new CachingSCIMFilterParser(filters.size(), totalWeight);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      AtomicBoolean done = new AtomicBoolean();
+      List<Future<?>> parsers = new ArrayList<>();
+      for (int t = 0; t < 3; t++) {
+        parsers.add(executor.submit(() -> {
+          for (int round = 0; round < 50; round++) {
+            filters.forEach(parser::parse);
+          }
+        }));
+      }
+      Future<?> clearer = executor.submit(() -> {
+        while (!done.get()) {
+          parser.clear();
+        }
+      });
+      for (Future<?> future : parsers) {
+        future.get();
+      }
+      done.set(true);
+      clearer.get();
+    } finally {
+      executor.shutdown();
+    }
+
+    long evictions = parser.evictionCount();
+    filters.forEach(parser::parse);
+    assertEquals(filters.size(), parser.size());
+    assertEquals(totalWeight, parser.weight());
+    assertEquals(evictions, parser.evictionCount());
+  }
+
+  @Test
+  public void evictsByEntries() {
+    CachingSCIMFilterParser parser = new CachingSCIMFilterParser(2, 1_000);
+    parser.parse("A pr");
+    parser.parse("B pr");
+    parser.parse("C pr");
+
+    assertEquals(2, parser.size());
+    assertEquals(1, parser.evictionCount());
+    assertEquals(8, parser.weight());
+  }
+
+  @Test
+  public void evictsByWeight() {
+    CachingSCIMFilterParser parser = new CachingSCIMFilterParser(100, 20);
+    parser.parse("userName eq \"a\"");
+    parser.parse("userName eq \"b\"");
+
+    assertEquals(1, parser.size());
+    assertEquals(1, parser.evictionCount());
+    assertEquals(15, parser.weight());
+
+    // Larger than the maximum weight, parsed but never cached
+    parser.parse("userName eq \"a-much-longer-value\"");
+    assertEquals(1, parser.size());
+    assertEquals(1, parser.evictionCount());
+  }
+
+  @Test
+  public void failuresAreNotCached() {
+    CachingSCIMFilterParser parser = new CachingSCIMFilterParser();
+    for (int i = 0; i < 2; i++) {
+      try {
+        parser.parse("(0A pr)");
+        fail("Expected exception");
+      } catch (InvalidStateException e) {
+        assertEquals("Invalid state transition at [(0]", e.getMessage());
+      }
+    }
+
+    assertEquals(0, parser.size());
+    assertEquals(0, parser.hitCount());
+    assertEquals(2, parser.missCount());
+  }
+
+  @Test
+  public void referencedEntriesGetSecondChance() {
+    CachingSCIMFilterParser parser = new CachingSCIMFilterParser(2, 1_000);
+    Expression a = parser.parse("A pr");
+    parser.parse("B pr");
+    // Reading A marks it as recently used so B is evicted first
+    assertSame(a, parser.parse("A pr"));
+    parser.parse("C pr");
+
+    assertSame(a, parser.parse("A pr"));
+    assertEquals(2, parser.hitCount());
+    assertEquals(3, parser.missCount());
+    assertEquals(1, parser.evictionCount());
+  }
+
+  @Test
+  public void sharedTree() {
+    CachingSCIMFilterParser parser = new CachingSCIMFilterParser();
+    Expression first = parser.parse("userName eq \"bjensen\"");
+    Expression second = parser.parse("userName eq \"bjensen\"");
+
+    assertSame(first, second);
+    assertEquals(new AttributeTextComparisonExpression("userName", ComparisonOperator.eq, "bjensen"), first);
+    assertEquals(1, parser.hitCount());
+    assertEquals(1, parser.missCount());
+    assertEquals(1, parser.size());
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.parser;
+
+import java.util.concurrent.TimeUnit;
+
+import io.fusionauth.scim.parser.expression.Expression;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Parser throughput and allocation benchmark. Run the {@link #main(String[])} method from the test classpath, the GC profiler reports the
+ * allocation rate per parse as {@code gc.alloc.rate.norm}.
+ *
+ * @author Spencer Witt
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+public class SCIMFilterParserBenchmark {
+  @Param({"postfix", "singlePass"})
+  public ParserEngine engine;
+
+  @Param({"text", "number", "complex", "long"})
+  public String shape;
+
+  private String filter;
+
+  private SCIMFilterParser parser;
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(SCIMFilterParserBenchmark.class.getSimpleName())
+                                   .addProfiler(GCProfiler.class)
+                                   .build()).run();
+  }
+
+  @Benchmark
+  public Expression parse() {
+    return parser.parse(filter);
+  }
+
+  @Setup
+  public void setup() {
+    parser = new SCIMFilterParser(engine);
+    filter = switch (shape) {
+      case "text" -> "userName eq \"bjensen\"";
+      case "number" -> "A eq -121.45e+2";
+      case "complex" -> "userType eq \"Employee\" and not (emails[type eq \"work\" and value co \"@example.com\"] or active eq false)";
+      case "long" -> longFilter();
+      default -> throw new IllegalArgumentException("Unexpected shape [" + shape + "]");
+    };
+  }
+
+  private String longFilter() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      if (i > 0) {
+        sb.append(" or ");
+      }
+      sb.append("externalId eq \"").append(i).append("\"");
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.parser;
+
+import java.nio.charset.StandardCharsets;
+
+import io.fusionauth.scim.parser.exception.FilterLimitException;
+import io.fusionauth.scim.parser.exception.GroupingException;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.fail;
+
+/**
+ * @author Spencer Witt
+ */
+public class SCIMFilterParserLimitsTest {
+  // Length 40, depth 2, 5 nodes, literals of 8 characters
+  private final SCIMFilterParser parser = new SCIMFilterParser(ParserEngine.postfix, new SCIMFilterParserLimits(40, 2, 5, 8));
+
+  @DataProvider(name = "exceeded")
+  public Object[][] exceeded() {
+    return new Object[][]{
+        {"userName eq \"bjensen\" and title eq \"Manager\"", "The filter length of [44] characters exceeds the maximum of [40]"},
+        {"((((a pr))))", "The filter nesting exceeds the maximum depth of [2] at [(((]"},
+        {"a[b[c[d pr]]]", "The filter nesting exceeds the maximum depth of [2] at [a[b[c[]"},
+        {"a pr or b pr or c pr or d pr", "The filter exceeds the maximum of [5] expressions"},
+        {"a eq \"bjensen@x\"", "The comparison value starting at [a eq \"b] exceeds the maximum length of [8]"},
+        {"a eq \"\\\"\\\"\\\"\\\"\\\"\"", "The comparison value starting at [a eq \"\\] exceeds the maximum length of [8]"},
+        {"a eq 1234567890", "The comparison value starting at [a eq 1] exceeds the maximum length of [8]"}
+    };
+  }
+
+  @Test(dataProvider = "exceeded")
+  public void exceeded(String filter, String expected) {
+    for (SCIMFilterParser parser : new SCIMFilterParser[]{this.parser, new SCIMFilterParser(ParserEngine.singlePass, new SCIMFilterParserLimits(40, 2, 5, 8))}) {
+      try {
+        parser.parse(filter);
+        fail("Expected exception for filter [" + filter + "]");
+      } catch (FilterLimitException e) {
+        assertEquals(expected, e.getMessage());
+      }
+    }
+  }
+
+  @Test
+  public void encodedLength() {
+    byte[] filter = new byte[40 * 9 + 1];
+    try {
+      parser.parse(filter, 0, filter.length, true);
+      fail("Expected exception");
+    } catch (FilterLimitException e) {
+      assertEquals("The filter length of [361] bytes exceeds the maximum of [40] characters", e.getMessage());
+    }
+
+    // Percent-encoded input may be longer than the limit as long as the decoded filter is not
+    byte[] encoded = "userName%20eq%20%22bjensen%22%20and%20a%20pr".getBytes(StandardCharsets.UTF_8);
+    assertNotNull(parser.parse(encoded, 0, encoded.length, true));
+  }
+
+  @Test
+  public void unbalancedGroupsAreReportedByTheParser() {
+    try {
+      parser.parse("a pr) and ((b pr)");
+      fail("Expected exception");
+    } catch (GroupingException e) {
+      assertEquals("Extra closed parenthesis at [a pr)]", e.getMessage());
+    }
+  }
+
+  @Test
+  public void withinLimits() {
+    assertNotNull(parser.parse("(a pr and b[c eq \"12345678\"])"));
+    assertNotNull(parser.parse("a eq \"\\\"\\\"\\\"\\\"\""));
+    assertNotNull(parser.parse("a eq 12345678"));
+  }
+}
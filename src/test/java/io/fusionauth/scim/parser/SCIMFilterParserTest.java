@@ -16,6 +16,10 @@
 package io.fusionauth.scim.parser;
 
 import java.math.BigDecimal;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
@@ -25,6 +29,7 @@ import io.fusionauth.scim.parser.exception.AttributeFilterGroupingException;
 import io.fusionauth.scim.parser.exception.AttributePathException;
 import io.fusionauth.scim.parser.exception.ComparisonOperatorException;
 import io.fusionauth.scim.parser.exception.ComparisonValueException;
+import io.fusionauth.scim.parser.exception.FilterEncodingException;
 import io.fusionauth.scim.parser.exception.GroupingException;
 import io.fusionauth.scim.parser.exception.InvalidStateException;
 import io.fusionauth.scim.parser.exception.LogicalOperatorException;
@@ -42,13 +47,23 @@ import io.fusionauth.scim.utils.SCIMDateTools;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
 import static org.testng.AssertJUnit.fail;
 
 /**
  * @author Daniel DeGroff & Spencer Witt
  */
 public class SCIMFilterParserTest {
-  private final SCIMFilterParser parser = new SCIMFilterParser();
+  private final SCIMFilterParser parser;
+
+  public SCIMFilterParserTest() {
+    this(new SCIMFilterParser());
+  }
+
+  protected SCIMFilterParserTest(SCIMFilterParser parser) {
+    this.parser = parser;
+  }
 
   @Test
   public void dateConverter() {
@@ -76,6 +91,28 @@ public class SCIMFilterParserTest {
     assertDateEquals("2022-09-02T22:14:46.061+07:00", actual);
   }
 
+  @Test
+  public void dateTimeCandidate() {
+    // Every supported format has the shape of a date-time
+    for (String s : new String[]{"2013-04-16T09:14:02Z", "2013-04-16T09:14:02.123Z", "2013-04-16T11:14:02+0200", "2013-04-16T11:14:02.000+02:00",
+                                 "2022-09-02T22:14:46.061+0700", "+12013-04-16T09:14:02Z"}) {
+      assertTrue(s, SCIMDateTools.isDateTimeCandidate(s));
+      SCIMDateTools.parse(s);
+    }
+
+    // Values that are rejected by the shape check must also be rejected by the parser
+    for (String s : new String[]{"", "bjensen", "bjensen@example.com", "2013-04-16", "2013-04-16 09:14:02Z", "2013-04-16T09:14Z",
+                                 "2013-4-16T09:14:02Z", "2013-04-16T9:14:02.000Z", "13-04-16T09:14:02Z", "2013/04/16T09:14:02Z",
+                                 "Text that is long enough To be a date"}) {
+      assertFalse(s, SCIMDateTools.isDateTimeCandidate(s));
+      try {
+        SCIMDateTools.parse(s);
+        fail("Expected [" + s + "] to fail to parse");
+      } catch (DateTimeException ignore) {
+      }
+    }
+  }
+
   @DataProvider(name = "goodData")
   public Object[][] goodData() {
     //noinspection TrailingWhitespacesInTextBlock
@@ -972,6 +1009,23 @@ public class SCIMFilterParserTest {
     };
   }
 
+  @DataProvider(name = "invalidEncoding")
+  public Object[][] invalidEncoding() {
+    return new Object[][]{
+        {new byte[]{'a', ' ', 'p', 'r', (byte) 0x80}, false, "Invalid UTF-8 sequence at byte [4]"},
+        {new byte[]{'a', ' ', (byte) 0xC3, 'p', 'r'}, false, "Invalid UTF-8 sequence at byte [3]"},
+        {new byte[]{'a', ' ', 'p', 'r', (byte) 0xE2, (byte) 0x82}, false, "Incomplete UTF-8 sequence at the end of the filter"},
+        // Overlong encoding of /
+        {new byte[]{(byte) 0xC0, (byte) 0xAF, ' ', 'p', 'r'}, false, "Invalid UTF-8 sequence at byte [1]"},
+        // Encoded surrogate
+        {new byte[]{(byte) 0xED, (byte) 0xA0, (byte) 0x80, ' ', 'p', 'r'}, false, "Invalid UTF-8 sequence at byte [2]"},
+        {"a%2 pr".getBytes(StandardCharsets.UTF_8), true, "Invalid percent-encoded sequence at byte [1]"},
+        {"a+pr%".getBytes(StandardCharsets.UTF_8), true, "Invalid percent-encoded sequence at byte [4]"},
+        {"a+pr%zz".getBytes(StandardCharsets.UTF_8), true, "Invalid percent-encoded sequence at byte [4]"},
+        {"a%C3+pr".getBytes(StandardCharsets.UTF_8), true, "Invalid UTF-8 sequence at byte [4]"}
+    };
+  }
+
   @DataProvider(name = "invalidLogicalOperator")
   public Object[][] invalidLogicalOperator() {
     return new Object[][]{
@@ -1127,6 +1181,21 @@ public class SCIMFilterParserTest {
     assertEquals(expected, actual);
   }
 
+  @Test(dataProvider = "goodData")
+  public void parseGoodBytes(String filter, Expression expected) {
+    // Place the filter in the middle of a larger array to check that the offset and length are used
+    byte[] encoded = filter.getBytes(StandardCharsets.UTF_8);
+    byte[] bytes = new byte[encoded.length + 4];
+    System.arraycopy(encoded, 0, bytes, 2, encoded.length);
+    assertEquals(expected, parser.parse(bytes, 2, encoded.length, false));
+
+    byte[] urlEncoded = URLEncoder.encode(filter, StandardCharsets.UTF_8).getBytes(StandardCharsets.UTF_8);
+    ByteBuffer buffer = ByteBuffer.allocateDirect(urlEncoded.length);
+    buffer.put(urlEncoded).flip();
+    assertEquals(expected, parser.parse(buffer, true));
+    assertEquals(0, buffer.position());
+  }
+
   @Test(dataProvider = "invalidAttributeFilterGrouping")
   public void parseInvalidAttributeFilterGrouping(String filter, String expected) {
     try {
@@ -1177,6 +1246,16 @@ public class SCIMFilterParserTest {
     }
   }
 
+  @Test(dataProvider = "invalidEncoding")
+  public void parseInvalidEncoding(byte[] filter, boolean urlEncoded, String expected) {
+    try {
+      parser.parse(filter, 0, filter.length, urlEncoded);
+      fail("Expected exception for filter [" + new String(filter, StandardCharsets.UTF_8) + "]");
+    } catch (FilterEncodingException e) {
+      assertEquals(expected, e.getMessage());
+    }
+  }
+
   @Test(dataProvider = "invalidLogicalOperator")
   public void parseInvalidLogicalOperator(String filter, String expected) {
     try {
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.parser;
+
+import org.testng.annotations.Test;
+
+/**
+ * @author Spencer Witt
+ */
+public class SCIMParserTransitionsTest {
+  @Test
+  public void matchesStateDefinitions() {
+    // The compiled table must agree with the state definitions for every character, including the non-ASCII slow path
+    for (SCIMParserState state : SCIMParserState.values()) {
+      for (int c = Character.MIN_VALUE; c <= Character.MAX_VALUE; c++) {
+        SCIMParserState expected = state.next((char) c);
+        SCIMParserState actual = SCIMParserTransitions.next(state, (char) c);
+        if (expected != actual) {
+          throw new AssertionError("Expected [" + expected + "] but found [" + actual + "] for state [" + state + "] and character [" + c + "]");
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.parser;
+
+import java.util.NoSuchElementException;
+
+import io.fusionauth.scim.parser.exception.GroupingException;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.fail;
+
+/**
+ * Runs the full {@link SCIMFilterParserTest} corpus against the {@link ParserEngine#singlePass} engine, and checks that it builds the same trees
+ * as the {@link ParserEngine#postfix} engine.
+ *
+ * @author Spencer Witt
+ */
+public class SinglePassSCIMFilterParserTest extends SCIMFilterParserTest {
+  private final SCIMFilterParser postfix = new SCIMFilterParser(ParserEngine.postfix);
+
+  private final SCIMFilterParser singlePass = new SCIMFilterParser(ParserEngine.singlePass);
+
+  public SinglePassSCIMFilterParserTest() {
+    super(new SCIMFilterParser(ParserEngine.singlePass));
+  }
+
+  @DataProvider(name = "precedence")
+  public Object[][] precedence() {
+    return new Object[][]{
+        {"a pr or b pr or c pr"},
+        {"a pr and b pr and c pr"},
+        {"a pr and b pr or c pr"},
+        {"a pr or b pr and c pr"},
+        {"a pr or b pr and c pr or d pr"},
+        {"a pr and b pr or c pr and d pr or e pr"},
+        {"not (a pr) and b pr or not (c pr or d pr) and e pr"},
+        {"(a pr or b pr) and (c pr or (d pr and e pr))"},
+        {"emails[type eq \"work\" and value co \"@example.com\" or primary eq true] and not (a pr or b pr)"}
+    };
+  }
+
+  @Test(dataProvider = "precedence")
+  public void sameTree(String filter) {
+    assertEquals(postfix.parse(filter), singlePass.parse(filter));
+  }
+
+  @Test
+  public void sameIncompleteExpressionFailures() {
+    // A trailing logical operator is not rejected by the scan, both engines fail when the operator is built
+    assertSameFailure("a pr and", NoSuchElementException.class);
+    // An unclosed group is reported ahead of the incomplete expression
+    assertSameFailure("(a pr and", GroupingException.class);
+  }
+
+  private void assertSameFailure(String filter, Class<? extends RuntimeException> expected) {
+    for (SCIMFilterParser parser : new SCIMFilterParser[]{postfix, singlePass}) {
+      try {
+        parser.parse(filter);
+        fail("Expected exception for filter [" + filter + "]");
+      } catch (RuntimeException e) {
+        assertEquals(expected, e.getClass());
+      }
+    }
+  }
+}
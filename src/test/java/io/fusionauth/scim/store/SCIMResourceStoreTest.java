@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.store;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import io.fusionauth.scim.domain.SCIMGroup;
+import io.fusionauth.scim.domain.SCIMListResponse;
+import io.fusionauth.scim.domain.SCIMMeta;
+import io.fusionauth.scim.domain.SCIMUser;
+import io.fusionauth.scim.domain.SCIMUserEmail;
+import io.fusionauth.scim.filter.PojoFilterCompiler;
+import io.fusionauth.scim.filter.ResourceSorter;
+import io.fusionauth.scim.filter.SortOrder;
+import io.fusionauth.scim.parser.SCIMFilterParser;
+import io.fusionauth.scim.transform.ExpressionOptimizer;
+import io.fusionauth.scim.utils.SCIMDateTools;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * @author Spencer Witt
+ */
+public class SCIMResourceStoreTest {
+  private final SCIMFilterParser parser = new SCIMFilterParser();
+
+  private SCIMResourceStore<SCIMUser> store;
+
+  private List<SCIMUser> users;
+
+  @BeforeClass
+  public void beforeClass() {
+    store = SCIMResourceStore.users();
+    users = new ArrayList<>();
+    for (int i = 0; i < 1_000; i++) {
+      users.add(user(i));
+    }
+    users.forEach(store::put);
+  }
+
+  @DataProvider(name = "filters")
+  public Object[][] filters() {
+    return new Object[][]{
+        {"userName eq \"user42\""},
+        {"userName eq \"nobody\""},
+        {"userName eq \"\""},
+        {"externalId eq \"ext-7\""},
+        {"id eq \"" + new UUID(0, 5) + "\""},
+        {"emails.value eq \"user9@example.com\""},
+        {"emails[value eq \"user9@example.com\"]"},
+        {"userName eq \"user1\" or userName eq \"user2\" or externalId eq \"ext-3\""},
+        {"userName eq \"user1\" or active eq true"},
+        {"userName eq \"user10\" and active eq true"},
+        {"userName eq \"user12\" and active eq true"},
+        {"(userName eq \"user3\" or userName eq \"user4\") and title pr"},
+        {"(userName eq \"user3\" or userName eq \"user6\" and active eq true) and title pr"},
+        {"meta.lastModified gt \"2022-01-01T00:15:00Z\""},
+        {"meta.lastModified ge \"2022-01-01T00:15:00Z\" and meta.lastModified lt \"2022-01-01T00:20:00Z\""},
+        {"meta.lastModified eq \"2022-01-01T00:15:00Z\""},
+        {"meta.lastModified le \"2022-01-01T00:01:00Z\" and userName sw \"user\""},
+        {"not (userName eq \"user1\")"},
+        {"userName sw \"user99\""},
+    };
+  }
+
+  @Test(dataProvider = "filters")
+  public void search(String filter) {
+    Predicate<Object> predicate = new PojoFilterCompiler().compile(parser.parse(filter));
+    List<SCIMUser> expected = users.stream().filter(predicate).collect(Collectors.toList());
+
+    assertEquals(filter, sorted(expected), sorted(store.search(parser.parse(filter))));
+    // The optimizer introduces ranges and memberships
+    assertEquals(filter, sorted(expected), sorted(store.search(new ExpressionOptimizer().optimize(parser.parse(filter)).expression)));
+  }
+
+  @Test
+  public void plan() {
+    QueryPlan plan = store.plan(parser.parse("userName eq \"user42\""));
+    assertTrue(plan.lookup instanceof IndexLookup.Probe);
+    assertTrue(plan.residual.isEmpty());
+
+    plan = store.plan(parser.parse("userName eq \"user42\" and active eq true and externalId eq \"ext-42\""));
+    assertTrue(plan.lookup instanceof IndexLookup.Intersection);
+    assertEquals(List.of(parser.parse("active eq true")), plan.residual);
+
+    plan = store.plan(parser.parse("userName eq \"user1\" or externalId eq \"ext-2\""));
+    assertTrue(plan.lookup instanceof IndexLookup.Union);
+    assertTrue(plan.residual.isEmpty());
+
+    plan = store.plan(new ExpressionOptimizer().optimize(parser.parse("meta.lastModified gt \"2022-01-01T00:15:00Z\" and meta.lastModified le \"2022-01-01T00:20:00Z\"")).expression);
+    assertTrue(plan.lookup instanceof IndexLookup.Probe);
+    assertTrue(plan.residual.isEmpty());
+
+    // An or with an operand that has no index, and comparisons with the empty string, are scanned
+    assertTrue(store.plan(parser.parse("userName eq \"user1\" or active eq true")).isFullScan());
+    assertTrue(store.plan(parser.parse("userName eq \"\"")).isFullScan());
+  }
+
+  @Test
+  public void intersection() {
+    List<String> found = new ArrayList<>();
+    IndexLookup a = new IndexLookup.Probe(null, "a", 2, () -> {
+      found.add("a");
+      return Set.of(1, 2);
+    });
+    IndexLookup b = new IndexLookup.Probe(null, "b", 3, () -> {
+      found.add("b");
+      return Set.of(2, 3, 4);
+    });
+    IndexLookup empty = new IndexLookup.Probe(null, "empty", 0, () -> {
+      found.add("empty");
+      return Set.of();
+    });
+
+    assertEquals(Set.of(2), new IndexLookup.Intersection(List.of(a, b), 1).find());
+    assertEquals(List.of("a", "b"), found);
+
+    // The driving lookup is run first, and the others are not run once the result is empty
+    found.clear();
+    assertEquals(Set.of(), new IndexLookup.Intersection(List.of(empty, a, b), 0).find());
+    assertEquals(List.of("empty"), found);
+  }
+
+  @Test
+  public void costBasedPlan() {
+    // The user name lookup drives, checking the date on one candidate is cheaper than reading most of the date index
+    QueryPlan plan = store.plan(parser.parse("meta.lastModified gt \"2022-01-01T00:00:10Z\" and userName eq \"user500\""));
+    assertTrue(plan.lookup instanceof IndexLookup.Probe);
+    assertEquals(parser.parse("userName eq \"user500\""), ((IndexLookup.Probe) plan.lookup).expression);
+    assertEquals(List.of(parser.parse("meta.lastModified gt \"2022-01-01T00:00:10Z\"")), plan.residual);
+
+    // A narrow date range is estimated from the histogram, and the prefix check is a residual
+    plan = store.plan(parser.parse("externalId sw \"ext-9\" and meta.lastModified gt \"2022-01-01T00:16:37Z\""));
+    assertTrue(plan.lookup instanceof IndexLookup.Probe);
+    assertEquals(2, plan.lookup.estimatedCount, 1);
+    assertEquals(List.of(users.get(998), users.get(999)), sorted(store.search(plan)));
+
+    // The most selective residual expressions are checked first
+    plan = store.plan(parser.parse("title pr and active eq true and userName sw \"user99\""));
+    assertTrue(plan.isFullScan());
+    assertEquals(List.of(parser.parse("userName sw \"user99\""), parser.parse("active eq true"), parser.parse("title pr")), plan.residual);
+  }
+
+  @Test
+  public void sortedPage() {
+    SCIMListResponse response = store.search(parser.parse("userName sw \"user9\""), ResourceSorter.objects("meta.lastModified", SortOrder.descending), 3, 5);
+    assertEquals(111, response.totalResults);
+    assertEquals(5, response.itemsPerPage);
+    assertEquals(3, response.startIndex);
+    assertEquals(List.of("user997", "user996", "user995", "user994", "user993"),
+        response.Resources.stream().map(resource -> ((SCIMUser) resource).userName).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void cursorPage() {
+    ResourceSorter<Object> sorter = ResourceSorter.objects("userName", SortOrder.ascending);
+    SCIMListResponse first = store.search(parser.parse("userName sw \"user9\""), sorter, null, 100);
+    assertEquals(111, first.totalResults);
+    assertEquals(100, first.itemsPerPage);
+    assertNull(first.previousCursor);
+
+    SCIMListResponse second = store.search(parser.parse("userName sw \"user9\""), sorter, first.nextCursor, 100);
+    assertEquals(11, second.itemsPerPage);
+    assertEquals("user999", ((SCIMUser) second.Resources.get(10)).userName);
+    assertNull(second.nextCursor);
+    assertEquals(first.Resources.subList(1, 100),
+        store.search(parser.parse("userName sw \"user9\""), sorter, second.previousCursor, 99).Resources);
+  }
+
+  @Test
+  public void statistics() {
+    AttributeStatistics userName = store.statistics("userName");
+    assertEquals(1_000, userName.distinctCount);
+    assertEquals(1_000, userName.valueCount);
+    assertEquals(0.111, userName.prefixFrequency("user1"), 0.001);
+    assertEquals(0.0, userName.prefixFrequency("nobody"), 0.001);
+
+    AttributeStatistics lastModified = store.statistics("meta.lastModified");
+    assertEquals(0.1, lastModified.rangeFrequency(SCIMDateTools.parse("2022-01-01T00:15:00Z").toInstant(), null), 0.02);
+    assertEquals(0.5, lastModified.rangeFrequency(null, SCIMDateTools.parse("2022-01-01T00:08:20Z").toInstant()), 0.02);
+    assertEquals(0.0, lastModified.rangeFrequency(SCIMDateTools.parse("2023-01-01T00:00:00Z").toInstant(), null), 0.001);
+
+    assertNull(store.statistics("title"));
+  }
+
+  @Test
+  public void putAndRemove() {
+    SCIMResourceStore<SCIMUser> store = SCIMResourceStore.users();
+    SCIMUser user = user(1);
+    store.put(user);
+    assertEquals(user, store.get(user.id));
+    assertEquals(List.of(user), store.search(parser.parse("userName eq \"user1\"")));
+
+    // Replacing a resource re-indexes it
+    SCIMUser renamed = user(1).with(u -> u.userName = "renamed");
+    store.put(renamed);
+    assertEquals(1, store.size());
+    assertEquals(List.of(), store.search(parser.parse("userName eq \"user1\"")));
+    assertEquals(List.of(renamed), store.search(parser.parse("userName eq \"renamed\" and emails.value eq \"user1@example.com\"")));
+
+    assertEquals(renamed, store.remove(renamed.id));
+    assertNull(store.remove(renamed.id));
+    assertNull(store.get(renamed.id));
+    assertEquals(List.of(), store.search(parser.parse("userName eq \"renamed\"")));
+
+    // Removed slots are reused
+    store.put(user(2));
+    assertEquals(1, store.search(parser.parse("userName sw \"user\"")).size());
+  }
+
+  @Test
+  public void unassigned() {
+    SCIMResourceStore<SCIMUser> store = SCIMResourceStore.users();
+    SCIMUser inactive = user(1);
+    SCIMUser unset = user(2).with(u -> u.active = null);
+    SCIMUser leveled = user(3).with(u -> {
+      u.active = true;
+      u.set("urn:example:extension", Map.of("level", 3));
+    });
+    List.of(inactive, unset, leveled).forEach(store::put);
+
+    // Residual number and boolean comparisons do not match users without the attribute
+    assertEquals(List.of(parser.parse("active eq false")), store.plan(parser.parse("active eq false")).residual);
+    assertEquals(List.of(inactive), store.search(parser.parse("userName sw \"user\" and active eq false")));
+    assertEquals(List.of(inactive), store.search(parser.parse("active eq false")));
+    assertEquals(List.of(leveled), store.search(parser.parse("urn:example:extension:level lt 5000")));
+    assertEquals(List.of(leveled), store.search(parser.parse("urn:example:extension:level le 3.5")));
+    assertEquals(List.of(), store.search(parser.parse("urn:example:extension:level eq 0")));
+    assertEquals(sorted(List.of(inactive, unset)), sorted(store.search(parser.parse("urn:example:extension:level ne 3"))));
+  }
+
+  @Test
+  public void groups() {
+    SCIMResourceStore<SCIMGroup> groups = SCIMResourceStore.groups();
+    SCIMGroup group = new SCIMGroup().with(g -> {
+      g.id = UUID.randomUUID();
+      g.externalId = "admins";
+      g.displayName = "Administrators";
+    });
+    groups.put(group);
+    assertEquals(List.of(group), groups.search(parser.parse("externalId eq \"admins\" and displayName sw \"Admin\"")));
+    assertFalse(groups.plan(parser.parse("externalId eq \"admins\"")).isFullScan());
+  }
+
+  private List<SCIMUser> sorted(List<SCIMUser> users) {
+    return users.stream().sorted(Comparator.comparing(user -> user.id)).collect(Collectors.toList());
+  }
+
+  private SCIMUser user(int index) {
+    return new SCIMUser().with(u -> {
+      u.id = new UUID(0, index);
+      u.userName = "user" + index;
+      u.externalId = "ext-" + index;
+      u.active = index % 2 == 0;
+      u.title = index % 3 == 0 ? "Engineer" : null;
+      u.emails = List.of(new SCIMUserEmail().with(e -> e.value = "user" + index + "@example.com"));
+      u.meta = new SCIMMeta().with(m -> m.lastModified = SCIMDateTools.parse("2022-01-01T00:00:00Z").plusSeconds(index));
+    });
+  }
+}
@@ -285,6 +285,33 @@ public class ElasticsearchTransformerTest {
     };
   }
 
+  @DataProvider(name = "optimized")
+  public Object[][] optimized() {
+    return new Object[][]{
+        // Memberships
+        {"A eq \"a\" or A eq \"b\" or A eq \"c\"", "A:(\"a\" OR \"b\" OR \"c\")"},
+        {"A eq \"a\" or A eq \"b\" or B pr", "(A:(\"a\" OR \"b\") OR _exists_:B)"},
+        {"emails[type eq \"work\" or type eq \"home\"]", "emails.type:(\"work\" OR \"home\")"},
+
+        // Ranges
+        {"A gt 5 and A le 10", "A:{5 TO 10]"},
+        {"A ge -10 and A lt -5", "A:[\\-10 TO \\-5}"},
+        {"A ge 1.5 and A le 2.5", "A:[1.5 TO 2.5]"},
+        {"C eq true and A gt 5 and A lt 10", "(C:true AND A:{5 TO 10})"},
+        {"A[B gt 1 and B lt 3]", "A.B:{1 TO 3}"},
+        {
+            "meta.lastModified ge \"2022-01-01T00:00:00Z\" and meta.lastModified lt \"2023-01-01T00:00:00Z\"",
+            "meta.lastModified:[2022-01-01T00:00:00.000Z TO 2023-01-01T00:00:00.000Z}"
+        }
+    };
+  }
+
+  @Test(dataProvider = "optimized")
+  public void transformOptimized(String scimFilter, String expected) {
+    Expression expression = new ExpressionOptimizer().optimize(parser.parse(scimFilter)).expression;
+    assertEquals(expected, ElasticsearchTransformer.transform(expression));
+  }
+
   @Test(dataProvider = "data")
   public void transformGood(String scimFilter, String expected) {
     Expression expression = parser.parse(scimFilter);
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.transform;
+
+import java.util.List;
+
+import io.fusionauth.scim.parser.ComparisonOperator;
+import io.fusionauth.scim.parser.LogicalOperator;
+import io.fusionauth.scim.parser.SCIMFilterParser;
+import io.fusionauth.scim.parser.expression.AttributeTextComparisonExpression;
+import io.fusionauth.scim.parser.expression.Expression;
+import io.fusionauth.scim.parser.expression.LogicalChainExpression;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertSame;
+
+/**
+ * @author Spencer Witt
+ */
+public class ExpressionFlattenerTest {
+  private final SCIMFilterParser parser = new SCIMFilterParser();
+
+  @DataProvider(name = "data")
+  public Object[][] data() {
+    return new Object[][]{
+        {"A pr", "_exists_:A"},
+        {"A pr or B pr", "(_exists_:A OR _exists_:B)"},
+        {"A pr or B pr or C pr or D pr", "(_exists_:A OR _exists_:B OR _exists_:C OR _exists_:D)"},
+        {"A pr and B pr and C pr", "(_exists_:A AND _exists_:B AND _exists_:C)"},
+        {"A pr or B pr and C pr or D pr", "(_exists_:A OR (_exists_:B AND _exists_:C) OR _exists_:D)"},
+        {"(A pr or B pr) or (C pr or D pr)", "(_exists_:A OR _exists_:B OR _exists_:C OR _exists_:D)"},
+        {"(A pr and B pr) and C pr or D pr and E pr and F pr", "((_exists_:A AND _exists_:B AND _exists_:C) OR (_exists_:D AND _exists_:E AND _exists_:F))"},
+        {"not (A pr or B pr or C pr)", "!((_exists_:A OR _exists_:B OR _exists_:C))"},
+        {"emails[type eq \"work\" and primary eq true and value co \"@example.com\"]",
+            "(emails.type:\"work\" AND emails.primary:true AND emails.value:\"@example.com\")"}
+    };
+  }
+
+  @Test(dataProvider = "data")
+  public void flatten(String filter, String expected) {
+    assertEquals(expected, ElasticsearchTransformer.transform(ExpressionFlattener.flatten(parser.parse(filter))));
+  }
+
+  @Test
+  public void longChain() {
+    StringBuilder filter = new StringBuilder();
+    for (int i = 0; i < 10_000; i++) {
+      if (i > 0) {
+        filter.append(" or ");
+      }
+      filter.append("id eq \"").append(i).append("\"");
+    }
+
+    // The parsed chain is 10,000 levels deep, it can still be transformed and flattened without a StackOverflowError
+    Expression expression = parser.parse(filter.toString());
+    assertEquals(9_999 * 2, ElasticsearchTransformer.transform(expression).chars().filter(c -> c == '(' || c == ')').count());
+
+    LogicalChainExpression chain = (LogicalChainExpression) ExpressionFlattener.flatten(expression);
+    assertEquals(LogicalOperator.or, chain.logicalOperator);
+    assertEquals(10_000, chain.operands.size());
+    assertEquals(new AttributeTextComparisonExpression("id", ComparisonOperator.eq, "9999"), chain.operands.get(9_999));
+    assertEquals(chain, ExpressionFlattener.flatten(chain));
+  }
+
+  @Test
+  public void unchangedSubTreesAreReused() {
+    Expression expression = parser.parse("not (A pr)");
+    assertSame(expression, ExpressionFlattener.flatten(expression));
+
+    Expression leaf = parser.parse("A pr");
+    LogicalChainExpression chain = (LogicalChainExpression) ExpressionFlattener.flatten(parser.parse("A pr or A pr"));
+    assertEquals(List.of(leaf, leaf), chain.operands);
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.transform;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fusionauth.scim.filter.JsonNodeFilterCompiler;
+import io.fusionauth.scim.parser.SCIMFilterParser;
+import io.fusionauth.scim.parser.expression.Expression;
+import io.fusionauth.scim.utils.SCIMPatchFilterMatcher;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import static io.fusionauth.scim.transform.OptimizerRule.deMorgan;
+import static io.fusionauth.scim.transform.OptimizerRule.doubleNegation;
+import static io.fusionauth.scim.transform.OptimizerRule.duplicate;
+import static io.fusionauth.scim.transform.OptimizerRule.membership;
+import static io.fusionauth.scim.transform.OptimizerRule.range;
+import static io.fusionauth.scim.transform.OptimizerRule.tautology;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertSame;
+
+/**
+ * @author Spencer Witt
+ */
+public class ExpressionOptimizerTest {
+  private final ExpressionOptimizer optimizer = new ExpressionOptimizer();
+
+  private final SCIMFilterParser parser = new SCIMFilterParser();
+
+  @DataProvider(name = "data")
+  public Object[][] data() {
+    return new Object[][]{
+        {"not (not (A pr))", "_exists_:A", Map.of(doubleNegation, 1)},
+        {"not (not (not (not (A pr))))", "_exists_:A", Map.of(doubleNegation, 2)},
+        {"not (A eq \"a\")", "!(A:\"a\")", Map.of()},
+        {"not (A ne 5)", "!(!(A:5))", Map.of()},
+        {"not (A eq null)", "!(A:null)", Map.of()},
+        {"not (A gt 5)", "!(A:>5)", Map.of()},
+        {"not (A eq \"a\" and B pr)", "(!(A:\"a\") OR !(_exists_:B))", Map.of(deMorgan, 1)},
+        {"not (A eq \"a\" or not (B eq \"b\"))", "(!(A:\"a\") AND B:\"b\")", Map.of(deMorgan, 1, doubleNegation, 1)},
+        {"A gt 5 and A le 10", "A:{5 TO 10]", Map.of(range, 1)},
+        {"A ge -5 and B pr and A lt 10", "(A:[\\-5 TO 10} AND _exists_:B)", Map.of(range, 1)},
+        {"A lt 10 and A gt 5", "A:{5 TO 10}", Map.of(range, 1)},
+        {"A gt \"2022-09-02T15:14:45Z\" and A lt \"2022-09-03T15:14:45Z\"", "A:{2022-09-02T15:14:45.000Z TO 2022-09-03T15:14:45.000Z}", Map.of(range, 1)},
+        {"A gt \"a\" and A lt \"b\"", "(A:>\"a\" AND A:<\"b\")", Map.of()},
+        {"A gt 5 or A lt 10", "(A:>5 OR A:<10)", Map.of()},
+        {"A gt 5 and B lt 10", "(A:>5 AND B:<10)", Map.of()},
+        {"A pr or B pr or A pr", "(_exists_:A OR _exists_:B)", Map.of(duplicate, 1)},
+        {"A pr and A pr and A pr", "_exists_:A", Map.of(duplicate, 2)},
+        {"A pr and (B eq 1 or not (B eq 1))", "_exists_:A", Map.of(tautology, 1)},
+        {"A pr and (B co \"x\" or not (B co \"x\"))", "_exists_:A", Map.of(tautology, 1)},
+        {"B co \"x\" or not (B co \"x\")", "(B:\"x\" OR !(B:\"x\"))", Map.of()},
+        {"emails[not (not (type eq \"work\"))]", "emails.type:\"work\"", Map.of(doubleNegation, 1)},
+        {"A pr and B pr", "(_exists_:A AND _exists_:B)", Map.of()},
+        {"A eq \"a\" or A eq \"b\" or B pr or A eq \"c\"", "(A:(\"a\" OR \"b\" OR \"c\") OR _exists_:B)", Map.of(membership, 1)},
+        {"A eq \"a\" or B eq \"b\" or A eq \"a\" or B eq \"c\"", "(A:\"a\" OR B:(\"b\" OR \"c\"))", Map.of(duplicate, 1, membership, 1)},
+        {"A eq \"a\" or (A eq \"b\" and B pr) or A ne \"c\"", "(A:\"a\" OR (A:\"b\" AND _exists_:B) OR !(A:\"c\"))", Map.of()},
+        {"A eq 1 or A eq 2", "(A:1 OR A:2)", Map.of()},
+        {"A eq \"a\" and A eq \"b\"", "(A:\"a\" AND A:\"b\")", Map.of()},
+        {"not (A ne \"a\" and A ne \"b\")", "(!(!(A:\"a\")) OR !(!(A:\"b\")))", Map.of(deMorgan, 1)},
+        {"emails.type eq \"x\" or emails.type ne \"x\"", "(emails.type:\"x\" OR !(emails.type:\"x\"))", Map.of()}
+    };
+  }
+
+  @Test
+  public void disabledRules() {
+    ExpressionOptimizer optimizer = new ExpressionOptimizer(EnumSet.of(duplicate));
+    OptimizedExpression result = optimizer.optimize(parser.parse("not (not (A gt 5 and A lt 10 and A gt 5))"));
+    assertEquals("!(!((A:>5 AND A:<10)))", ElasticsearchTransformer.transform(result.expression));
+    assertEquals(Map.of(duplicate, 1), result.rewrites);
+  }
+
+  @Test
+  public void equivalent() throws Exception {
+    ObjectMapper objectMapper = new ObjectMapper();
+    JsonNode[] nodes = {
+        objectMapper.readTree("{\"a\": \"x\", \"b\": 5}"),
+        objectMapper.readTree("{\"a\": \"y\", \"b\": 10}"),
+        objectMapper.readTree("{\"a\": \"x\", \"b\": 1}"),
+        objectMapper.readTree("{\"b\": 7}")
+    };
+    String[] filters = {
+        "not (a eq \"x\" and b gt 5)",
+        "not (not (a eq \"x\") or b le 5)",
+        "b gt 5 and b le 10",
+        "b ge 1 and a ne \"y\" and b lt 7",
+        "a eq \"x\" or b eq 10 or a eq \"x\"",
+        "b pr and (a eq \"x\" or not (a eq \"x\"))",
+        "a eq \"x\" or a eq \"y\" or b eq 7",
+        "a eq \"\" or a eq \"y\""
+    };
+    for (String filter : filters) {
+      Expression expression = parser.parse(filter);
+      Expression optimized = optimizer.optimize(expression).expression;
+      for (JsonNode node : nodes) {
+        assertEquals(filter + " " + node, SCIMPatchFilterMatcher.matches(expression, node), SCIMPatchFilterMatcher.matches(optimized, node));
+      }
+    }
+  }
+
+  @Test
+  public void multiValued() throws Exception {
+    // A multi-valued attribute matches a comparison if any value matches, so a negated comparison is not the opposite comparison
+    ObjectMapper objectMapper = new ObjectMapper();
+    JsonNode[] nodes = {
+        objectMapper.readTree("{\"emails\": [{\"type\": \"work\"}, {\"type\": \"home\"}]}"),
+        objectMapper.readTree("{\"emails\": []}")
+    };
+    String[] filters = {
+        "not (emails.type eq \"work\")",
+        "not (emails.type ne \"work\")",
+        "emails.type eq \"x\" or emails.type ne \"x\"",
+        "emails pr and (emails.type eq \"x\" or not (emails.type eq \"x\"))",
+        "not (emails.type eq \"work\" and emails.type eq \"home\")"
+    };
+    JsonNodeFilterCompiler compiler = new JsonNodeFilterCompiler();
+    for (String filter : filters) {
+      Expression expression = parser.parse(filter);
+      Predicate<JsonNode> original = compiler.compile(expression);
+      Predicate<JsonNode> optimized = compiler.compile(optimizer.optimize(expression).expression);
+      for (JsonNode node : nodes) {
+        assertEquals(filter + " " + node, original.test(node), optimized.test(node));
+      }
+    }
+  }
+
+  @Test(dataProvider = "data")
+  public void optimize(String filter, String expected, Map<OptimizerRule, Integer> rewrites) {
+    OptimizedExpression result = optimizer.optimize(parser.parse(filter));
+    assertEquals(expected, ElasticsearchTransformer.transform(result.expression));
+    assertEquals(rewrites, result.rewrites);
+  }
+
+  @Test
+  public void unchanged() {
+    Expression expression = parser.parse("emails[type eq \"work\"]");
+    OptimizedExpression result = optimizer.optimize(expression);
+    assertSame(expression, result.expression);
+    assertFalse(result.rewritten());
+  }
+}
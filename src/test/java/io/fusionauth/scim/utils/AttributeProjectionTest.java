@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2026, FusionAuth, All Rights Reserved
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND,
+ * either express or implied. See the License for the specific
+ * language governing permissions and limitations under the License.
+ */
+package io.fusionauth.scim.utils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import io.fusionauth.scim.domain.GenericSCIMResource;
+import io.fusionauth.scim.domain.SCIMEnterpriseSchemaExtension;
+import io.fusionauth.scim.domain.SCIMEnterpriseUser;
+import io.fusionauth.scim.domain.SCIMGroup;
+import io.fusionauth.scim.domain.SCIMListResponse;
+import io.fusionauth.scim.domain.SCIMMember;
+import io.fusionauth.scim.domain.SCIMMeta;
+import io.fusionauth.scim.domain.SCIMSchemas;
+import io.fusionauth.scim.domain.SCIMUserEmail;
+import io.fusionauth.scim.domain.SCIMUserName;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertSame;
+
+/**
+ * @author Spencer Witt
+ */
+public class AttributeProjectionTest {
+  private final ObjectMapper objectMapper = AttributeProjection.configure(new ObjectMapper().setSerializationInclusion(Include.NON_NULL));
+
+  private SCIMGroup group;
+
+  private SCIMEnterpriseUser user;
+
+  @BeforeClass
+  public void beforeClass() {
+    user = new SCIMEnterpriseUser().with(u -> {
+      u.id = UUID.fromString("2819c223-7f76-453a-919d-413861904646");
+      u.schemas = List.of(SCIMSchemas.User, SCIMSchemas.EnterpriseUser);
+      u.userName = "bjensen";
+      u.externalId = "701984";
+      u.name = new SCIMUserName().with(n -> {
+        n.givenName = "Barbara";
+        n.familyName = "Jensen";
+      });
+      u.emails = List.of(
+          new SCIMUserEmail().with(e -> {
+            e.value = "bjensen@example.com";
+            e.type = "work";
+          }),
+          new SCIMUserEmail().with(e -> {
+            e.value = "babs@jensen.org";
+            e.type = "home";
+          }));
+      u.meta = new SCIMMeta().with(m -> m.resourceType = "User");
+      u.extension = new SCIMEnterpriseSchemaExtension().with(x -> {
+        x.employeeNumber = "701984";
+        x.costCenter = "4130";
+      });
+      u.set("urn:example:extension", Map.of("level", 3, "tags", List.of("a", "b")));
+    });
+
+    group = new SCIMGroup().with(g -> {
+      g.id = UUID.fromString("e9e30dba-f08f-4109-8486-d5c6a331660a");
+      g.schemas = List.of(SCIMSchemas.Group);
+      g.displayName = "Tour Guides";
+      g.members = List.of(new SCIMMember().with(m -> m.value = "2819c223-7f76-453a-919d-413861904646"));
+    });
+  }
+
+  @Test
+  public void attributes() throws Exception {
+    assertProjection(AttributeProjection.attributes("userName,externalId"), user, """
+        {"id": "2819c223-7f76-453a-919d-413861904646", "schemas": ["%s", "%s"], "userName": "bjensen", "externalId": "701984"}
+        """.formatted(SCIMSchemas.User, SCIMSchemas.EnterpriseUser));
+
+    // Sub-attributes, multi-valued attributes and names in any case
+    assertProjection(AttributeProjection.attributes("NAME.givenName, emails.value, urn:ietf:params:scim:schemas:core:2.0:User:meta"), user, """
+        {"id": "2819c223-7f76-453a-919d-413861904646", "schemas": ["%s", "%s"], "name": {"givenName": "Barbara"},
+         "emails": [{"value": "bjensen@example.com"}, {"value": "babs@jensen.org"}], "meta": {"resourceType": "User"}}
+        """.formatted(SCIMSchemas.User, SCIMSchemas.EnterpriseUser));
+
+    // Whole extensions, parts of extensions and extension maps
+    assertProjection(AttributeProjection.attributes(SCIMSchemas.EnterpriseUser + ":employeeNumber,urn:example:extension"), user, """
+        {"id": "2819c223-7f76-453a-919d-413861904646", "schemas": ["%s", "%s"], "%s": {"employeeNumber": "701984"},
+         "urn:example:extension": {"level": 3, "tags": ["a", "b"]}}
+        """.formatted(SCIMSchemas.User, SCIMSchemas.EnterpriseUser, SCIMSchemas.EnterpriseUser));
+    assertProjection(AttributeProjection.attributes(SCIMSchemas.EnterpriseUser + ",urn:example:extension:level"), user, """
+        {"id": "2819c223-7f76-453a-919d-413861904646", "schemas": ["%s", "%s"], "%s": {"employeeNumber": "701984", "costCenter": "4130"},
+         "urn:example:extension": {"level": 3}}
+        """.formatted(SCIMSchemas.User, SCIMSchemas.EnterpriseUser, SCIMSchemas.EnterpriseUser));
+  }
+
+  @Test
+  public void cache() {
+    // Lists that only differ in order, case, spacing or the core schema URN share the compiled projection
+    AttributeProjection projection = AttributeProjection.attributes("userName,name.givenName");
+    assertSame(projection, AttributeProjection.attributes(" name.GIVENNAME , urn:ietf:params:scim:schemas:core:2.0:User:username,userName"));
+    assertSame(projection, AttributeProjection.of("name.givenName,userName", "members"));
+    assertEquals("attributes=/name/givenname,/username", projection.canonical);
+    assertSame(AttributeProjection.excludedAttributes("members"), AttributeProjection.of(" ", "Members"));
+    assertSame(AttributeProjection.Everything, AttributeProjection.of(null, null));
+
+    // New projections are still cached once the cache is full
+    for (int i = 0; i <= AttributeProjection.MaximumCached; i++) {
+      AttributeProjection.attributes("userName,urn:example:extension:attribute" + i);
+    }
+    AttributeProjection recent = AttributeProjection.attributes("displayName,members.value");
+    assertSame(recent, AttributeProjection.attributes("members.value,displayName"));
+  }
+
+  @Test
+  public void excludedAttributes() throws Exception {
+    JsonNode expected = objectMapper.valueToTree(group);
+    ((ObjectNode) expected).remove("members");
+    assertEquals(expected, objectMapper.readTree(AttributeProjection.excludedAttributes("members").writer(objectMapper).writeValueAsString(group)));
+
+    // The id and schemas are always returned
+    assertProjection(AttributeProjection.excludedAttributes("id,schemas,displayName,members.value"), group, """
+        {"id": "e9e30dba-f08f-4109-8486-d5c6a331660a", "schemas": ["%s"], "members": [{}]}
+        """.formatted(SCIMSchemas.Group));
+
+    // Excluded attributes are never read, so a value that can not be written is not a problem
+    GenericSCIMResource resource = new GenericSCIMResource();
+    resource.put("userName", "bjensen");
+    resource.put("password", new Object() {
+      public String getValue() {
+        throw new IllegalStateException("The password must not be written");
+      }
+    });
+    assertProjection(AttributeProjection.excludedAttributes("password"), resource, """
+        {"userName": "bjensen"}
+        """);
+  }
+
+  @Test
+  public void existingFilters() throws Exception {
+    ObjectMapper mapper = new ObjectMapper().setFilterProvider(new SimpleFilterProvider().addFilter("secret",
+        SimpleBeanPropertyFilter.serializeAllExcept("password")));
+    // Configuring twice has no further effect
+    AttributeProjection.configure(AttributeProjection.configure(mapper));
+
+    // Deprecated filter lookups are delegated to the existing provider, if there is one
+    @SuppressWarnings("deprecation")
+    Object deprecated = objectMapper.getSerializationConfig().getFilterProvider().findFilter("secret");
+    assertNull(deprecated);
+
+    // A class with its own filter keeps it, with or without a projection
+    assertEquals("{\"userName\":\"bjensen\"}", mapper.writeValueAsString(new Secret()));
+    assertEquals("{\"userName\":\"bjensen\"}", AttributeProjection.attributes("password").writer(mapper).writeValueAsString(new Secret()));
+
+    // Other classes are projected
+    assertEquals(objectMapper.readTree("""
+            {"id": "e9e30dba-f08f-4109-8486-d5c6a331660a", "schemas": ["%s"], "displayName": "Tour Guides"}
+            """.formatted(SCIMSchemas.Group)),
+        objectMapper.readTree(AttributeProjection.attributes("displayName").writer(mapper).writeValueAsString(group)));
+  }
+
+  @Test
+  public void listResponse() throws Exception {
+    SCIMListResponse response = new SCIMListResponse().with(r -> {
+      r.Resources = List.of(user, group);
+      r.itemsPerPage = 2;
+      r.startIndex = 1;
+      r.totalResults = 2;
+    });
+    assertProjection(AttributeProjection.attributes("displayName,userName"), response, """
+        {"Resources": [{"id": "2819c223-7f76-453a-919d-413861904646", "schemas": ["%s", "%s"], "userName": "bjensen"},
+                       {"id": "e9e30dba-f08f-4109-8486-d5c6a331660a", "schemas": ["%s"], "displayName": "Tour Guides"}],
+         "itemsPerPage": 2, "schemas": ["%s"], "startIndex": 1, "totalResults": 2}
+        """.formatted(SCIMSchemas.User, SCIMSchemas.EnterpriseUser, SCIMSchemas.Group, SCIMSchemas.ListResponse));
+  }
+
+  @Test
+  public void unfiltered() throws Exception {
+    // Writes without a projection, and the projection of everything, are not filtered
+    JsonNode expected = new ObjectMapper().setSerializationInclusion(Include.NON_NULL).valueToTree(user);
+    assertEquals(expected, objectMapper.readTree(objectMapper.writeValueAsString(user)));
+    assertEquals(expected, objectMapper.readTree(AttributeProjection.Everything.writer(objectMapper).writeValueAsString(user)));
+  }
+
+  private void assertProjection(AttributeProjection projection, Object value, String expected) throws Exception {
+    assertEquals(projection.canonical, objectMapper.readTree(expected), objectMapper.readTree(projection.writer(objectMapper).writeValueAsString(value)));
+  }
+
+  @JsonFilter("secret")
+  public static class Secret {
+    public String password = "hunter2";
+
+    public String userName = "bjensen";
+  }
+}
@@ -23,12 +23,16 @@ import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.fusionauth.scim.parser.ComparisonOperator;
+import io.fusionauth.scim.parser.ExpressionType;
+import io.fusionauth.scim.parser.SCIMFilterParser;
 import io.fusionauth.scim.parser.expression.AttributeBooleanComparisonExpression;
 import io.fusionauth.scim.parser.expression.AttributeDateComparisonExpression;
-import io.fusionauth.scim.parser.expression.AttributeExpression;
 import io.fusionauth.scim.parser.expression.AttributeNumberComparisonExpression;
 import io.fusionauth.scim.parser.expression.AttributePresentTestExpression;
 import io.fusionauth.scim.parser.expression.AttributeTextComparisonExpression;
+import io.fusionauth.scim.parser.expression.Expression;
+import io.fusionauth.scim.transform.ExpressionFlattener;
+import io.fusionauth.scim.transform.ExpressionOptimizer;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -41,6 +45,7 @@ import static io.fusionauth.scim.parser.ComparisonOperator.lt;
 import static io.fusionauth.scim.parser.ComparisonOperator.ne;
 import static io.fusionauth.scim.parser.ComparisonOperator.pr;
 import static io.fusionauth.scim.parser.ComparisonOperator.sw;
+import static org.testng.AssertJUnit.assertEquals;
 
 /**
  * @author Daniel DeGroff
@@ -158,6 +163,39 @@ public class SCIMPatchFilterMatcherTest {
     // @formatter:on
   }
 
+  @Test
+  public void logical() {
+    SCIMFilterParser parser = new SCIMFilterParser();
+    matches(parser.parse("a eq \"bbb\" and c eq 42"));
+    noMatch(parser.parse("a eq \"bbb\" and c eq 41"));
+    matches(parser.parse("a eq \"ccc\" or c eq 42"));
+    noMatch(parser.parse("a eq \"ccc\" or c eq 41"));
+    matches(parser.parse("not (a eq \"ccc\")"));
+    matches(parser.parse("a eq \"ccc\" or c eq 41 or b.b1 eq \"ddd\" and g eq true"));
+    noMatch(parser.parse("a eq \"ccc\" or c eq 41 or b.b1 eq \"ddd\" and g eq false"));
+
+    // The flattened form gives the same result
+    matches(ExpressionFlattener.flatten(parser.parse("a eq \"ccc\" or c eq 41 or b.b1 eq \"ddd\" and g eq true")));
+    noMatch(ExpressionFlattener.flatten(parser.parse("a eq \"ccc\" or c eq 41 or b.b1 eq \"ddd\" and g eq false")));
+  }
+
+  @Test
+  public void membership() {
+    StringBuilder filter = new StringBuilder();
+    for (int i = 0; i < 500; i++) {
+      filter.append("a eq \"").append(i).append("\" or ");
+    }
+
+    SCIMFilterParser parser = new SCIMFilterParser();
+    Expression matching = new ExpressionOptimizer().optimize(parser.parse(filter + "a eq \"bbb\"")).expression;
+    assertEquals(ExpressionType.attributeMembership, matching.type());
+    matches(matching);
+
+    Expression notMatching = new ExpressionOptimizer().optimize(parser.parse(filter + "a eq \"ccc\"")).expression;
+    assertEquals(ExpressionType.attributeMembership, notMatching.type());
+    noMatch(notMatching);
+  }
+
   @Test
   public void notPresent() throws Exception {
     // z pr
@@ -224,7 +262,7 @@ public class SCIMPatchFilterMatcherTest {
     }
   }
 
-  private void matches(AttributeExpression<?> expression) {
+  private void matches(Expression expression) {
     boolean result = SCIMPatchFilterMatcher.matches(expression, source);
 
     if (!result) {
@@ -232,7 +270,7 @@ public class SCIMPatchFilterMatcherTest {
     }
   }
 
-  private void noMatch(AttributeExpression<?> expression) {
+  private void noMatch(Expression expression) {
     boolean result = SCIMPatchFilterMatcher.matches(expression, source);
 
     if (result) {